@@ -0,0 +1,13 @@
+package com.charleezy.maya.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "agenda")
+public class AgendaConfig {
+    private int cacheWindowDays = 7;  // upcoming window cached per user, starting at the beginning of today
+    private long cacheMaxMb = 64;  // estimated heap budget across all cached users
+}
@@ -0,0 +1,17 @@
+package com.charleezy.maya.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "archival")
+public class ArchivalConfig {
+    private boolean enabled = true;
+    private String cron = "0 30 3 * * *";  // nightly, off-peak
+    private int retentionDays = 90;  // completed/cancelled items untouched this long move to the archive
+    private int batchSize = 1000;  // items moved per transaction
+    private long pauseMs = 200;  // between batches, to leave I/O and WAL headroom for live traffic
+    private int maxBatchesPerRun = 500;
+}
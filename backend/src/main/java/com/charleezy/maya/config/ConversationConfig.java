@@ -0,0 +1,16 @@
+package com.charleezy.maya.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "conversation")
+public class ConversationConfig {
+    private int turnsPerConversation = 20;  // recent turns kept in memory for each user and Nomi
+    private int maxConversations = 100000;  // least recently used conversations are spilled beyond this
+    private long spillFlushMs = 2000;  // how often spilled turns are written to Postgres
+    private int contextTurns = 6;  // recent turns sent ahead of each message to a Nomi; 0 sends none
+    private int contextMaxChars = 1500;  // older turns are left out beyond this
+}
@@ -0,0 +1,21 @@
+package com.charleezy.maya.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "dispatch")
+public class DispatchConfig {
+    private long jitterMs = 3000;  // messages due at the same moment are spread over this window
+    private int maxConcurrent = 256;  // Nomi requests in flight for dispatched messages
+    private double globalRequestsPerSecond = 200;
+    private int globalBurst = 400;
+    private double tenantRequestsPerSecond = 0.2;  // follow-ups to one user, on top of nomi.tenant-*
+    private int tenantBurst = 3;
+    private long maxRateWaitMs = 10000;  // a message that would wait longer for the rate limits is put back
+    private int maxPending = 100000;  // conversations with messages waiting to be sent
+    private int maxRetries = 3;  // for 5xx responses, timeouts and connection failures
+    private long retryBackoffMs = 500;
+}
@@ -0,0 +1,17 @@
+package com.charleezy.maya.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "invalidation")
+public class InvalidationConfig {
+    private boolean enabled = false;  // broadcast cache invalidations to other instances over Postgres NOTIFY
+    private String channel = "maya_invalidation";
+    private long coalesceMs = 50;  // invalidations raised within this window go out as one notification
+    private int userScopeThreshold = 32;  // more item changes than this for one user in a window collapse to one user-wide invalidation
+    private long reconnectBackoffMs = 1000;
+    private long maxReconnectBackoffMs = 30000;
+}
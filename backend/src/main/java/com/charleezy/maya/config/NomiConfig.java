@@ -11,4 +11,15 @@ public class NomiConfig {
     private String apiKey;
     private String baseUrl = "https://api.nomi.ai/v1";
     private int messageTimeout = 30; // seconds, based on Nomi's docs
+    private String credentialsKey;   // base64 AES key encrypting users' own API keys at rest
+    private int credentialCacheMinutes = 10;
+    private int maxConnections = 200;  // shared by all tenants
+    private double tenantRequestsPerSecond = 1;
+    private int tenantBurst = 10;
+    private long tenantMaxWaitMs = 2000;  // longer than this for a tenant's rate limit and the call fails instead
+    private int tenantFailureThreshold = 5;  // consecutive failures before a tenant is paused
+    private int tenantCooldownSeconds = 60;
+    private int metadataTtlMinutes = 60;        // Nomi profiles are served from memory this long
+    private int metadataStaleMinutes = 1440;    // then served stale while refreshing, for at most this long
+    private int metadataMaxEntries = 50000;
 } 
\ No newline at end of file
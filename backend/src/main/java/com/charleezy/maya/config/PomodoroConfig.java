@@ -0,0 +1,16 @@
+package com.charleezy.maya.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "pomodoro")
+public class PomodoroConfig {
+    private int workMinutes = 25;
+    private int shortBreakMinutes = 5;
+    private int longBreakMinutes = 15;
+    private int cyclesPerSession = 4;  // work phases before the long break that ends a session
+    private int checkpointSeconds = 30;  // sessions changed since the last checkpoint are lost on a crash
+}
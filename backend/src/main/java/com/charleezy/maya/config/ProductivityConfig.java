@@ -0,0 +1,16 @@
+package com.charleezy.maya.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "productivity")
+public class ProductivityConfig {
+    private String defaultZone = "UTC";  // day and week boundaries of users not listed below
+    private Map<String, String> userZones = new HashMap<>();  // user id -> zone id, e.g. Europe/Berlin
+}
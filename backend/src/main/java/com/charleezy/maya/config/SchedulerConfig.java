@@ -0,0 +1,16 @@
+package com.charleezy.maya.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.LocalTime;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "scheduler")
+public class SchedulerConfig {
+    private LocalTime workdayStart = LocalTime.of(9, 0);
+    private LocalTime workdayEnd = LocalTime.of(18, 0);
+    private int horizonDays = 14;  // how far ahead tasks are packed
+}
@@ -2,6 +2,8 @@ package com.charleezy.maya.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.web.SecurityFilterChain;
@@ -15,8 +17,12 @@ public class SecurityConfig {
         http
             .csrf(csrf -> csrf.disable())  // Disable CSRF for development TODO: Remove this in production
             .authorizeHttpRequests(auth -> auth
+                // Users don't authenticate yet, so only the operator (spring.security.user) may set or remove their Nomi API keys
+                .requestMatchers(HttpMethod.PUT, "/api/v1/users/*/nomi-credentials").hasRole("OPERATOR")
+                .requestMatchers(HttpMethod.DELETE, "/api/v1/users/*/nomi-credentials").hasRole("OPERATOR")
                 .anyRequest().permitAll()  // Allow all requests during development TODO: Remove this in production
-            );
+            )
+            .httpBasic(Customizer.withDefaults());
         
         return http.build();
     }
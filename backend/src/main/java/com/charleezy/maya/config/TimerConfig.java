@@ -0,0 +1,27 @@
+package com.charleezy.maya.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.UUID;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "timer")
+public class TimerConfig {
+    private long tickMs = 1;               // resolution of the finest wheel level
+    private int wheelSize = 512;           // buckets per wheel level
+    private long inProcessHorizonHours = 24; // reminders further out than this go to Google Calendar
+    private int recoveryPageSize = 5000;   // pending tasks loaded per keyset page on startup
+    private int catchUpPerSecond = 50;     // rate at which timers that came due during downtime are fired
+    private boolean shardingEnabled = false; // lease timer shards between replicas instead of owning all of them
+    private int shardCount = 256;          // fixed; changing it re-homes every pending timer
+    private String nodeId = UUID.randomUUID().toString(); // identifies this process in leases and checkpoints
+    private int heartbeatSeconds = 10;
+    private int leaseSeconds = 30;
+
+    public int shardOf(String userId) {
+        return Math.floorMod(userId.hashCode(), shardCount);
+    }
+}
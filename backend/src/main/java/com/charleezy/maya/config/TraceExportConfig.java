@@ -0,0 +1,38 @@
+package com.charleezy.maya.config;
+
+import com.charleezy.maya.service.SlowTraceSpanProcessor;
+import io.opentelemetry.exporter.logging.otlp.OtlpJsonLoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.autoconfigure.tracing.SpanProcessors;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Spans go out through Spring Boot's batch processor to every {@link SpanExporter}: the OTLP exporter
+ * once {@code management.otlp.tracing.endpoint} points at a collector, and the log when
+ * {@code tracing.log-spans} is on. Every request is traced, but only slow or failed traces get that far.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class TraceExportConfig {
+    private final TracingConfig tracingConfig;
+
+    /**
+     * Replaces Boot's list of span processors, so its exporting processor only sees kept traces
+     */
+    @Bean
+    public SpanProcessors spanProcessors(BatchSpanProcessor otelSpanProcessor) {
+        return SpanProcessors.of(new SlowTraceSpanProcessor(otelSpanProcessor, tracingConfig.getSlowThresholdMs(),
+            tracingConfig.getBaselineRatio(), tracingConfig.getMaxBufferedTraces(), tracingConfig.getMaxTraceAgeMs(),
+            System::currentTimeMillis));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "tracing.log-spans", havingValue = "true")
+    public SpanExporter loggingSpanExporter() {
+        return OtlpJsonLoggingSpanExporter.create();
+    }
+}
@@ -0,0 +1,16 @@
+package com.charleezy.maya.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "tracing")
+public class TracingConfig {
+    private long slowThresholdMs = 2000;  // traces whose root span takes at least this long are exported
+    private double baselineRatio = 0.01;  // share of fast traces exported anyway, to compare outliers against
+    private int maxBufferedTraces = 10000;  // traces whose root span hasn't ended yet
+    private long maxTraceAgeMs = 60000;  // a trace buffered longer than this is dropped unexported
+    private boolean logSpans = false;  // also write exported spans to the log as OTLP JSON
+}
@@ -3,18 +3,31 @@ package com.charleezy.maya.config;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
 @RequiredArgsConstructor
 public class WebClientConfig {
     private final NomiConfig nomiConfig;
 
+    /**
+     * One client and connection pool for every tenant; the API key is set per request
+     */
     @Bean
     public WebClient nomiWebClient() {
+        ConnectionProvider pool = ConnectionProvider.builder("nomi")
+                .maxConnections(nomiConfig.getMaxConnections())
+                .pendingAcquireTimeout(Duration.ofSeconds(nomiConfig.getMessageTimeout()))
+                .maxIdleTime(Duration.ofSeconds(30))
+                .build();
         return WebClient.builder()
                 .baseUrl(nomiConfig.getBaseUrl())
-                .defaultHeader("Authorization", nomiConfig.getApiKey())
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(pool)))
                 .build();
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,21 @@
+package com.charleezy.maya.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "webhook")
+public class WebhookConfig {
+    private String secret;  // HMAC-SHA256 key for X-Maya-Signature; required unless allowUnsigned is set
+    private boolean allowUnsigned = false;  // local development only: accept every message when no secret is set
+    private int workerThreads = 8;  // threads running NLP, scheduling and replies
+    private int queueCapacity = 10000;  // messages waiting or in progress across all users
+    private int perUserCapacity = 50;  // messages waiting or in progress for one user
+    private int retryAfterSeconds = 2;  // sent with 429 when a queue is full
+    private int maxTextLength = 4000;
+    private int dedupWindowHours = 24;  // retries are recognized for at least this long, at most twice it
+    private long dedupExpectedPerWindow = 5_000_000;  // sizes the in-memory filter, ~6 MB per window at 1%
+    private double dedupFalsePositiveRate = 0.01;  // share of new messages that still need a database lookup
+}
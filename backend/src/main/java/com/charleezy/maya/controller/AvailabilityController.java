@@ -0,0 +1,50 @@
+package com.charleezy.maya.controller;
+
+import com.charleezy.maya.service.AvailabilityService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Busy time and free slots on a user's calendar, answered from the in-memory availability index.
+ */
+@RestController
+@RequestMapping("/api/v1/users/{userId}/availability")
+@RequiredArgsConstructor
+public class AvailabilityController {
+    private final AvailabilityService availabilityService;
+
+    /**
+     * Events and time-blocking tasks overlapping {@code [from, to)}; an empty list means the user is free.
+     */
+    @GetMapping
+    public List<AvailabilityService.BusyInterval> busy(
+            @PathVariable String userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return availabilityService.findOverlapping(userId, from, to);
+    }
+
+    /**
+     * Earliest free slot of {@code minutes} starting at or after {@code after}; 404 if none fits in the
+     * indexed horizon.
+     */
+    @GetMapping("/next-free-slot")
+    public ResponseEntity<?> nextFreeSlot(
+            @PathVariable String userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime after,
+            @RequestParam(defaultValue = "30") int minutes) {
+        if (minutes <= 0) {
+            return ResponseEntity.badRequest().body(Map.of("error", "minutes must be positive"));
+        }
+        return availabilityService.findNextFreeSlot(userId, after, Duration.ofMinutes(minutes))
+            .<ResponseEntity<?>>map(start -> ResponseEntity.ok(Map.of("start", start, "end", start.plusMinutes(minutes))))
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,31 @@
+package com.charleezy.maya.controller;
+
+import com.charleezy.maya.service.AgendaCache;
+import com.charleezy.maya.service.AgendaService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Hit ratio and estimated memory footprint of the in-memory caches.
+ */
+@RestController
+@RequestMapping("/api/v1/cache-stats")
+@RequiredArgsConstructor
+public class CacheStatsController {
+    private final AgendaService agendaService;
+
+    @GetMapping("/agenda")
+    public Map<String, Object> agenda() {
+        AgendaCache.Stats stats = agendaService.cacheStats();
+        return Map.of(
+            "hits", stats.hits(),
+            "misses", stats.misses(),
+            "hitRatio", stats.hitRatio(),
+            "evictions", stats.evictions(),
+            "users", stats.users(),
+            "estimatedBytes", stats.estimatedBytes(),
+            "maxBytes", stats.maxBytes());
+    }
+}
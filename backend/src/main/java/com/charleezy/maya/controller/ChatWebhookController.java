@@ -0,0 +1,52 @@
+package com.charleezy.maya.controller;
+
+import com.charleezy.maya.config.WebhookConfig;
+import com.charleezy.maya.model.dto.InboundChatMessage;
+import com.charleezy.maya.service.ChatWebhookService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Inbound chat messages from chatbot platforms. Messages are acknowledged with 202 as soon as they are
+ * queued and with 200 if the message id was already received; when the queue is full the platform gets
+ * 429 with a {@code Retry-After} and should redeliver.
+ */
+@RestController
+@RequestMapping("/api/v1/webhooks/chat")
+@RequiredArgsConstructor
+public class ChatWebhookController {
+    private final ChatWebhookService chatWebhookService;
+    private final WebhookConfig webhookConfig;
+    private final ObjectMapper objectMapper;
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> receive(
+            @RequestHeader(name = "X-Maya-Signature", required = false) String signature,
+            @RequestBody byte[] body) {
+        // The signature covers the raw bytes, so parse only after checking it
+        if (!chatWebhookService.isAuthentic(body, signature)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid signature"));
+        }
+        try {
+            InboundChatMessage message = objectMapper.readValue(body, InboundChatMessage.class);
+            return switch (chatWebhookService.accept(message)) {
+                case ACCEPTED -> ResponseEntity.accepted().build();
+                // Acknowledge so the platform stops redelivering
+                case DUPLICATE -> ResponseEntity.ok(Map.of("duplicate", true));
+                case QUEUE_FULL -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(webhookConfig.getRetryAfterSeconds()))
+                    .body(Map.of("error", "Too many messages queued, retry later"));
+            };
+        } catch (IOException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
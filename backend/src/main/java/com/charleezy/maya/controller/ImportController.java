@@ -0,0 +1,49 @@
+package com.charleezy.maya.controller;
+
+import com.charleezy.maya.model.dto.ImportProgress;
+import com.charleezy.maya.service.BulkImportService;
+import com.charleezy.maya.service.ImportReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Bulk import of a user's tasks and events. The request body is NDJSON ({@code application/x-ndjson})
+ * or CSV with a header row ({@code text/csv}); the response is an NDJSON stream of
+ * {@link ImportProgress} lines, the last one with {@code done} set.
+ */
+@RestController
+@RequestMapping("/api/v1/users/{userId}/import")
+@RequiredArgsConstructor
+public class ImportController {
+    private final BulkImportService bulkImportService;
+    private final ObjectMapper objectMapper;
+
+    @PostMapping(consumes = {"application/x-ndjson", "text/csv"}, produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> importItems(@PathVariable String userId, HttpServletRequest request) {
+        ImportReader.Format format = ImportReader.Format.fromContentType(request.getContentType());
+        StreamingResponseBody body = out -> bulkImportService.importItems(userId, request.getInputStream(), format,
+            progress -> writeLine(out, progress));
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/x-ndjson"))
+            .body(body);
+    }
+
+    private void writeLine(OutputStream out, ImportProgress progress) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(progress));
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -26,7 +26,8 @@ public class NomiController {
     @PostMapping("/{nomiId}/chat")
     public ResponseEntity<NomiResponse> sendMessage(
             @PathVariable String nomiId,
+            @RequestParam(defaultValue = "local") String userId,
             @RequestBody NomiMessage message) {
-        return ResponseEntity.ok(nomiService.sendMessage(nomiId, message));
+        return ResponseEntity.ok(nomiService.sendMessage(userId, nomiId, message));
     }
 } 
\ No newline at end of file
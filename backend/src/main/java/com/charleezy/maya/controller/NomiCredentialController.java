@@ -0,0 +1,49 @@
+package com.charleezy.maya.controller;
+
+import com.charleezy.maya.service.NomiCredentialService;
+import com.charleezy.maya.service.ReactiveNomiService;
+import com.charleezy.maya.service.TenantGuard;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * A user's own Nomi API key. The key is write-only: it can be replaced or removed but never read back.
+ */
+@RestController
+@RequestMapping("/api/v1/users/{userId}/nomi-credentials")
+@RequiredArgsConstructor
+public class NomiCredentialController {
+    private final NomiCredentialService nomiCredentialService;
+    private final ReactiveNomiService reactiveNomiService;
+
+    @PutMapping
+    public ResponseEntity<?> store(@PathVariable String userId, @RequestBody Map<String, String> request) {
+        try {
+            nomiCredentialService.store(userId, request.get("apiKey"));
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> remove(@PathVariable String userId) {
+        return nomiCredentialService.remove(userId)
+            ? ResponseEntity.noContent().build()
+            : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Request, throttling and error counts of the user's Nomi calls on this instance
+     */
+    @GetMapping("/usage")
+    public TenantGuard.Stats usage(@PathVariable String userId) {
+        return reactiveNomiService.usage(userId);
+    }
+}
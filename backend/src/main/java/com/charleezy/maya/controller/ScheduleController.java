@@ -0,0 +1,33 @@
+package com.charleezy.maya.controller;
+
+import com.charleezy.maya.service.AutoSchedulerService;
+import com.charleezy.maya.service.TaskPlanner;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Auto-scheduling of a user's estimated tasks. Once a user has a plan, later task changes re-place
+ * the changed task on their own.
+ */
+@RestController
+@RequestMapping("/api/v1/users/{userId}/schedule")
+@RequiredArgsConstructor
+public class ScheduleController {
+    private final AutoSchedulerService autoSchedulerService;
+
+    /**
+     * Packs the user's pending, estimated tasks into free time and moves them and their Calendar events
+     */
+    @PostMapping
+    public TaskPlanner.Plan schedule(@PathVariable String userId) {
+        return autoSchedulerService.scheduleUser(userId);
+    }
+
+    /**
+     * Re-places one task, keeping the rest of the user's plan
+     */
+    @PostMapping("/tasks/{taskId}")
+    public TaskPlanner.Plan replan(@PathVariable String userId, @PathVariable Long taskId) {
+        return autoSchedulerService.replanTask(userId, taskId);
+    }
+}
@@ -0,0 +1,24 @@
+package com.charleezy.maya.controller;
+
+import com.charleezy.maya.model.dto.SearchResult;
+import com.charleezy.maya.service.SearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/users/{userId}/search")
+@RequiredArgsConstructor
+public class SearchController {
+    private final SearchService searchService;
+
+    @GetMapping
+    public List<SearchResult> search(
+            @PathVariable String userId,
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return searchService.search(userId, q, page, size);
+    }
+}
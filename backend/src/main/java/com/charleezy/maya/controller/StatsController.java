@@ -0,0 +1,27 @@
+package com.charleezy.maya.controller;
+
+import com.charleezy.maya.model.RollupPeriod;
+import com.charleezy.maya.model.dto.ProductivityStats;
+import com.charleezy.maya.service.ProductivityService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/users/{userId}/stats")
+@RequiredArgsConstructor
+public class StatsController {
+    private final ProductivityService productivityService;
+
+    @GetMapping
+    public List<ProductivityStats> stats(
+            @PathVariable String userId,
+            @RequestParam(defaultValue = "DAY") RollupPeriod period,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return productivityService.stats(userId, period, from, to);
+    }
+}
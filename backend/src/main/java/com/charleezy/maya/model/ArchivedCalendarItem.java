@@ -0,0 +1,65 @@
+package com.charleezy.maya.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * A completed or cancelled {@link CalendarItem} moved out of {@code calendar_items} by the archiver.
+ * Root columns are kept as they were; the task or event columns (and event attendees) are folded
+ * into {@code details}, keyed by column name. Rows are written by SQL only, never by Hibernate.
+ */
+@Data
+@Entity
+@Table(name = "calendar_items_archive", indexes = {
+    @Index(name = "idx_calendar_items_archive_user_starts_at", columnList = "userId, startsAt"),
+    @Index(name = "idx_calendar_items_archive_user_ends_at", columnList = "userId, endsAt")
+})
+public class ArchivedCalendarItem {
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private ItemType type;
+
+    @Column(nullable = false)
+    private String userId;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column
+    private String description;
+
+    @Column
+    private String googleCalendarId;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private ItemStatus status;
+
+    @Column
+    private LocalDateTime startsAt;
+
+    @Column
+    private LocalDateTime endsAt;
+
+    @Column
+    private LocalDateTime completedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false, columnDefinition = "jsonb")
+    private Map<String, Object> details;
+}
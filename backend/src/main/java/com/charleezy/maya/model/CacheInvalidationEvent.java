@@ -0,0 +1,16 @@
+package com.charleezy.maya.model;
+
+/**
+ * Asks in-memory caches to drop entries. Published locally; with the invalidation bus enabled it is
+ * also delivered to every other instance.
+ * @param cache name of the cache, or null for every cache
+ * @param key the entry to drop, in the cache's own key format, or null for the whole cache
+ */
+public record CacheInvalidationEvent(String cache, String key) {
+
+    public static final CacheInvalidationEvent ALL = new CacheInvalidationEvent(null, null);
+
+    public boolean appliesTo(String cacheName) {
+        return cache == null || cache.equals(cacheName);
+    }
+}
@@ -1,16 +1,30 @@
 package com.charleezy.maya.model;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Setter;
+import lombok.ToString;
 import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "calendar_items")
+@Table(name = "calendar_items", indexes = {
+    @Index(name = "idx_calendar_items_user_status_starts_at", columnList = "userId, status, startsAt"),
+    @Index(name = "idx_calendar_items_user_starts_at_id", columnList = "userId, startsAt, id"),
+    @Index(name = "idx_calendar_items_user_ends_at", columnList = "userId, endsAt"),
+    @Index(name = "idx_calendar_items_status_starts_at", columnList = "status, startsAt"),
+    @Index(name = "idx_calendar_items_google_calendar_id", columnList = "googleCalendarId"),
+    @Index(name = "idx_calendar_items_status_updated_at", columnList = "status, updatedAt")
+})
 @Inheritance(strategy = InheritanceType.JOINED)
+@EntityListeners(CalendarItemListener.class)
 public abstract class CalendarItem {
+    // Sequence ids handed out in blocks of 50 let Hibernate batch inserts; IDENTITY forces one round-trip per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "calendar_items_seq")
+    @SequenceGenerator(name = "calendar_items_seq", sequenceName = "calendar_items_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -32,17 +46,78 @@ public abstract class CalendarItem {
     @Column(nullable = false)
     private ItemType type;  // EVENT or TASK
 
+    // Copied from the subtype's own times on every write so agenda queries never need the subtype join
+    @Column
+    private LocalDateTime startsAt;
+
+    @Column
+    private LocalDateTime endsAt;
+
     @Column
     private LocalDateTime completedAt;
 
+    // Subtype text worth searching (an event's location), copied here like startsAt so the search
+    // vector can be a generated column of this table
+    @Column
+    private String searchExtra;
+
+    // Generated by the database from title, description and searchExtra (see V6__calendar_items_search.sql)
+    @Column(insertable = false, updatable = false, columnDefinition = "tsvector")
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private String searchVector;
+
     @Column(nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
     @Column(nullable = false)
     private LocalDateTime updatedAt = LocalDateTime.now();
 
+    // Status and completion time as last read from or written to the database, so listeners can tell
+    // a transition to or from COMPLETED from any other update
+    @Transient
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private ItemStatus persistedStatus;
+
+    @Transient
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private LocalDateTime persistedCompletedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        syncTimeRange();
+        syncSearchExtra();
+    }
+
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        syncTimeRange();
+        syncSearchExtra();
+    }
+
+    // Entity callbacks run after the entity listeners, which still see the previous state here
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    protected void rememberPersistedState() {
+        persistedStatus = status;
+        persistedCompletedAt = completedAt;
+    }
+
+    /**
+     * Sets {@code startsAt}/{@code endsAt} from the subtype's scheduling fields.
+     */
+    protected abstract void syncTimeRange();
+
+    /**
+     * Sets {@code searchExtra} from the subtype's searchable fields, if it has any.
+     */
+    protected void syncSearchExtra() {
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,15 @@
+package com.charleezy.maya.model;
+
+/**
+ * Published after a {@link CalendarItem} is created, updated or deleted, so in-memory structures
+ * derived from calendar items can refresh or invalidate themselves. A null {@code itemId} means a bulk
+ * operation changed many of the user's items at once and anything derived from them is stale.
+ */
+public record CalendarItemChangedEvent(Long itemId, String userId, ItemType type, ChangeType change) {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
@@ -0,0 +1,77 @@
+package com.charleezy.maya.model;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPA entity listener that turns calendar item lifecycle callbacks into
+ * {@link CalendarItemChangedEvent}s, plus a {@link TaskCompletionChangedEvent} when a task moves into or
+ * out of COMPLETED. Hibernate obtains it from the Spring context.
+ */
+@Component
+@RequiredArgsConstructor
+public class CalendarItemListener {
+    private static final ThreadLocal<Boolean> SUPPRESSED = ThreadLocal.withInitial(() -> false);
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Runs a bulk write without publishing an event per item. Callers publish a single
+     * user-level event (null item id) once they are done.
+     */
+    public static void runSuppressed(Runnable work) {
+        boolean previous = SUPPRESSED.get();
+        SUPPRESSED.set(true);
+        try {
+            work.run();
+        } finally {
+            SUPPRESSED.set(previous);
+        }
+    }
+
+    @PostPersist
+    public void onCreated(CalendarItem item) {
+        publish(item, CalendarItemChangedEvent.ChangeType.CREATED);
+        publishCompletion(item, false, null, item.getStatus() == ItemStatus.COMPLETED);
+    }
+
+    @PostUpdate
+    public void onUpdated(CalendarItem item) {
+        publish(item, CalendarItemChangedEvent.ChangeType.UPDATED);
+        publishCompletion(item, item.getPersistedStatus() == ItemStatus.COMPLETED, item.getPersistedCompletedAt(),
+            item.getStatus() == ItemStatus.COMPLETED);
+    }
+
+    @PostRemove
+    public void onDeleted(CalendarItem item) {
+        publish(item, CalendarItemChangedEvent.ChangeType.DELETED);
+        publishCompletion(item, item.getPersistedStatus() == ItemStatus.COMPLETED, item.getPersistedCompletedAt(), false);
+    }
+
+    private void publishCompletion(CalendarItem item, boolean wasCompleted, LocalDateTime previousCompletedAt,
+                                   boolean isCompleted) {
+        // Reminder tasks (those delivered by a Nomi) complete when they fire; they aren't user work
+        if (SUPPRESSED.get() || wasCompleted == isCompleted || !(item instanceof Task task) || task.getNomiId() != null) {
+            return;
+        }
+        LocalDateTime completedAt = isCompleted ? task.getCompletedAt() : previousCompletedAt;
+        if (completedAt == null) {
+            completedAt = task.getUpdatedAt();
+        }
+        eventPublisher.publishEvent(TaskCompletionChangedEvent.of(task.getId(), task.getUserId(), isCompleted,
+            completedAt, task.getStartsAt(), task.getEndsAt(), task.getEstimatedMinutes(), task.getDueDate()));
+    }
+
+    private void publish(CalendarItem item, CalendarItemChangedEvent.ChangeType change) {
+        if (SUPPRESSED.get()) {
+            return;
+        }
+        eventPublisher.publishEvent(new CalendarItemChangedEvent(item.getId(), item.getUserId(), item.getType(), change));
+    }
+}
@@ -0,0 +1,40 @@
+package com.charleezy.maya.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * A conversation turn that no longer fits in memory. Recent turns are kept in memory per user and
+ * Nomi and only written here once they are pushed out.
+ */
+@Data
+@Entity
+@Table(name = "conversation_turns", indexes = {
+    @Index(name = "idx_conversation_turns_conversation", columnList = "userId, nomiId, id")
+})
+public class ConversationTurn {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "conversation_turns_seq")
+    @SequenceGenerator(name = "conversation_turns_seq", sequenceName = "conversation_turns_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String userId;
+
+    @Column(nullable = false)
+    private String nomiId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TurnKind kind;
+
+    @Column(nullable = false, length = 4000)
+    private String text;
+
+    // Id returned when the turn scheduled something, e.g. a reminder's timer or calendar event id
+    private String itemRef;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
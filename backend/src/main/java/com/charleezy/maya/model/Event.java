@@ -3,6 +3,7 @@ package com.charleezy.maya.model;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.BatchSize;
 import java.time.LocalDateTime;
 
 @Data
@@ -25,11 +26,24 @@ public class Event extends CalendarItem {
     @Column
     private String meetingLink;  // For virtual meetings
 
+    // Batch-loaded so a page of events costs one attendee query rather than one per event
     @Column
     @ElementCollection
+    @BatchSize(size = 256)
     private java.util.Set<String> attendees = new java.util.HashSet<>();
 
     public Event() {
         setType(ItemType.EVENT);
     }
+
+    @Override
+    protected void syncTimeRange() {
+        setStartsAt(startTime);
+        setEndsAt(endTime);
+    }
+
+    @Override
+    protected void syncSearchExtra() {
+        setSearchExtra(location);
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.charleezy.maya.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * A user's own Nomi API key, stored encrypted (see {@code CredentialCipher}); the plain key never
+ * reaches the database.
+ */
+@Data
+@Entity
+@Table(name = "nomi_credentials")
+public class NomiCredential {
+
+    @Id
+    private String userId;
+
+    @Column(nullable = false, length = 1024)
+    private String encryptedApiKey;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
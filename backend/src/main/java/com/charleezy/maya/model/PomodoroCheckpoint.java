@@ -0,0 +1,31 @@
+package com.charleezy.maya.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Last checkpointed state of a user's running Pomodoro session, restored on startup by the instance
+ * running it, or taken over by another one once that instance is gone.
+ */
+@Data
+@Entity
+@Table(name = "pomodoro_sessions")
+public class PomodoroCheckpoint {
+    @Id
+    private String userId;
+
+    @Column(nullable = false)
+    private String nomiId;
+
+    // Packed by PomodoroStateMachine; phase end times in it are epoch millis, so they survive restarts
+    @Column(nullable = false)
+    private long state;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    // timer.node-id of the instance running the session
+    @Column
+    private String ownerId;
+}
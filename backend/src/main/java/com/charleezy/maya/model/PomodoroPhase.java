@@ -0,0 +1,7 @@
+package com.charleezy.maya.model;
+
+public enum PomodoroPhase {
+    WORK,
+    SHORT_BREAK,
+    LONG_BREAK
+}
@@ -0,0 +1,26 @@
+package com.charleezy.maya.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * An inbound chat message that has been taken on for processing, keyed by the platform's message id
+ * so that webhook retries of the same message are recognized.
+ */
+@Data
+@Entity
+@Table(name = "processed_messages", indexes = {
+    @Index(name = "idx_processed_messages_received_at", columnList = "receivedAt")
+})
+public class ProcessedMessage {
+
+    @Id
+    private String messageId;
+
+    @Column(nullable = false)
+    private String userId;
+
+    @Column(nullable = false)
+    private LocalDateTime receivedAt;
+}
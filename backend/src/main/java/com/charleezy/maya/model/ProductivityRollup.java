@@ -0,0 +1,56 @@
+package com.charleezy.maya.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated productivity figures for one user and one day or week, kept up to date
+ * incrementally as tasks are completed so dashboards never aggregate raw task history.
+ */
+@Data
+@Entity
+@Table(name = "productivity_rollups")
+public class ProductivityRollup {
+
+    @Data
+    @Embeddable
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        @Column(nullable = false)
+        private String userId;
+
+        @Column(nullable = false)
+        @Enumerated(EnumType.STRING)
+        private RollupPeriod period;
+
+        @Column(nullable = false)
+        private LocalDate periodStart;
+    }
+
+    @EmbeddedId
+    private Key key;
+
+    @Column(nullable = false)
+    private int completedCount;
+
+    @Column(nullable = false)
+    private int onTimeCount;
+
+    @Column(nullable = false)
+    private int plannedMinutes;
+
+    @Column(nullable = false)
+    private int estimatedMinutes;
+
+    @Column(nullable = false)
+    private int pomodoroSessions;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -10,37 +10,14 @@ import java.time.LocalDateTime;
 @Table(name = "tasks")
 @EqualsAndHashCode(callSuper = true)
 public class Task extends CalendarItem {
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
-
-    @Column(nullable = false)
-    private String title;
-
-    @Column
-    private String description;
-
     @Column(nullable = false)
     private LocalDateTime scheduledTime;
 
-    @Column(nullable = false)
-    private String userId;
-
     @Column
-    private String calendarEventId;
-
-    @Column(nullable = false)
-    @Enumerated(EnumType.STRING)
-    private ItemStatus status = ItemStatus.PENDING;
+    private String nomiId;  // Nomi that delivers in-process reminders for this task
 
     @Column
-    private LocalDateTime completedAt;
-
-    @Column(nullable = false)
-    private LocalDateTime createdAt = LocalDateTime.now();
-
-    @Column(nullable = false)
-    private LocalDateTime updatedAt = LocalDateTime.now();
+    private Integer timerShard;  // Shard (hash of userId) whose owner instance fires this task's timer
 
     @Column(nullable = false)
     private LocalDateTime dueDate;
@@ -61,8 +38,9 @@ public class Task extends CalendarItem {
         setType(ItemType.TASK);
     }
 
-    @PreUpdate
-    protected void onUpdate() {
-        updatedAt = LocalDateTime.now();
+    @Override
+    protected void syncTimeRange() {
+        setStartsAt(scheduledTime);
+        setEndsAt(scheduledTime == null || estimatedMinutes == null ? scheduledTime : scheduledTime.plusMinutes(estimatedMinutes));
     }
-} 
\ No newline at end of file
+}
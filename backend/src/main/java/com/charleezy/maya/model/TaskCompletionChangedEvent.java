@@ -0,0 +1,29 @@
+package com.charleezy.maya.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Published when a user's task becomes COMPLETED ({@code delta} 1) or stops being COMPLETED because it
+ * was reopened or deleted ({@code delta} -1), carrying what productivity rollups need to adjust.
+ * @param completedAt when the task was completed; for a reversal, the completion being undone
+ * @param plannedMinutes minutes the task was blocked out for on the calendar
+ * @param estimatedMinutes the task's estimate, 0 if it had none
+ * @param onTime whether it was completed by its due date
+ */
+public record TaskCompletionChangedEvent(Long taskId, String userId, int delta, LocalDateTime completedAt,
+                                         int plannedMinutes, int estimatedMinutes, boolean onTime) {
+
+    /**
+     * Builds the event from a task's columns
+     * @param completed true when the task became COMPLETED, false when it stopped being COMPLETED
+     */
+    public static TaskCompletionChangedEvent of(Long taskId, String userId, boolean completed, LocalDateTime completedAt,
+                                                LocalDateTime startsAt, LocalDateTime endsAt, Integer estimatedMinutes,
+                                                LocalDateTime dueDate) {
+        int planned = startsAt != null && endsAt != null ? (int) Duration.between(startsAt, endsAt).toMinutes() : 0;
+        int estimated = estimatedMinutes != null ? estimatedMinutes : 0;
+        boolean onTime = dueDate == null || !completedAt.isAfter(dueDate);
+        return new TaskCompletionChangedEvent(taskId, userId, completed ? 1 : -1, completedAt, planned, estimated, onTime);
+    }
+}
@@ -0,0 +1,19 @@
+package com.charleezy.maya.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Heartbeat row for a running Maya instance, used to decide how timer shards are spread.
+ */
+@Data
+@Entity
+@Table(name = "timer_nodes")
+public class TimerNode {
+    @Id
+    private String nodeId;
+
+    @Column(nullable = false)
+    private LocalDateTime heartbeatAt;
+}
@@ -0,0 +1,23 @@
+package com.charleezy.maya.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Ownership lease for one timer shard. Only the owning instance arms and fires timers for the
+ * users hashed into the shard; an expired lease can be taken over by any live instance.
+ */
+@Data
+@Entity
+@Table(name = "timer_shard_leases")
+public class TimerShardLease {
+    @Id
+    private Integer shardId;
+
+    @Column(nullable = false)
+    private String ownerId;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,7 @@
+package com.charleezy.maya.model;
+
+public enum TurnKind {
+    USER,       // a message from the user
+    OUTBOUND,   // a message Maya sent through the user's Nomi
+    SCHEDULED   // an item scheduled in the conversation; the turn's text is its summary
+}
@@ -0,0 +1,36 @@
+package com.charleezy.maya.model.dto;
+
+import com.charleezy.maya.model.ItemStatus;
+import com.charleezy.maya.model.ItemType;
+import lombok.Data;
+import lombok.Builder;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgendaItem {
+    private Long id;
+    private ItemType type;
+    private String title;
+    private String description;
+    private ItemStatus status;
+    private LocalDateTime startsAt;
+    private LocalDateTime endsAt;
+    private String googleCalendarId;
+
+    // Tasks
+    private LocalDateTime dueDate;
+    private Integer priority;
+    private String recurrencePattern;
+
+    // Events
+    private String location;
+    private Boolean isAllDay;
+    private String meetingLink;
+    private Set<String> attendees;
+}
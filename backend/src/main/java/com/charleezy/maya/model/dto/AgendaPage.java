@@ -0,0 +1,16 @@
+package com.charleezy.maya.model.dto;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgendaPage {
+    private List<AgendaItem> items;
+    private String nextCursor;  // Null on the last page
+}
@@ -0,0 +1,38 @@
+package com.charleezy.maya.model.dto;
+
+import com.charleezy.maya.model.ItemStatus;
+import com.charleezy.maya.model.ItemType;
+import lombok.Data;
+import lombok.Builder;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * One task or event in a bulk import, as a JSON line or a CSV row with matching column names.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportItem {
+    private ItemType type;
+    private String title;
+    private String description;
+    private ItemStatus status;
+    private String googleCalendarId;
+    private LocalDateTime completedAt;
+
+    // Tasks
+    private LocalDateTime scheduledTime;
+    private LocalDateTime dueDate;
+    private Integer estimatedMinutes;
+    private Integer priority;
+    private String recurrencePattern;
+
+    // Events
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private String location;
+    private Boolean isAllDay;
+}
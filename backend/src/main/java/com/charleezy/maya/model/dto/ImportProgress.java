@@ -0,0 +1,23 @@
+package com.charleezy.maya.model.dto;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * Running totals of a bulk import, reported after every committed chunk and once at the end.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportProgress {
+    private long processed;
+    private long imported;
+    private long failed;
+    private boolean done;
+    private long elapsedMs;
+    private List<String> errors;  // First few row errors, as "line N: message"
+}
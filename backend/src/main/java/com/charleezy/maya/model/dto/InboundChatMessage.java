@@ -0,0 +1,22 @@
+package com.charleezy.maya.model.dto;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import java.time.Instant;
+
+/**
+ * A user's chat message as delivered by a chatbot platform's webhook
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InboundChatMessage {
+    private String messageId;  // the platform's id for the message
+    private String userId;
+    private String nomiId;     // the Nomi the user is talking to, which also sends the reply
+    private String text;
+    private Instant sentAt;
+}
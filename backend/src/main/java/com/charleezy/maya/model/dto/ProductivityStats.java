@@ -0,0 +1,22 @@
+package com.charleezy.maya.model.dto;
+
+import com.charleezy.maya.model.RollupPeriod;
+import lombok.Data;
+import lombok.Builder;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductivityStats {
+    private RollupPeriod period;
+    private LocalDate periodStart;
+    private int completedCount;
+    private double onTimeRate;  // share of completed tasks finished by their due date, 0 when none were completed
+    private int plannedMinutes;
+    private int estimatedMinutes;
+    private int pomodoroSessions;
+}
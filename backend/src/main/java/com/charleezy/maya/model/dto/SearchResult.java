@@ -0,0 +1,23 @@
+package com.charleezy.maya.model.dto;
+
+import com.charleezy.maya.model.ItemStatus;
+import com.charleezy.maya.model.ItemType;
+import lombok.Data;
+import lombok.Builder;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchResult {
+    private Long id;
+    private ItemType type;
+    private String title;
+    private ItemStatus status;
+    private LocalDateTime startsAt;
+    private LocalDateTime endsAt;
+    private float rank;
+}
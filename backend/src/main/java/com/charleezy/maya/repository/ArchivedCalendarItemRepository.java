@@ -0,0 +1,97 @@
+package com.charleezy.maya.repository;
+
+import com.charleezy.maya.model.ArchivedCalendarItem;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ArchivedCalendarItemRepository extends JpaRepository<ArchivedCalendarItem, Long> {
+
+    /**
+     * Moves up to {@code batchSize} completed or cancelled items untouched since {@code cutoff} into
+     * {@code calendar_items_archive}, in one statement and one transaction. Rows locked by other
+     * writers are skipped, so concurrent runs on several instances never collide.
+     * @return the user id of each item moved, so their cached agendas can be dropped
+     */
+    @Transactional
+    @Query(value = """
+        with batch as (
+            select id from calendar_items
+            where status in ('COMPLETED', 'CANCELLED') and updated_at < :cutoff
+            order by updated_at
+            limit :batchSize
+            for update skip locked
+        ), moved as (
+            insert into calendar_items_archive (id, type, user_id, title, description, google_calendar_id, status,
+                                                starts_at, ends_at, completed_at, created_at, updated_at, archived_at, details)
+            select c.id, c.type, c.user_id, c.title, c.description, c.google_calendar_id, c.status,
+                   c.starts_at, c.ends_at, c.completed_at, c.created_at, c.updated_at, :now,
+                   case
+                       when t.id is not null then to_jsonb(t) - 'id'
+                       when e.id is not null then (to_jsonb(e) - 'id') || jsonb_build_object('attendees',
+                           (select coalesce(jsonb_agg(a.attendees), cast('[]' as jsonb))
+                            from event_attendees a where a.event_id = c.id))
+                       else cast('{}' as jsonb)
+                   end
+            from calendar_items c
+            join batch b on b.id = c.id
+            left join tasks t on t.id = c.id
+            left join events e on e.id = c.id
+            on conflict (id) do nothing
+            returning id
+        ), deleted_attendees as (
+            delete from event_attendees where event_id in (select id from moved)
+        ), deleted_tasks as (
+            delete from tasks where id in (select id from moved)
+        ), deleted_events as (
+            delete from events where id in (select id from moved)
+        ), deleted as (
+            delete from calendar_items where id in (select id from moved)
+            returning user_id
+        )
+        select user_id from deleted
+        """, nativeQuery = true)
+    List<String> archiveBatch(@Param("cutoff") LocalDateTime cutoff,
+                     @Param("batchSize") int batchSize,
+                     @Param("now") LocalDateTime now);
+
+    /**
+     * Keyset page of a user's archived items starting in {@code [from, to)}, ordered by (startsAt, id),
+     * like {@link CalendarItemRepository#findAgendaPage}.
+     */
+    @Query("""
+        select a from ArchivedCalendarItem a
+        where a.userId = :userId and a.startsAt >= :from and a.startsAt < :to
+          and (a.startsAt > :afterStart or (a.startsAt = :afterStart and a.id > :afterId))
+        order by a.startsAt, a.id
+        """)
+    List<ArchivedCalendarItem> findHistory(@Param("userId") String userId,
+                                           @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to,
+                                           @Param("afterStart") LocalDateTime afterStart,
+                                           @Param("afterId") Long afterId,
+                                           Pageable page);
+
+    /**
+     * Keyset page of a user's archived items in progress at {@code at}, like
+     * {@link CalendarItemRepository#findOngoing}.
+     */
+    @Query("""
+        select a from ArchivedCalendarItem a
+        where a.userId = :userId and a.endsAt > :at and a.startsAt < :at
+          and (a.startsAt > :afterStart or (a.startsAt = :afterStart and a.id > :afterId))
+        order by a.startsAt, a.id
+        """)
+    List<ArchivedCalendarItem> findOngoingHistory(@Param("userId") String userId,
+                                                  @Param("at") LocalDateTime at,
+                                                  @Param("afterStart") LocalDateTime afterStart,
+                                                  @Param("afterId") Long afterId,
+                                                  Pageable page);
+}
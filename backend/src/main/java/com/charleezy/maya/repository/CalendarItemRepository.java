@@ -0,0 +1,164 @@
+package com.charleezy.maya.repository;
+
+import com.charleezy.maya.model.CalendarItem;
+import com.charleezy.maya.model.ItemStatus;
+import com.charleezy.maya.service.AvailabilityService;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Queries on the shared {@code calendar_items} table. Everything here only touches root columns, so
+ * Hibernate doesn't join the {@code tasks}/{@code events} tables and the
+ * (user_id, status, starts_at) index serves the hot agenda and "what's due" reads.
+ */
+@Repository
+public interface CalendarItemRepository extends JpaRepository<CalendarItem, Long> {
+
+    /**
+     * Items of a user in the given statuses overlapping {@code [from, to)}, ordered by start.
+     */
+    @Query("""
+        select new com.charleezy.maya.repository.CalendarItemSummary(
+            c.id, c.type, c.title, c.status, c.startsAt, c.endsAt, c.googleCalendarId)
+        from CalendarItem c
+        where c.userId = :userId
+          and c.status in :statuses
+          and c.startsAt < :to and c.endsAt >= :from
+        order by c.startsAt, c.id
+        """)
+    List<CalendarItemSummary> findAgenda(@Param("userId") String userId,
+                                         @Param("statuses") Collection<ItemStatus> statuses,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to);
+
+    /**
+     * Keyset page of a user's items starting in {@code [from, to)}, ordered by (startsAt, id). Pass
+     * ({@code from}, 0) for the first page and the last row's (startsAt, id) to continue; use
+     * {@code Pageable.ofSize(n)} so no OFFSET is issued. Items already in progress at {@code from}
+     * come from {@link #findOngoing}.
+     */
+    @Query("""
+        select c from CalendarItem c
+        where c.userId = :userId
+          and c.startsAt >= :from and c.startsAt < :to
+          and (c.startsAt > :afterStart or (c.startsAt = :afterStart and c.id > :afterId))
+        order by c.startsAt, c.id
+        """)
+    List<CalendarItem> findAgendaPage(@Param("userId") String userId,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to,
+                                      @Param("afterStart") LocalDateTime afterStart,
+                                      @Param("afterId") Long afterId,
+                                      Pageable page);
+
+    /**
+     * Keyset page of a user's items in progress at {@code at}: started before it and ending after it,
+     * ordered by (startsAt, id) like {@link #findAgendaPage}. Served by the (user_id, ends_at) index,
+     * so only items ending after {@code at} are read, not the user's whole past.
+     */
+    @Query("""
+        select c from CalendarItem c
+        where c.userId = :userId
+          and c.endsAt > :at and c.startsAt < :at
+          and (c.startsAt > :afterStart or (c.startsAt = :afterStart and c.id > :afterId))
+        order by c.startsAt, c.id
+        """)
+    List<CalendarItem> findOngoing(@Param("userId") String userId,
+                                   @Param("at") LocalDateTime at,
+                                   @Param("afterStart") LocalDateTime afterStart,
+                                   @Param("afterId") Long afterId,
+                                   Pageable page);
+
+    /**
+     * Keyset page of a user's completed and cancelled items starting in {@code [from, to)} that are not
+     * archived yet, ordered by (startsAt, id) like {@link #findAgendaPage}.
+     */
+    @Query("""
+        select c from CalendarItem c
+        where c.userId = :userId
+          and c.status in (com.charleezy.maya.model.ItemStatus.COMPLETED, com.charleezy.maya.model.ItemStatus.CANCELLED)
+          and c.startsAt >= :from and c.startsAt < :to
+          and (c.startsAt > :afterStart or (c.startsAt = :afterStart and c.id > :afterId))
+        order by c.startsAt, c.id
+        """)
+    List<CalendarItem> findHistory(@Param("userId") String userId,
+                                   @Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to,
+                                   @Param("afterStart") LocalDateTime afterStart,
+                                   @Param("afterId") Long afterId,
+                                   Pageable page);
+
+    /**
+     * Completed and cancelled items in progress at {@code at} that are not archived yet, like
+     * {@link #findOngoing}.
+     */
+    @Query("""
+        select c from CalendarItem c
+        where c.userId = :userId
+          and c.status in (com.charleezy.maya.model.ItemStatus.COMPLETED, com.charleezy.maya.model.ItemStatus.CANCELLED)
+          and c.endsAt > :at and c.startsAt < :at
+          and (c.startsAt > :afterStart or (c.startsAt = :afterStart and c.id > :afterId))
+        order by c.startsAt, c.id
+        """)
+    List<CalendarItem> findOngoingHistory(@Param("userId") String userId,
+                                          @Param("at") LocalDateTime at,
+                                          @Param("afterStart") LocalDateTime afterStart,
+                                          @Param("afterId") Long afterId,
+                                          Pageable page);
+
+    /**
+     * Open items of a user starting before {@code until}, including overdue ones, ordered by start.
+     */
+    @Query("""
+        select new com.charleezy.maya.repository.CalendarItemSummary(
+            c.id, c.type, c.title, c.status, c.startsAt, c.endsAt, c.googleCalendarId)
+        from CalendarItem c
+        where c.userId = :userId
+          and c.status in (com.charleezy.maya.model.ItemStatus.PENDING, com.charleezy.maya.model.ItemStatus.IN_PROGRESS)
+          and c.startsAt < :until
+        order by c.startsAt, c.id
+        """)
+    List<CalendarItemSummary> findDue(@Param("userId") String userId, @Param("until") LocalDateTime until);
+
+    /**
+     * Non-cancelled events of a user that overlap {@code [from, to)}.
+     */
+    @Query("""
+        select new com.charleezy.maya.service.AvailabilityService$BusyInterval(c.id, c.type, c.startsAt, c.endsAt)
+        from CalendarItem c
+        where c.userId = :userId
+          and c.type = com.charleezy.maya.model.ItemType.EVENT
+          and c.status <> com.charleezy.maya.model.ItemStatus.CANCELLED
+          and c.startsAt < :to and c.endsAt > :from
+        """)
+    List<AvailabilityService.BusyInterval> findBusyEventIntervals(@Param("userId") String userId,
+                                                                  @Param("from") LocalDateTime from,
+                                                                  @Param("to") LocalDateTime to);
+
+    /**
+     * Items of a user matching a {@code to_tsquery} expression, best match first. Served by the GIN
+     * index on {@code search_vector}; title matches outrank description matches, which outrank location.
+     */
+    @Query(value = """
+        select c.id as id, c.type as type, c.title as title, c.status as status,
+               c.starts_at as startsAt, c.ends_at as endsAt, ts_rank_cd(c.search_vector, q) as rank
+        from calendar_items c, to_tsquery('english', :query) q
+        where c.user_id = :userId and c.search_vector @@ q
+        order by rank desc, c.starts_at desc, c.id
+        limit :limit offset :offset
+        """, nativeQuery = true)
+    List<SearchHit> search(@Param("userId") String userId,
+                           @Param("query") String query,
+                           @Param("limit") int limit,
+                           @Param("offset") int offset);
+
+    Optional<CalendarItem> findByGoogleCalendarId(String googleCalendarId);
+}
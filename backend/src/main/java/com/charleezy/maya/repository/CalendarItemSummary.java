@@ -0,0 +1,12 @@
+package com.charleezy.maya.repository;
+
+import com.charleezy.maya.model.ItemStatus;
+import com.charleezy.maya.model.ItemType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of a calendar item built from {@code calendar_items} alone, without the task/event join.
+ */
+public record CalendarItemSummary(Long id, ItemType type, String title, ItemStatus status,
+                                  LocalDateTime startsAt, LocalDateTime endsAt, String googleCalendarId) {}
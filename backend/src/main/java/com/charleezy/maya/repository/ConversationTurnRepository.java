@@ -0,0 +1,17 @@
+package com.charleezy.maya.repository;
+
+import com.charleezy.maya.model.ConversationTurn;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ConversationTurnRepository extends JpaRepository<ConversationTurn, Long> {
+
+    /**
+     * Latest turns of a conversation, newest first
+     */
+    List<ConversationTurn> findByUserIdAndNomiIdOrderByIdDesc(String userId, String nomiId, Pageable pageable);
+}
@@ -0,0 +1,9 @@
+package com.charleezy.maya.repository;
+
+import com.charleezy.maya.model.NomiCredential;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NomiCredentialRepository extends JpaRepository<NomiCredential, String> {
+}
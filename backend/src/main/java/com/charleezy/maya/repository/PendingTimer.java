@@ -0,0 +1,8 @@
+package com.charleezy.maya.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of the columns needed to re-arm an in-process timer for a pending task.
+ */
+public record PendingTimer(Long id, String userId, String nomiId, String title, LocalDateTime scheduledTime) {}
@@ -0,0 +1,85 @@
+package com.charleezy.maya.repository;
+
+import com.charleezy.maya.model.PomodoroCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PomodoroCheckpointRepository extends JpaRepository<PomodoroCheckpoint, String> {
+
+    /**
+     * Makes {@code ownerId} the owner of every session whose owner has not heartbeated in
+     * {@code timer_nodes} since {@code liveSince} (every instance heartbeats, so that owner is gone), and
+     * of its own ones too if {@code includeOwn}.
+     * Claiming rows one statement at a time means two instances never take over the same session.
+     * @return the sessions claimed
+     */
+    @Transactional
+    @Query(value = """
+        update pomodoro_sessions set owner_id = :ownerId
+        where (:includeOwn and owner_id = :ownerId)
+           or owner_id is null
+           or (owner_id <> :ownerId
+               and owner_id not in (select node_id from timer_nodes where heartbeat_at > :liveSince))
+        returning *
+        """, nativeQuery = true)
+    List<PomodoroCheckpoint> claim(@Param("ownerId") String ownerId,
+                                   @Param("includeOwn") boolean includeOwn,
+                                   @Param("liveSince") LocalDateTime liveSince);
+
+    /**
+     * Writes a new session for the user, run by {@code ownerId}, replacing any the user has wherever it
+     * runs. The instance that ran the old one finds out on its next write.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        insert into pomodoro_sessions (user_id, nomi_id, state, updated_at, owner_id)
+        values (:userId, :nomiId, :state, :updatedAt, :ownerId)
+        on conflict (user_id) do update
+        set nomi_id = excluded.nomi_id, state = excluded.state, updated_at = excluded.updated_at,
+            owner_id = excluded.owner_id
+        """, nativeQuery = true)
+    void take(@Param("userId") String userId, @Param("nomiId") String nomiId, @Param("state") long state,
+              @Param("updatedAt") LocalDateTime updatedAt, @Param("ownerId") String ownerId);
+
+    /**
+     * Makes {@code ownerId} the owner of the user's session, whichever instance runs it now
+     * @return the session, or empty if the user has none
+     */
+    @Transactional
+    @Query(value = """
+        update pomodoro_sessions set owner_id = :ownerId
+        where user_id = :userId
+        returning *
+        """, nativeQuery = true)
+    Optional<PomodoroCheckpoint> takeOver(@Param("userId") String userId, @Param("ownerId") String ownerId);
+
+    /**
+     * @return 0 if {@code ownerId} no longer runs the user's session
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        update pomodoro_sessions set nomi_id = :nomiId, state = :state, updated_at = :updatedAt
+        where user_id = :userId and owner_id = :ownerId
+        """, nativeQuery = true)
+    int updateOwned(@Param("userId") String userId, @Param("nomiId") String nomiId, @Param("state") long state,
+                    @Param("updatedAt") LocalDateTime updatedAt, @Param("ownerId") String ownerId);
+
+    /**
+     * @return 0 if {@code ownerId} no longer runs the user's session
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "delete from pomodoro_sessions where user_id = :userId and owner_id = :ownerId", nativeQuery = true)
+    int deleteOwned(@Param("userId") String userId, @Param("ownerId") String ownerId);
+}
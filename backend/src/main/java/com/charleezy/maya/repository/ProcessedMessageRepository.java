@@ -0,0 +1,35 @@
+package com.charleezy.maya.repository;
+
+import com.charleezy.maya.model.ProcessedMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ProcessedMessageRepository extends JpaRepository<ProcessedMessage, String> {
+
+    /**
+     * Records a message unless it already was, atomically across instances.
+     * @return 1 if this call recorded it, 0 if it had been recorded before
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        insert into processed_messages (message_id, user_id, received_at)
+        values (:messageId, :userId, :receivedAt)
+        on conflict (message_id) do nothing
+        """, nativeQuery = true)
+    int insertIfAbsent(@Param("messageId") String messageId,
+                       @Param("userId") String userId,
+                       @Param("receivedAt") LocalDateTime receivedAt);
+
+    @Transactional
+    @Modifying
+    @Query("delete from ProcessedMessage m where m.receivedAt < :cutoff")
+    int deleteReceivedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
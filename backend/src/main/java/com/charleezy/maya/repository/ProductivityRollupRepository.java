@@ -0,0 +1,60 @@
+package com.charleezy.maya.repository;
+
+import com.charleezy.maya.model.ProductivityRollup;
+import com.charleezy.maya.model.RollupPeriod;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProductivityRollupRepository extends JpaRepository<ProductivityRollup, ProductivityRollup.Key> {
+
+    /**
+     * Adds the given deltas to a user's day and week rollup rows, creating them if needed. One statement,
+     * so both periods change together or not at all; runs in its own transaction because it is called
+     * from after-commit listeners.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = """
+        insert into productivity_rollups (user_id, period, period_start, completed_count, on_time_count,
+                                          planned_minutes, estimated_minutes, pomodoro_sessions, updated_at)
+        values (:userId, 'DAY', :day, :completed, :onTime, :planned, :estimated, :pomodoros, :now),
+               (:userId, 'WEEK', :weekStart, :completed, :onTime, :planned, :estimated, :pomodoros, :now)
+        on conflict (user_id, period, period_start) do update set
+            completed_count = productivity_rollups.completed_count + excluded.completed_count,
+            on_time_count = productivity_rollups.on_time_count + excluded.on_time_count,
+            planned_minutes = productivity_rollups.planned_minutes + excluded.planned_minutes,
+            estimated_minutes = productivity_rollups.estimated_minutes + excluded.estimated_minutes,
+            pomodoro_sessions = productivity_rollups.pomodoro_sessions + excluded.pomodoro_sessions,
+            updated_at = excluded.updated_at
+        """, nativeQuery = true)
+    int add(@Param("userId") String userId,
+            @Param("day") LocalDate day,
+            @Param("weekStart") LocalDate weekStart,
+            @Param("completed") int completed,
+            @Param("onTime") int onTime,
+            @Param("planned") int planned,
+            @Param("estimated") int estimated,
+            @Param("pomodoros") int pomodoros,
+            @Param("now") LocalDateTime now);
+
+    @Query("""
+        select r from ProductivityRollup r
+        where r.key.userId = :userId and r.key.period = :period
+          and r.key.periodStart >= :from and r.key.periodStart <= :to
+        order by r.key.periodStart
+        """)
+    List<ProductivityRollup> findRange(@Param("userId") String userId,
+                                       @Param("period") RollupPeriod period,
+                                       @Param("from") LocalDate from,
+                                       @Param("to") LocalDate to);
+}
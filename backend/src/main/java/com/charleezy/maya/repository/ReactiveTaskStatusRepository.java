@@ -0,0 +1,84 @@
+package com.charleezy.maya.repository;
+
+import com.charleezy.maya.model.ItemStatus;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Task status updates over R2DBC, for the high-rate transitions (timer claims, status flips) that
+ * shouldn't tie up a blocking JDBC connection and thread per call. Writes go straight to the tables
+ * the JPA entities map, so entity listeners don't run; callers publish the change events themselves.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReactiveTaskStatusRepository {
+    // Upper bound on ids bound into a single statement
+    static final int MAX_BATCH_SIZE = 500;
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Moves every task in {@code ids} that is still in {@code expected} to {@code target}, one
+     * statement per {@value #MAX_BATCH_SIZE} ids. Rows are locked before they are checked, so of
+     * several concurrent callers exactly one wins each task.
+     * @return the transitions this call won; ids that had already moved on, or aren't tasks, are left out
+     */
+    public Flux<StatusTransition> transition(Collection<Long> ids, ItemStatus expected, ItemStatus target,
+                                             LocalDateTime at) {
+        List<Long> all = new ArrayList<>(ids);
+        List<List<Long>> batches = new ArrayList<>();
+        for (int i = 0; i < all.size(); i += MAX_BATCH_SIZE) {
+            batches.add(all.subList(i, Math.min(i + MAX_BATCH_SIZE, all.size())));
+        }
+        return Flux.fromIterable(batches)
+            .concatMap(batch -> transitionBatch(batch, expected, target, at));
+    }
+
+    private Flux<StatusTransition> transitionBatch(List<Long> ids, ItemStatus expected, ItemStatus target,
+                                                   LocalDateTime at) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("""
+                with claimed as (
+                    select c.id, c.completed_at
+                    from calendar_items c join tasks t on t.id = c.id
+                    where c.id = any(:ids) and c.status = :expected
+                    for update of c
+                )
+                update calendar_items c
+                set status = :target, completed_at = :completedAt, updated_at = :at
+                from claimed join tasks t on t.id = claimed.id
+                where c.id = claimed.id
+                returning c.id, c.user_id, claimed.completed_at as previous_completed_at, c.completed_at,
+                          c.starts_at, c.ends_at, t.estimated_minutes, t.due_date, t.nomi_id
+                """)
+            // An array binds as one parameter; a collection would be expanded into a list
+            .bind("ids", ids.toArray(Long[]::new))
+            .bind("expected", expected.name())
+            .bind("target", target.name())
+            .bind("at", at);
+        spec = target == ItemStatus.COMPLETED
+            ? spec.bind("completedAt", at)
+            : spec.bindNull("completedAt", LocalDateTime.class);
+        return spec.map(ReactiveTaskStatusRepository::toTransition).all();
+    }
+
+    private static StatusTransition toTransition(Readable row) {
+        return new StatusTransition(
+            row.get("id", Long.class),
+            row.get("user_id", String.class),
+            row.get("previous_completed_at", LocalDateTime.class),
+            row.get("completed_at", LocalDateTime.class),
+            row.get("starts_at", LocalDateTime.class),
+            row.get("ends_at", LocalDateTime.class),
+            row.get("estimated_minutes", Integer.class),
+            row.get("due_date", LocalDateTime.class),
+            row.get("nomi_id", String.class));
+    }
+}
@@ -0,0 +1,22 @@
+package com.charleezy.maya.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row of a full-text search over {@code calendar_items}, mapped from a native query by column alias.
+ */
+public interface SearchHit {
+    Long getId();
+
+    Integer getType();  // ItemType ordinal, as stored
+
+    String getTitle();
+
+    String getStatus();
+
+    LocalDateTime getStartsAt();
+
+    LocalDateTime getEndsAt();
+
+    Float getRank();
+}
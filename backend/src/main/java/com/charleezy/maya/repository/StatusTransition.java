@@ -0,0 +1,12 @@
+package com.charleezy.maya.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * A task status change won by {@link ReactiveTaskStatusRepository#transition}, with the columns event
+ * listeners need so they don't have to read the task back.
+ * @param previousCompletedAt the completion time the task had before the change
+ */
+public record StatusTransition(Long id, String userId, LocalDateTime previousCompletedAt, LocalDateTime completedAt,
+                               LocalDateTime startsAt, LocalDateTime endsAt, Integer estimatedMinutes,
+                               LocalDateTime dueDate, String nomiId) {}
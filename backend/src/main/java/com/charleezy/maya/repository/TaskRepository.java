@@ -0,0 +1,79 @@
+package com.charleezy.maya.repository;
+
+import com.charleezy.maya.model.Task;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TaskRepository extends JpaRepository<Task, Long> {
+
+    /**
+     * Keyset page of pending in-process timers in the given shards, ordered by fire time. Pass the last
+     * row's (scheduledTime, id) to get the next page; use {@code Pageable.ofSize(n)} so no OFFSET is issued.
+     * Filters and orders on the denormalized {@code startsAt} so the (status, starts_at) index drives the scan.
+     */
+    @Query("""
+        select new com.charleezy.maya.repository.PendingTimer(t.id, t.userId, t.nomiId, t.title, t.startsAt)
+        from Task t
+        where t.status = com.charleezy.maya.model.ItemStatus.PENDING
+          and t.nomiId is not null
+          and t.timerShard in :shards
+          and t.createdAt >= :createdSince
+          and t.startsAt < :until
+          and (t.startsAt > :afterTime or (t.startsAt = :afterTime and t.id > :afterId))
+        order by t.startsAt, t.id
+        """)
+    List<PendingTimer> findPendingTimersAfter(@Param("shards") Collection<Integer> shards,
+                                              @Param("createdSince") LocalDateTime createdSince,
+                                              @Param("until") LocalDateTime until,
+                                              @Param("afterTime") LocalDateTime afterTime,
+                                              @Param("afterId") Long afterId,
+                                              Pageable page);
+
+    /**
+     * Open tasks of a user with an estimate that may occupy time before {@code to}: one-off tasks
+     * scheduled from {@code earliestStart}, and every recurring task (expanded by the caller).
+     */
+    @Query("""
+        select t from Task t
+        where t.userId = :userId
+          and t.status in (com.charleezy.maya.model.ItemStatus.PENDING, com.charleezy.maya.model.ItemStatus.IN_PROGRESS)
+          and t.estimatedMinutes is not null
+          and t.scheduledTime < :to
+          and (t.isRecurring = true or t.scheduledTime >= :earliestStart)
+        """)
+    List<Task> findTimeBlockingTasks(@Param("userId") String userId,
+                                     @Param("earliestStart") LocalDateTime earliestStart,
+                                     @Param("to") LocalDateTime to);
+
+    /**
+     * Pending one-off tasks with an estimate, i.e. the tasks the auto-scheduler is free to move.
+     */
+    @Query("""
+        select t from Task t
+        where t.userId = :userId
+          and t.status = com.charleezy.maya.model.ItemStatus.PENDING
+          and t.estimatedMinutes is not null
+          and (t.isRecurring is null or t.isRecurring = false)
+        """)
+    List<Task> findSchedulableTasks(@Param("userId") String userId);
+
+    /**
+     * Open recurring tasks of a user whose series starts before {@code to}.
+     */
+    @Query("""
+        select t from Task t
+        where t.userId = :userId
+          and t.status in (com.charleezy.maya.model.ItemStatus.PENDING, com.charleezy.maya.model.ItemStatus.IN_PROGRESS)
+          and t.isRecurring = true
+          and t.scheduledTime < :to
+        """)
+    List<Task> findRecurringTasks(@Param("userId") String userId, @Param("to") LocalDateTime to);
+}
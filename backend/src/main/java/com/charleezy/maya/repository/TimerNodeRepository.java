@@ -0,0 +1,32 @@
+package com.charleezy.maya.repository;
+
+import com.charleezy.maya.model.TimerNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TimerNodeRepository extends JpaRepository<TimerNode, String> {
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+        insert into timer_nodes (node_id, heartbeat_at) values (:nodeId, :now)
+        on conflict (node_id) do update set heartbeat_at = excluded.heartbeat_at
+        """, nativeQuery = true)
+    void heartbeat(@Param("nodeId") String nodeId, @Param("now") LocalDateTime now);
+
+    @Query("select n.nodeId from TimerNode n where n.heartbeatAt > :since order by n.nodeId")
+    List<String> findLiveNodeIds(@Param("since") LocalDateTime since);
+
+    @Transactional
+    @Modifying
+    @Query("delete from TimerNode n where n.heartbeatAt < :before")
+    int deleteStale(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,41 @@
+package com.charleezy.maya.repository;
+
+import com.charleezy.maya.model.TimerShardLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TimerShardLeaseRepository extends JpaRepository<TimerShardLease, Integer> {
+
+    /**
+     * Takes or renews the lease on a shard. Succeeds only if the shard is unleased, its lease has
+     * expired, or it is already held by {@code ownerId}.
+     * @return 1 if the caller holds the lease afterwards, 0 otherwise
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        insert into timer_shard_leases (shard_id, owner_id, expires_at) values (:shardId, :ownerId, :expiresAt)
+        on conflict (shard_id) do update set owner_id = excluded.owner_id, expires_at = excluded.expires_at
+        where timer_shard_leases.owner_id = excluded.owner_id or timer_shard_leases.expires_at < :now
+        """, nativeQuery = true)
+    int tryAcquire(@Param("shardId") int shardId,
+                   @Param("ownerId") String ownerId,
+                   @Param("expiresAt") LocalDateTime expiresAt,
+                   @Param("now") LocalDateTime now);
+
+    @Query("select l.shardId from TimerShardLease l where l.ownerId = :ownerId and l.expiresAt > :now")
+    List<Integer> findHeldShards(@Param("ownerId") String ownerId, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from TimerShardLease l where l.shardId = :shardId and l.ownerId = :ownerId")
+    int release(@Param("shardId") int shardId, @Param("ownerId") String ownerId);
+}
@@ -1,6 +1,10 @@
 package com.charleezy.maya.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.tracing.Tracer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.*;
 
@@ -24,6 +28,22 @@ public abstract class AbstractNLPService {
         "year", "years"
     );
 
+    // Until Spring injects the application's registry and tracer, e.g. in unit tests, meters go to the
+    // global registry and no spans are made
+    private CallMetrics analysisMetrics = new CallMetrics(Metrics.globalRegistry, "nlp");
+    protected CallMetrics backendMetrics = new CallMetrics(Metrics.globalRegistry, backendName());
+
+    @Autowired
+    public void setObservability(MeterRegistry meterRegistry, Tracer tracer) {
+        this.analysisMetrics = new CallMetrics(meterRegistry, tracer, "nlp");
+        this.backendMetrics = new CallMetrics(meterRegistry, tracer, backendName());
+    }
+
+    /**
+     * Name the remote NLP backend's calls are metered under through {@link #backendMetrics}
+     */
+    protected abstract String backendName();
+
     /**
      * Analyzes text input to extract structured information about tasks, times, and other entities.
      * @param text The input text to analyze
@@ -39,7 +59,7 @@ public abstract class AbstractNLPService {
         log.info("Analyzing text: {}", text);
         
         try {
-            return performTextAnalysis(text);
+            return analysisMetrics.record("analyzeText", () -> performTextAnalysis(text));
         } catch (Exception e) {
             log.error("Unexpected error during text analysis", e);
             throw new RuntimeException("Failed to analyze text: " + e.getMessage(), e);
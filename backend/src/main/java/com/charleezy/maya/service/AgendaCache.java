@@ -0,0 +1,161 @@
+package com.charleezy.maya.service;
+
+import com.charleezy.maya.model.dto.AgendaItem;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LRU cache of each user's upcoming agenda, bounded by an estimate of the heap it holds rather than
+ * by entry count, since one user's week can be a handful of items and another's thousands.
+ *
+ * Loads are guarded by a token: {@link #beginLoad} hands one out, {@link #invalidate} revokes it, and
+ * {@link #put} drops the result of a load whose token was revoked, so a write that lands while an
+ * agenda is being read from the database never leaves the stale read cached.
+ */
+public class AgendaCache {
+
+    public record Stats(long hits, long misses, long evictions, int users, long estimatedBytes, long maxBytes) {
+
+        public double hitRatio() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    private record Entry(LocalDateTime from, LocalDateTime to, List<AgendaItem> items, long bytes) {}
+
+    private static final long ENTRY_OVERHEAD_BYTES = 128;
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<String, Long> loadTokens = new HashMap<>();
+    private long nextToken;
+    private long totalBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public AgendaCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return the cached items overlapping {@code [from, to)} in start order, or null if the user's
+     *         cached window doesn't cover it
+     */
+    public synchronized List<AgendaItem> get(String userId, LocalDateTime from, LocalDateTime to) {
+        Entry entry = entries.get(userId);
+        if (entry == null || from.isBefore(entry.from()) || to.isAfter(entry.to())) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return overlapping(entry.items(), from, to);
+    }
+
+    /**
+     * Starts a load for a user, revoking any earlier load still in flight.
+     * @return the token to pass to {@link #put}
+     */
+    public synchronized long beginLoad(String userId) {
+        long token = ++nextToken;
+        loadTokens.put(userId, token);
+        return token;
+    }
+
+    /**
+     * Caches a user's items for {@code [from, to)} unless the load was invalidated meanwhile.
+     * @param items the items sorted by start time
+     */
+    public synchronized void put(String userId, long token, LocalDateTime from, LocalDateTime to, List<AgendaItem> items) {
+        if (!loadTokens.remove(userId, token)) {
+            return;
+        }
+        long bytes = ENTRY_OVERHEAD_BYTES;
+        for (AgendaItem item : items) {
+            bytes += estimateBytes(item);
+        }
+        if (bytes > maxBytes) {
+            return;
+        }
+        Entry previous = entries.put(userId, new Entry(from, to, List.copyOf(items), bytes));
+        if (previous != null) {
+            totalBytes -= previous.bytes();
+        }
+        totalBytes += bytes;
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().bytes();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized void invalidate(String userId) {
+        loadTokens.remove(userId);
+        Entry removed = entries.remove(userId);
+        if (removed != null) {
+            totalBytes -= removed.bytes();
+        }
+    }
+
+    public synchronized void clear() {
+        loadTokens.clear();
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, entries.size(), totalBytes, maxBytes);
+    }
+
+    /**
+     * Items of a start-ordered list that overlap {@code [from, to)}; zero-length items count if they
+     * start inside the window.
+     */
+    public static List<AgendaItem> overlapping(List<AgendaItem> items, LocalDateTime from, LocalDateTime to) {
+        int lo = 0;
+        int hi = items.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (items.get(mid).getStartsAt().isBefore(to)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        List<AgendaItem> result = new ArrayList<>();
+        for (int i = 0; i < lo; i++) {
+            AgendaItem item = items.get(i);
+            LocalDateTime end = item.getEndsAt() != null ? item.getEndsAt() : item.getStartsAt();
+            if (end.isAfter(from) || !item.getStartsAt().isBefore(from)) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    // Rough retained size: object headers and references, two bytes per character of text
+    static long estimateBytes(AgendaItem item) {
+        long bytes = 160;
+        bytes += textBytes(item.getTitle()) + textBytes(item.getDescription()) + textBytes(item.getGoogleCalendarId())
+            + textBytes(item.getRecurrencePattern()) + textBytes(item.getLocation()) + textBytes(item.getMeetingLink());
+        if (item.getAttendees() != null) {
+            bytes += 64;
+            for (String attendee : item.getAttendees()) {
+                bytes += 32 + textBytes(attendee);
+            }
+        }
+        return bytes;
+    }
+
+    private static long textBytes(String text) {
+        return text == null ? 0 : 40 + 2L * text.length();
+    }
+}
@@ -0,0 +1,47 @@
+package com.charleezy.maya.service;
+
+import com.charleezy.maya.model.dto.AgendaItem;
+import com.charleezy.maya.model.dto.AgendaPage;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Lists a user's tasks and events overlapping a time window, ordered by start time. Items already in
+ * progress when the window starts are included; zero-length items count if they start inside it.
+ */
+public interface AgendaService {
+    int MAX_PAGE_SIZE = 256;
+
+    /**
+     * One page of the agenda.
+     * @param cursor the {@code nextCursor} of the previous page, or null for the first page
+     * @param limit page size, capped at {@link #MAX_PAGE_SIZE}
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    AgendaPage page(String userId, LocalDateTime from, LocalDateTime to, String cursor, int limit);
+
+    /**
+     * Feeds every item in the window to {@code sink}, one page at a time, without holding the
+     * whole window in memory.
+     */
+    void stream(String userId, LocalDateTime from, LocalDateTime to, Consumer<AgendaItem> sink);
+
+    /**
+     * Items in {@code [from, to)} with recurring tasks expanded into one item per occurrence.
+     * Served from a per-user cache of the upcoming window; windows reaching outside it go to the database.
+     */
+    List<AgendaItem> upcoming(String userId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * One page of the completed and cancelled items in {@code [from, to)}, read from both the live
+     * tables and the archive, ordered by start time.
+     * @param cursor the {@code nextCursor} of the previous page, or null for the first page
+     * @param limit page size, capped at {@link #MAX_PAGE_SIZE}
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    AgendaPage history(String userId, LocalDateTime from, LocalDateTime to, String cursor, int limit);
+
+    AgendaCache.Stats cacheStats();
+}
@@ -0,0 +1,19 @@
+package com.charleezy.maya.service;
+
+public interface AutoSchedulerService {
+    /**
+     * Plan all of a user's pending, estimated tasks into free time and write the placements back
+     * to the tasks and to Google Calendar
+     * @param userId the user to plan for
+     * @return the resulting plan
+     */
+    TaskPlanner.Plan scheduleUser(String userId);
+
+    /**
+     * Re-place a single task after it changed, keeping the rest of the user's last plan in place
+     * @param userId the owner of the task
+     * @param taskId the ID of the changed (or deleted) task
+     * @return the resulting plan
+     */
+    TaskPlanner.Plan replanTask(String userId, Long taskId);
+}
@@ -0,0 +1,33 @@
+package com.charleezy.maya.service;
+
+import com.charleezy.maya.model.ItemType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Answers availability questions from an in-memory index of each active user's events and
+ * time-blocking tasks, without calling Google Calendar or scanning the database per query.
+ */
+public interface AvailabilityService {
+
+    record BusyInterval(Long itemId, ItemType type, LocalDateTime start, LocalDateTime end) {}
+
+    /**
+     * @return true if nothing on the user's calendar overlaps {@code [from, to)}
+     */
+    boolean isFree(String userId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Events and tasks overlapping {@code [from, to)}, ordered by start time
+     */
+    List<BusyInterval> findOverlapping(String userId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Earliest free slot of the given length starting at or after {@code after}
+     * @return the slot start, or empty if nothing fits within the indexed horizon
+     */
+    Optional<LocalDateTime> findNextFreeSlot(String userId, LocalDateTime after, Duration length);
+}
@@ -0,0 +1,19 @@
+package com.charleezy.maya.service;
+
+import com.charleezy.maya.model.dto.ImportProgress;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+public interface BulkImportService {
+    /**
+     * Imports tasks and events for a user from an NDJSON or CSV stream. Rows are committed in chunks,
+     * so rows before a failure stay imported; invalid rows are skipped and reported.
+     * @param progress called after every committed chunk and once more with {@code done} set
+     * @return the final totals
+     * @throws IOException if the input can't be read
+     */
+    ImportProgress importItems(String userId, InputStream in, ImportReader.Format format,
+                               Consumer<ImportProgress> progress) throws IOException;
+}
@@ -0,0 +1,189 @@
+package com.charleezy.maya.service;
+
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.gax.rpc.ApiException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.handler.DefaultTracingObservationHandler;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Meters for the calls one component makes, tagged with the component and operation:
+ * {@code maya.calls} times every call (histogram with p50/p95/p99, tagged with its outcome),
+ * {@code maya.calls.errors} counts failures by cause, and {@code maya.calls.active} gauges calls in
+ * flight. With a {@link Tracer}, each call is also a {@code component.operation} span, a child of the
+ * span current on the calling thread (for a Mono or Flux, the thread that subscribes). A Mono or Flux
+ * carries its span as the current observation in the Reactor context, where WebClient looks for the
+ * parent of its exchanges and from where {@code spring.reactor.context-propagation: auto} makes it the
+ * current span on whichever thread the call continues.
+ */
+public class CallMetrics {
+
+    private final MeterRegistry registry;
+    private final Tracer tracer;
+    private final ObservationRegistry observations = ObservationRegistry.create();
+    private final String component;
+    private final Map<String, AtomicInteger> active = new ConcurrentHashMap<>();
+
+    public CallMetrics(MeterRegistry registry, String component) {
+        this(registry, Tracer.NOOP, component);
+    }
+
+    public CallMetrics(MeterRegistry registry, Tracer tracer, String component) {
+        this.registry = registry;
+        this.tracer = tracer;
+        this.component = component;
+        // Observations only carry reactive calls' spans through the Reactor context, so they need no other
+        // handler, and their spans keep the same names as the others
+        if (tracer != Tracer.NOOP) {
+            observations.observationConfig().observationHandler(new DefaultTracingObservationHandler(tracer) {
+                @Override
+                public String getSpanName(Observation.Context context) {
+                    return context.getName();
+                }
+            });
+        }
+    }
+
+    public <T> T record(String operation, Supplier<T> call) {
+        AtomicInteger inFlight = active(operation);
+        Span span = tracer.nextSpan().name(component + "." + operation).start();
+        Timer.Sample sample = Timer.start(registry);
+        inFlight.incrementAndGet();
+        try (Tracer.SpanInScope scope = tracer.withSpan(span)) {
+            T result = call.get();
+            stop(sample, operation, "success");
+            return result;
+        } catch (RuntimeException e) {
+            span.tag("error.cause", failed(sample, operation, e)).error(e);
+            throw e;
+        } finally {
+            inFlight.decrementAndGet();
+            span.end();
+        }
+    }
+
+    public void run(String operation, Runnable call) {
+        record(operation, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    public <T> Mono<T> record(String operation, Mono<T> call) {
+        return Mono.defer(() -> {
+            AtomicInteger inFlight = active(operation);
+            Observation observation = Observation.start(component + "." + operation, observations);
+            Timer.Sample sample = Timer.start(registry);
+            inFlight.incrementAndGet();
+            return call
+                .doOnSuccess(result -> stop(sample, operation, "success"))
+                .doOnError(e -> observation.highCardinalityKeyValue("error.cause", failed(sample, operation, e)).error(e))
+                .doOnCancel(() -> stop(sample, operation, "cancelled"))
+                .doFinally(signal -> {
+                    inFlight.decrementAndGet();
+                    observation.stop();
+                })
+                .contextWrite(context -> observation.isNoop()
+                    ? context : context.put(ObservationThreadLocalAccessor.KEY, observation));
+        });
+    }
+
+    public <T> Flux<T> record(String operation, Flux<T> call) {
+        return Flux.defer(() -> {
+            AtomicInteger inFlight = active(operation);
+            Observation observation = Observation.start(component + "." + operation, observations);
+            Timer.Sample sample = Timer.start(registry);
+            inFlight.incrementAndGet();
+            return call
+                .doOnComplete(() -> stop(sample, operation, "success"))
+                .doOnError(e -> observation.highCardinalityKeyValue("error.cause", failed(sample, operation, e)).error(e))
+                .doOnCancel(() -> stop(sample, operation, "cancelled"))
+                .doFinally(signal -> {
+                    inFlight.decrementAndGet();
+                    observation.stop();
+                })
+                .contextWrite(context -> observation.isNoop()
+                    ? context : context.put(ObservationThreadLocalAccessor.KEY, observation));
+        });
+    }
+
+    /**
+     * A low-cardinality name for why a call failed, e.g. {@code http_503}, {@code timeout} or the
+     * exception's simple name. Generic {@code RuntimeException} and {@code UncheckedIOException} wrappers
+     * are looked through.
+     */
+    public static String cause(Throwable e) {
+        Throwable t = e;
+        while ((t.getClass() == RuntimeException.class || t instanceof UncheckedIOException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+        if (t instanceof WebClientResponseException response) {
+            return "http_" + response.getStatusCode().value();
+        }
+        if (t instanceof HttpResponseException response) {
+            return "http_" + response.getStatusCode();
+        }
+        if (t instanceof ApiException api) {
+            return "grpc_" + api.getStatusCode().getCode();
+        }
+        if (t instanceof TimeoutException) {
+            return "timeout";
+        }
+        if (t instanceof WebClientRequestException || t instanceof IOException) {
+            return "io";
+        }
+        return t.getClass().getSimpleName();
+    }
+
+    private String failed(Timer.Sample sample, String operation, Throwable e) {
+        stop(sample, operation, "error");
+        String cause = cause(e);
+        Counter.builder("maya.calls.errors")
+            .tag("component", component)
+            .tag("operation", operation)
+            .tag("cause", cause)
+            .register(registry)
+            .increment();
+        return cause;
+    }
+
+    private void stop(Timer.Sample sample, String operation, String outcome) {
+        sample.stop(Timer.builder("maya.calls")
+            .tag("component", component)
+            .tag("operation", operation)
+            .tag("outcome", outcome)
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .publishPercentileHistogram()
+            .register(registry));
+    }
+
+    private AtomicInteger active(String operation) {
+        return active.computeIfAbsent(operation, op -> {
+            AtomicInteger count = new AtomicInteger();
+            Gauge.builder("maya.calls.active", count, AtomicInteger::get)
+                .tag("component", component)
+                .tag("operation", op)
+                .register(registry);
+            return count;
+        });
+    }
+}
@@ -0,0 +1,60 @@
+package com.charleezy.maya.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A reminder request read from the entities the NLP service found in a chat message, e.g.
+ * "remind me to stretch in 20 minutes".
+ * @param summary what to remind about, or null if the message didn't say
+ * @param delay how long from now, or null if no relative time could be read
+ */
+public record ChatCommand(String summary, Duration delay) {
+
+    private static final Pattern RELATIVE_DELAY = Pattern.compile(
+        "(?:in\\s+)?(\\d{1,6}|an?|one)\\s+(second|minute|min|hour|hr|day|week)s?", Pattern.CASE_INSENSITIVE);
+
+    public boolean isComplete() {
+        return summary != null && delay != null;
+    }
+
+    /**
+     * @return empty if the entities hold neither a task nor a time, i.e. the message wasn't a command
+     */
+    public static Optional<ChatCommand> from(List<AbstractNLPService.EntityInfo> entities) {
+        String summary = null;
+        Duration delay = null;
+        for (AbstractNLPService.EntityInfo entity : entities) {
+            if (summary == null && "TASK".equals(entity.type())) {
+                summary = entity.name();
+            } else if (delay == null && ("DURATION".equals(entity.type()) || "TEMPORAL".equals(entity.type()))) {
+                delay = parseDelay(entity.name()).orElse(null);
+            }
+        }
+        return summary == null && delay == null ? Optional.empty() : Optional.of(new ChatCommand(summary, delay));
+    }
+
+    /**
+     * Reads a relative time such as "in 2 hours" or "an hour"
+     */
+    public static Optional<Duration> parseDelay(String expression) {
+        Matcher matcher = RELATIVE_DELAY.matcher(expression.trim());
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        String count = matcher.group(1).toLowerCase(Locale.ROOT);
+        long amount = Character.isDigit(count.charAt(0)) ? Long.parseLong(count) : 1;
+        Duration delay = switch (matcher.group(2).toLowerCase(Locale.ROOT)) {
+            case "second" -> Duration.ofSeconds(amount);
+            case "minute", "min" -> Duration.ofMinutes(amount);
+            case "hour", "hr" -> Duration.ofHours(amount);
+            case "day" -> Duration.ofDays(amount);
+            default -> Duration.ofDays(7 * amount);
+        };
+        return delay.isZero() ? Optional.empty() : Optional.of(delay);
+    }
+}
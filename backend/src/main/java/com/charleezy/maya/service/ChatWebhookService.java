@@ -0,0 +1,25 @@
+package com.charleezy.maya.service;
+
+import com.charleezy.maya.model.dto.InboundChatMessage;
+
+public interface ChatWebhookService {
+
+    enum Admission { ACCEPTED, DUPLICATE, QUEUE_FULL }
+
+    /**
+     * @param signature the {@code sha256=<hex>} HMAC of the raw body sent by the platform
+     * @return true if the body was signed with the configured secret, or no secret is configured and
+     *         {@code webhook.allow-unsigned} is on
+     */
+    boolean isAuthentic(byte[] body, String signature);
+
+    /**
+     * Validate a message and queue it for processing without waiting for it. Messages from the same
+     * user are processed one at a time in the order they were accepted, and a message id is processed
+     * at most once however often the platform redelivers it.
+     * @return DUPLICATE if the message id was taken on before, QUEUE_FULL if the message was not queued
+     *         and should be retried later
+     * @throws IllegalArgumentException if the message is missing a user, Nomi or text
+     */
+    Admission accept(InboundChatMessage message);
+}
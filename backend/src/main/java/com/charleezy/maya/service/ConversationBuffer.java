@@ -0,0 +1,75 @@
+package com.charleezy.maya.service;
+
+import com.charleezy.maya.model.TurnKind;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Fixed-size ring of a conversation's most recent turns. Adding to a full buffer overwrites the oldest
+ * turn and hands it back so the caller can keep it elsewhere. Not thread-safe.
+ */
+public class ConversationBuffer {
+
+    /**
+     * @param itemRef id of what the turn scheduled, or null
+     * @param stored whether the turn is already in Postgres and needn't be written when pushed out
+     */
+    public record Turn(TurnKind kind, String text, String itemRef, Instant at, boolean stored) {}
+
+    private final Turn[] turns;
+    private int next;
+    private int size;
+
+    public ConversationBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.turns = new Turn[capacity];
+    }
+
+    /**
+     * @return the turn pushed out to make room, or null if there was room
+     */
+    public Turn add(Turn turn) {
+        Turn evicted = size == turns.length ? turns[next] : null;
+        turns[next] = turn;
+        next = (next + 1) % turns.length;
+        if (evicted == null) {
+            size++;
+        }
+        return evicted;
+    }
+
+    /**
+     * @return up to {@code limit} of the latest turns, oldest first
+     */
+    public List<Turn> recent(int limit) {
+        int count = Math.min(limit, size);
+        List<Turn> recent = new ArrayList<>(count);
+        for (int i = count; i > 0; i--) {
+            recent.add(turns[Math.floorMod(next - i, turns.length)]);
+        }
+        return recent;
+    }
+
+    public Optional<Turn> latest(TurnKind kind) {
+        for (int i = 1; i <= size; i++) {
+            Turn turn = turns[Math.floorMod(next - i, turns.length)];
+            if (turn.kind() == kind) {
+                return Optional.of(turn);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return turns.length;
+    }
+}
@@ -0,0 +1,34 @@
+package com.charleezy.maya.service;
+
+import com.charleezy.maya.model.TurnKind;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Recent history of each user's conversation with each of their Nomis. Recording never blocks; reads
+ * may load older turns from Postgres the first time a conversation is read after being evicted, so
+ * they must not be called from an event loop thread.
+ */
+public interface ConversationService {
+    /**
+     * @param itemRef id of what the turn scheduled, or null
+     */
+    void record(String userId, String nomiId, TurnKind kind, String text, String itemRef);
+
+    /**
+     * @return up to {@code limit} of the latest turns, oldest first
+     */
+    List<ConversationBuffer.Turn> recent(String userId, String nomiId, int limit);
+
+    /**
+     * The most recently scheduled item, for resolving references like "move that"
+     */
+    Optional<ConversationBuffer.Turn> lastScheduled(String userId, String nomiId);
+
+    /**
+     * {@code text} preceded by the conversation's latest turns, so a Nomi reads it in context
+     * ({@code conversation.context-turns}, up to {@code conversation.context-max-chars})
+     */
+    String withContext(String userId, String nomiId, String text);
+}
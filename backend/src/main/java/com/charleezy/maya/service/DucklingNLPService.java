@@ -32,12 +32,12 @@ public class DucklingNLPService extends AbstractNLPService {
         String formData = String.format("locale=en_GB&text=%s", text);
         log.info("Sending request to Duckling: {}", formData);
         
-        String response = ducklingWebClient.post()
+        String response = backendMetrics.record("parse", ducklingWebClient.post()
             .uri(ducklingConfig.getParseEndpoint())
             .header("Content-Type", "application/x-www-form-urlencoded")
             .bodyValue(formData)
             .retrieve()
-            .bodyToMono(String.class)
+            .bodyToMono(String.class))
             .block();
         
         log.info("Received response from Duckling: {}", response);
@@ -68,18 +68,7 @@ public class DucklingNLPService extends AbstractNLPService {
         boolean isReminderCommand = text.toLowerCase().contains("remind") || text.toLowerCase().contains("reminder");
 
         // Call Duckling API
-        List<JsonNode> results = ducklingWebClient.post()
-            .uri(ducklingConfig.getParseEndpoint())
-            .bodyValue(Map.of(
-                "text", text,
-                "locale", "en_US",
-                "dims", Arrays.asList("time", "duration"),
-                "reftime", Instant.now().toEpochMilli()
-            ))
-            .retrieve()
-            .bodyToFlux(JsonNode.class)
-            .collectList()
-            .block();
+        List<JsonNode> results = parse(text);
 
         if (results != null) {
             // Sort results by start position to handle multiple expressions
@@ -192,6 +181,26 @@ public class DucklingNLPService extends AbstractNLPService {
         return new ArrayList<>(entities);
     }
 
+    @Override
+    protected String backendName() {
+        return "duckling";
+    }
+
+    private List<JsonNode> parse(String text) {
+        return backendMetrics.record("parse", ducklingWebClient.post()
+            .uri(ducklingConfig.getParseEndpoint())
+            .bodyValue(Map.of(
+                "text", text,
+                "locale", "en_US",
+                "dims", Arrays.asList("time", "duration"),
+                "reftime", Instant.now().toEpochMilli()
+            ))
+            .retrieve()
+            .bodyToFlux(JsonNode.class)
+            .collectList())
+            .block();
+    }
+
     @Override
     protected String extractTaskDescription(String text) {
         return extractTaskDescription(text, null);
@@ -241,18 +250,7 @@ public class DucklingNLPService extends AbstractNLPService {
     protected List<String> extractTemporalExpressions(String text) {
         List<String> expressions = new ArrayList<>();
         
-        List<JsonNode> results = ducklingWebClient.post()
-            .uri(ducklingConfig.getParseEndpoint())
-            .bodyValue(Map.of(
-                "text", text,
-                "locale", "en_US",
-                "dims", Arrays.asList("time", "duration"),
-                "reftime", Instant.now().toEpochMilli()
-            ))
-            .retrieve()
-            .bodyToFlux(JsonNode.class)
-            .collectList()
-            .block();
+        List<JsonNode> results = parse(text);
 
         if (results != null) {
             for (JsonNode result : results) {
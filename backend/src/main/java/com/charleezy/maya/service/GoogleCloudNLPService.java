@@ -28,6 +28,11 @@ public class GoogleCloudNLPService extends AbstractNLPService {
         this.languageServiceClient = languageServiceClient;
     }
 
+    @Override
+    protected String backendName() {
+        return "google-nlp";
+    }
+
     @Override
     protected List<EntityInfo> performTextAnalysis(String text) {
         Document doc = Document.newBuilder()
@@ -47,8 +52,10 @@ public class GoogleCloudNLPService extends AbstractNLPService {
                 .setEncodingType(EncodingType.UTF8)
                 .build();
 
-        AnalyzeEntitiesResponse entityResponse = languageServiceClient.analyzeEntities(entityRequest);
-        AnalyzeSyntaxResponse syntaxResponse = languageServiceClient.analyzeSyntax(syntaxRequest);
+        AnalyzeEntitiesResponse entityResponse = backendMetrics.record("analyzeEntities",
+            () -> languageServiceClient.analyzeEntities(entityRequest));
+        AnalyzeSyntaxResponse syntaxResponse = backendMetrics.record("analyzeSyntax",
+            () -> languageServiceClient.analyzeSyntax(syntaxRequest));
 
         Set<EntityInfo> entities = new LinkedHashSet<>();
         
@@ -163,15 +170,15 @@ public class GoogleCloudNLPService extends AbstractNLPService {
     @Override
     protected List<String> extractTemporalExpressions(String text) {
         List<String> expressions = new ArrayList<>();
-        List<Token> tokens = languageServiceClient.analyzeSyntax(
-            AnalyzeSyntaxRequest.newBuilder()
-                .setDocument(Document.newBuilder()
-                    .setContent(text)
-                    .setType(Document.Type.PLAIN_TEXT)
-                    .build())
-                .setEncodingType(EncodingType.UTF8)
-                .build()
-        ).getTokensList();
+        AnalyzeSyntaxRequest request = AnalyzeSyntaxRequest.newBuilder()
+            .setDocument(Document.newBuilder()
+                .setContent(text)
+                .setType(Document.Type.PLAIN_TEXT)
+                .build())
+            .setEncodingType(EncodingType.UTF8)
+            .build();
+        List<Token> tokens = backendMetrics.record("analyzeSyntax",
+            () -> languageServiceClient.analyzeSyntax(request)).getTokensList();
 
         for (int i = 0; i < tokens.size(); i++) {
             if (isStartOfTemporalExpression(tokens, i)) {
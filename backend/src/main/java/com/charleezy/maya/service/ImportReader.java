@@ -0,0 +1,122 @@
+package com.charleezy.maya.service;
+
+import com.charleezy.maya.model.dto.ImportItem;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads {@link ImportItem}s one line at a time from an NDJSON or CSV upload, so an import never
+ * holds more of the body in memory than the current line.
+ *
+ * CSV input needs a header row naming {@link ImportItem} properties; quoted fields may contain
+ * commas and doubled quotes but not line breaks. A row that can't be parsed is returned with an
+ * error instead of ending the read.
+ */
+public class ImportReader implements Closeable {
+
+    public enum Format {
+        NDJSON,
+        CSV;
+
+        public static Format fromContentType(String contentType) {
+            if (contentType != null && contentType.toLowerCase().startsWith("text/csv")) {
+                return CSV;
+            }
+            return NDJSON;
+        }
+    }
+
+    public record Row(long line, ImportItem item, String error) {}
+
+    private final BufferedReader reader;
+    private final Format format;
+    private final ObjectMapper objectMapper;
+    private List<String> header;
+    private long line;
+
+    public ImportReader(InputStream in, Format format, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @return the next non-blank row, or null at the end of the input
+     */
+    public Row next() throws IOException {
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && header == null) {
+                header = splitCsv(text).stream().map(String::trim).toList();
+                continue;
+            }
+            try {
+                return new Row(line, format == Format.CSV ? fromCsv(text) : objectMapper.readValue(text, ImportItem.class), null);
+            } catch (IOException | IllegalArgumentException e) {
+                return new Row(line, null, e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private ImportItem fromCsv(String text) {
+        List<String> values = splitCsv(text);
+        if (values.size() > header.size()) {
+            throw new IllegalArgumentException("Row has " + values.size() + " fields but the header has " + header.size());
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            if (!values.get(i).isEmpty()) {
+                fields.put(header.get(i), values.get(i));
+            }
+        }
+        return objectMapper.convertValue(fields, ImportItem.class);
+    }
+
+    static List<String> splitCsv(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,243 @@
+package com.charleezy.maya.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Augmented interval tree over half-open {@code [start, end)} ranges of longs.
+ *
+ * Implemented as a treap ordered by (start, id) where every node also tracks the largest end in
+ * its subtree, which lets overlap searches prune whole subtrees. Insert, remove and "does anything
+ * overlap" are O(log n) expected; listing overlaps is O(log n + k). Not thread-safe.
+ *
+ * @param <T> value stored with each interval
+ */
+public class IntervalTree<T> {
+
+    private Node<T> root;
+    private int size;
+
+    private static final class Node<T> {
+        final long start;
+        final long end;
+        final long id;
+        final T value;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        long maxEnd;
+        Node<T> left;
+        Node<T> right;
+
+        Node(long start, long end, long id, T value) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.value = value;
+            this.maxEnd = end;
+        }
+
+        int compareKey(long otherStart, long otherId) {
+            int byStart = Long.compare(start, otherStart);
+            return byStart != 0 ? byStart : Long.compare(id, otherId);
+        }
+    }
+
+    /**
+     * Adds an interval. {@code id} only has to be unique among intervals with the same start.
+     */
+    public void insert(long start, long end, long id, T value) {
+        if (end < start) {
+            throw new IllegalArgumentException("Interval end must not be before its start");
+        }
+        root = insert(root, new Node<>(start, end, id, value));
+        size++;
+    }
+
+    /**
+     * Removes the interval with the given start and id.
+     * @return true if it was present
+     */
+    public boolean remove(long start, long id) {
+        int before = size;
+        root = remove(root, start, id);
+        return size < before;
+    }
+
+    /**
+     * @return true if any stored interval overlaps {@code [start, end)}
+     */
+    public boolean overlapsAny(long start, long end) {
+        Node<T> node = root;
+        while (node != null) {
+            if (node.start < end && start < node.end) {
+                return true;
+            }
+            if (node.left != null && node.left.maxEnd > start) {
+                node = node.left;
+            } else if (node.start < end) {
+                node = node.right;
+            } else {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Visits every stored interval overlapping {@code [start, end)} in start order.
+     */
+    public void forEachOverlapping(long start, long end, Consumer<T> visitor) {
+        forEachOverlapping(root, start, end, visitor);
+    }
+
+    public List<T> overlapping(long start, long end) {
+        List<T> result = new ArrayList<>();
+        forEachOverlapping(start, end, result::add);
+        return result;
+    }
+
+    /**
+     * Latest end among intervals overlapping {@code [start, end)}, or {@code Long.MIN_VALUE} if none do.
+     */
+    public long maxEndOverlapping(long start, long end) {
+        return maxEndOverlapping(root, start, end);
+    }
+
+    /**
+     * Earliest time at or after {@code from} where {@code length} fits without overlapping anything.
+     */
+    public long nextGap(long from, long length) {
+        long candidate = from;
+        while (true) {
+            long blockedUntil = maxEndOverlapping(candidate, candidate + Math.max(length, 1));
+            if (blockedUntil == Long.MIN_VALUE) {
+                return candidate;
+            }
+            candidate = blockedUntil;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    private Node<T> insert(Node<T> node, Node<T> added) {
+        if (node == null) {
+            return added;
+        }
+        if (added.compareKey(node.start, node.id) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private Node<T> remove(Node<T> node, long start, long id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = node.compareKey(start, id);
+        if (cmp > 0) {
+            node.left = remove(node.left, start, id);
+        } else if (cmp < 0) {
+            node.right = remove(node.right, start, id);
+        } else {
+            size--;
+            return merge(node.left, node.right);
+        }
+        update(node);
+        return node;
+    }
+
+    private Node<T> merge(Node<T> left, Node<T> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private void forEachOverlapping(Node<T> node, long start, long end, Consumer<T> visitor) {
+        if (node == null || node.maxEnd <= start) {
+            return;
+        }
+        forEachOverlapping(node.left, start, end, visitor);
+        if (node.start >= end) {
+            return;
+        }
+        if (start < node.end) {
+            visitor.accept(node.value);
+        }
+        forEachOverlapping(node.right, start, end, visitor);
+    }
+
+    private long maxEndOverlapping(Node<T> node, long start, long end) {
+        if (node == null || node.maxEnd <= start) {
+            return Long.MIN_VALUE;
+        }
+        long best = maxEndOverlapping(node.left, start, end);
+        if (node.start >= end) {
+            return best;
+        }
+        if (start < node.end) {
+            best = Math.max(best, node.end);
+        }
+        // The right subtree starts later; only its overall maxEnd can beat what we have
+        if (node.right != null && node.right.maxEnd > Math.max(best, start)) {
+            best = Math.max(best, maxEndOverlapping(node.right, start, end));
+        }
+        return best;
+    }
+
+    private Node<T> rotateRight(Node<T> node) {
+        Node<T> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node<T> rotateLeft(Node<T> node) {
+        Node<T> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static <T> void update(Node<T> node) {
+        long maxEnd = node.end;
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+}
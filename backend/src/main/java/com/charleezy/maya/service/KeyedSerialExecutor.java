@@ -0,0 +1,108 @@
+package com.charleezy.maya.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs tasks on a shared executor so that tasks with the same key run one at a time, in submission
+ * order, while different keys proceed in parallel.
+ *
+ * Admission is bounded twice: by the total number of tasks waiting or running, and by the number per
+ * key, so one busy key can't take the whole queue. {@link #submit} refuses instead of blocking; callers
+ * turn a refusal into backpressure. A key gives its worker back after every task, so a key with a long
+ * queue can't hold a thread while other keys wait.
+ */
+@Slf4j
+public class KeyedSerialExecutor {
+    private final Executor executor;
+    private final int capacity;
+    private final int perKeyCapacity;
+    // The head of each queue is the task currently running (or about to) for that key
+    private final Map<String, ArrayDeque<Runnable>> queues = new HashMap<>();
+    private int size;
+
+    public KeyedSerialExecutor(Executor executor, int capacity, int perKeyCapacity) {
+        if (capacity <= 0 || perKeyCapacity <= 0) {
+            throw new IllegalArgumentException("capacity and perKeyCapacity must be positive");
+        }
+        this.executor = executor;
+        this.capacity = capacity;
+        this.perKeyCapacity = perKeyCapacity;
+    }
+
+    /**
+     * @return false, without queueing the task, if the executor or the key is at capacity
+     */
+    public boolean submit(String key, Runnable task) {
+        synchronized (this) {
+            ArrayDeque<Runnable> queue = queues.get(key);
+            if (size >= capacity || (queue != null && queue.size() >= perKeyCapacity)) {
+                return false;
+            }
+            size++;
+            if (queue != null) {
+                queue.add(task);
+                return true;
+            }
+            queue = new ArrayDeque<>();
+            queue.add(task);
+            queues.put(key, queue);
+        }
+        schedule(key);
+        return true;
+    }
+
+    /**
+     * @return tasks waiting or running
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return keys with at least one task waiting or running
+     */
+    public synchronized int activeKeys() {
+        return queues.size();
+    }
+
+    private void runNext(String key) {
+        Runnable task;
+        synchronized (this) {
+            task = queues.get(key).peek();
+        }
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            log.error("Task for key {} failed", key, e);
+        }
+        synchronized (this) {
+            ArrayDeque<Runnable> queue = queues.get(key);
+            queue.poll();
+            size--;
+            if (queue.isEmpty()) {
+                queues.remove(key);
+                return;
+            }
+        }
+        schedule(key);
+    }
+
+    private void schedule(String key) {
+        try {
+            executor.execute(() -> runNext(key));
+        } catch (RejectedExecutionException e) {
+            // Only happens once the executor is shutting down; nothing will run this key's tasks
+            synchronized (this) {
+                ArrayDeque<Runnable> dropped = queues.remove(key);
+                size -= dropped.size();
+                log.warn("Executor rejected work, dropped {} queued tasks for key {}", dropped.size(), key);
+            }
+        }
+    }
+}
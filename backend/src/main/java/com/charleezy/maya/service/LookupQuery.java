@@ -0,0 +1,30 @@
+package com.charleezy.maya.service;
+
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A question about an item already on the calendar, read from a chat message, e.g. "when is my
+ * dentist thing?". The item is found by searching for the phrase it was referred to by.
+ */
+public final class LookupQuery {
+
+    private static final Pattern QUESTION = Pattern.compile(
+        "^(?:when(?:'s|\\s+is|\\s+was)|what\\s+time\\s+(?:is|was))\\s+(?:my|the)?\\s*(.+?)\\s*\\?*$",
+        Pattern.CASE_INSENSITIVE);
+
+    private LookupQuery() {
+    }
+
+    /**
+     * @return the phrase the item was referred to by, or empty if the message isn't such a question
+     */
+    public static Optional<String> parse(String text) {
+        Matcher matcher = QUESTION.matcher(text.trim());
+        if (!matcher.matches() || matcher.group(1).isBlank()) {
+            return Optional.empty();
+        }
+        return Optional.of(matcher.group(1));
+    }
+}
@@ -0,0 +1,16 @@
+package com.charleezy.maya.service;
+
+public interface MessageDedupService {
+    /**
+     * Cheap check made before queueing an inbound message. Only ids the in-memory filter has seen
+     * recently cost a database lookup.
+     * @return true if the message is known to have been taken on already
+     */
+    boolean isDuplicate(String messageId);
+
+    /**
+     * Record that a message is being taken on. Exactly one caller wins each id, across instances.
+     * @return false if the message was already claimed and must not be processed again
+     */
+    boolean claim(String messageId, String userId);
+}
@@ -0,0 +1,19 @@
+package com.charleezy.maya.service;
+
+/**
+ * Outbound stage for messages the app starts on its own (reminders, follow-ups), as opposed to direct
+ * replies. Messages are sent asynchronously under global and per-user rate limits, and several
+ * messages for the same conversation that come due close together go out as one.
+ */
+public interface MessageDispatcher {
+    /**
+     * Queue a message for the user's Nomi
+     * @return false if too many conversations are already waiting and the message was dropped
+     */
+    boolean dispatch(String userId, String nomiId, String text);
+
+    /**
+     * @return number of conversations with messages waiting to be sent
+     */
+    int pendingCount();
+}
@@ -0,0 +1,75 @@
+package com.charleezy.maya.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A request to move something already scheduled, read from a chat message that refers to it as
+ * "that" or "it", e.g. "move that to 5pm" or "reschedule it for 17:30". What "that" is comes from the
+ * conversation: the item scheduled last.
+ * @param at clock time to move it to, or null
+ * @param delay how long after the message to move it to, or null
+ */
+public record MoveRequest(LocalTime at, Duration delay) {
+
+    private static final Pattern REQUEST = Pattern.compile(
+        "^(?:please\\s+)?(?:move|push|change|reschedule|shift)\\s+(?:that|it|this)(?:\\s+(?:one|reminder))?"
+            + "\\s+(?:(?:to|until|till|for)\\s+)?(?:at\\s+)?(.+?)[.!]*$",
+        Pattern.CASE_INSENSITIVE);
+    private static final Pattern CLOCK = Pattern.compile(
+        "(\\d{1,2})(?::(\\d{2}))?\\s*([ap])\\.?m\\.?|(\\d{1,2}):(\\d{2})", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * @return empty if the message isn't such a request, or its time can't be read
+     */
+    public static Optional<MoveRequest> parse(String text) {
+        Matcher request = REQUEST.matcher(text.trim());
+        if (!request.matches()) {
+            return Optional.empty();
+        }
+        String when = request.group(1);
+        Matcher clock = CLOCK.matcher(when);
+        if (clock.matches()) {
+            return clockTime(clock).map(at -> new MoveRequest(at, null));
+        }
+        return ChatCommand.parseDelay(when).map(delay -> new MoveRequest(null, delay));
+    }
+
+    /**
+     * @return how long after {@code sentAt} the item should now come due; a clock time already past
+     *         that day means the next day
+     */
+    public Duration delayFrom(Instant sentAt, ZoneId zone) {
+        if (delay != null) {
+            return delay;
+        }
+        ZonedDateTime sent = sentAt.atZone(zone);
+        ZonedDateTime next = sent.with(at);
+        if (!next.isAfter(sent)) {
+            next = next.plusDays(1);
+        }
+        return Duration.between(sent, next);
+    }
+
+    private static Optional<LocalTime> clockTime(Matcher clock) {
+        if (clock.group(4) != null) {
+            int hour = Integer.parseInt(clock.group(4));
+            int minute = Integer.parseInt(clock.group(5));
+            return hour < 24 && minute < 60 ? Optional.of(LocalTime.of(hour, minute)) : Optional.empty();
+        }
+        int hour = Integer.parseInt(clock.group(1));
+        int minute = clock.group(2) == null ? 0 : Integer.parseInt(clock.group(2));
+        if (hour < 1 || hour > 12 || minute >= 60) {
+            return Optional.empty();
+        }
+        boolean pm = clock.group(3).toLowerCase(Locale.ROOT).equals("p");
+        return Optional.of(LocalTime.of(hour % 12 + (pm ? 12 : 0), minute));
+    }
+}
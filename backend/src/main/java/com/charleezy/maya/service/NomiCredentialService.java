@@ -0,0 +1,24 @@
+package com.charleezy.maya.service;
+
+import reactor.core.publisher.Mono;
+
+public interface NomiCredentialService {
+    /**
+     * Store (or replace) a user's own Nomi API key
+     * @throws IllegalStateException if no credential encryption key is configured
+     */
+    void store(String userId, String apiKey);
+
+    /**
+     * Remove a user's own key; they fall back to the shared key, if one is configured
+     * @return true if the user had a key
+     */
+    boolean remove(String userId);
+
+    /**
+     * The key to call the Nomi API with on behalf of a user: their own, else the shared one.
+     * Served from memory when cached; a miss is loaded off the calling thread.
+     * @return empty if the user has no key and there is no shared one
+     */
+    Mono<String> apiKey(String userId);
+}
@@ -6,22 +6,23 @@ import com.charleezy.maya.model.dto.NomiResponse;
 public interface NomiService {
     /**
      * Send a message to a specific Nomi and get their response
+     * @param userId the user on whose behalf, and with whose API key, the call is made
      * @param nomiId the UUID of the Nomi
      * @param message the message to send
      * @return the Nomi's response
      */
-    NomiResponse sendMessage(String nomiId, NomiMessage message);
+    NomiResponse sendMessage(String userId, String nomiId, NomiMessage message);
 
     /**
      * List all Nomis associated with the user's account
      * @return list of Nomis
      */
-    java.util.List<NomiResponse.Nomi> listNomis();
+    java.util.List<NomiResponse.Nomi> listNomis(String userId);
 
     /**
      * Get details about a specific Nomi
      * @param nomiId the UUID of the Nomi
      * @return the Nomi's details
      */
-    NomiResponse.Nomi getNomi(String nomiId);
-} 
\ No newline at end of file
+    NomiResponse.Nomi getNomi(String userId, String nomiId);
+}
@@ -0,0 +1,34 @@
+package com.charleezy.maya.service;
+
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Pomodoro controls read from a chat message, e.g. "start a pomodoro" or "pause".
+ */
+public enum PomodoroCommand {
+    START("\\b(start|begin)\\b.*\\b(pomodoro|focus session)\\b"),
+    PAUSE("^(please\\s+)?(pause|hold on)\\b"),
+    RESUME("^(please\\s+)?(resume|unpause|continue)\\b"),
+    SKIP("^(please\\s+)?skip\\b"),
+    STOP("\\b(stop|end|cancel)\\b.*\\b(pomodoro|focus session|session)\\b");
+
+    private final Pattern pattern;
+
+    PomodoroCommand(String regex) {
+        this.pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
+    }
+
+    /**
+     * @return empty if the message isn't a Pomodoro command
+     */
+    public static Optional<PomodoroCommand> parse(String text) {
+        String trimmed = text.trim();
+        for (PomodoroCommand command : values()) {
+            if (command.pattern.matcher(trimmed).find()) {
+                return Optional.of(command);
+            }
+        }
+        return Optional.empty();
+    }
+}
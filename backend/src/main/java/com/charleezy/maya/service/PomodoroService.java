@@ -0,0 +1,44 @@
+package com.charleezy.maya.service;
+
+import com.charleezy.maya.model.PomodoroPhase;
+
+import java.time.Duration;
+import java.util.Optional;
+
+public interface PomodoroService {
+
+    record Status(PomodoroPhase phase, int completedCycles, boolean paused, Duration remaining) {}
+
+    /**
+     * Start a session with the user's Nomi, replacing any session already running
+     */
+    Status start(String userId, String nomiId);
+
+    /**
+     * @return the paused session, or empty if the user has none running
+     */
+    Optional<Status> pause(String userId);
+
+    /**
+     * @return the resumed session, or empty if the user has none running
+     */
+    Optional<Status> resume(String userId);
+
+    /**
+     * End the current phase early and move on to the next one
+     * @return the session after skipping, or empty if there is none (left)
+     */
+    Optional<Status> skip(String userId);
+
+    /**
+     * @return true if the user had a session running
+     */
+    boolean stop(String userId);
+
+    Optional<Status> status(String userId);
+
+    /**
+     * @return number of sessions running on this instance
+     */
+    int activeCount();
+}
@@ -0,0 +1,129 @@
+package com.charleezy.maya.service;
+
+import com.charleezy.maya.model.PomodoroPhase;
+
+/**
+ * Pomodoro transitions over a session packed into one {@code long}, so a running session costs a map
+ * entry and no objects of its own. A session alternates work and short breaks until
+ * {@code cyclesPerSession} work phases are done, then takes a long break and ends.
+ *
+ * Layout: bits 0-1 phase, bit 2 paused, bits 3-10 completed work phases, bits 11-63 the phase's end
+ * (epoch millis) while running or the time left in it (millis) while paused.
+ */
+public class PomodoroStateMachine {
+
+    /** Returned by transitions that end the session */
+    public static final long ENDED = -1;
+
+    private static final long PHASE_MASK = 0b11;
+    private static final long PAUSED_BIT = 1 << 2;
+    private static final int CYCLES_SHIFT = 3;
+    private static final long CYCLES_MASK = 0xFF;
+    private static final int TIME_SHIFT = 11;
+    private static final PomodoroPhase[] PHASES = PomodoroPhase.values();
+
+    private final long workMs;
+    private final long shortBreakMs;
+    private final long longBreakMs;
+    private final int cyclesPerSession;
+
+    public PomodoroStateMachine(long workMs, long shortBreakMs, long longBreakMs, int cyclesPerSession) {
+        if (workMs <= 0 || shortBreakMs <= 0 || longBreakMs <= 0) {
+            throw new IllegalArgumentException("Phase durations must be positive");
+        }
+        if (cyclesPerSession < 1 || cyclesPerSession > CYCLES_MASK) {
+            throw new IllegalArgumentException("cyclesPerSession must be between 1 and " + CYCLES_MASK);
+        }
+        this.workMs = workMs;
+        this.shortBreakMs = shortBreakMs;
+        this.longBreakMs = longBreakMs;
+        this.cyclesPerSession = cyclesPerSession;
+    }
+
+    public long start(long now) {
+        return pack(PomodoroPhase.WORK, false, 0, now + workMs);
+    }
+
+    /**
+     * Moves on when the current phase has run its course, counting a finished work phase
+     */
+    public long complete(long state, long now) {
+        return next(state, now, true);
+    }
+
+    /**
+     * Ends the current phase early; a skipped work phase doesn't count towards the session
+     */
+    public long skip(long state, long now) {
+        return next(state, now, false);
+    }
+
+    public long pause(long state, long now) {
+        if (isPaused(state)) {
+            return state;
+        }
+        return pack(phase(state), true, completedCycles(state), Math.max(0, time(state) - now));
+    }
+
+    public long resume(long state, long now) {
+        if (!isPaused(state)) {
+            return state;
+        }
+        return pack(phase(state), false, completedCycles(state), now + time(state));
+    }
+
+    public long durationMs(PomodoroPhase phase) {
+        return switch (phase) {
+            case WORK -> workMs;
+            case SHORT_BREAK -> shortBreakMs;
+            case LONG_BREAK -> longBreakMs;
+        };
+    }
+
+    public static PomodoroPhase phase(long state) {
+        return PHASES[(int) (state & PHASE_MASK)];
+    }
+
+    public static boolean isPaused(long state) {
+        return (state & PAUSED_BIT) != 0;
+    }
+
+    public static int completedCycles(long state) {
+        return (int) ((state >>> CYCLES_SHIFT) & CYCLES_MASK);
+    }
+
+    /**
+     * @return when the current phase ends, in epoch millis; only meaningful while running
+     */
+    public static long endsAt(long state) {
+        return time(state);
+    }
+
+    public static long remainingMs(long state, long now) {
+        return isPaused(state) ? time(state) : Math.max(0, time(state) - now);
+    }
+
+    private long next(long state, long now, boolean countWork) {
+        int cycles = completedCycles(state);
+        return switch (phase(state)) {
+            case WORK -> {
+                if (countWork) {
+                    cycles++;
+                }
+                yield countWork && cycles >= cyclesPerSession
+                    ? pack(PomodoroPhase.LONG_BREAK, false, cycles, now + longBreakMs)
+                    : pack(PomodoroPhase.SHORT_BREAK, false, cycles, now + shortBreakMs);
+            }
+            case SHORT_BREAK -> pack(PomodoroPhase.WORK, false, cycles, now + workMs);
+            case LONG_BREAK -> ENDED;
+        };
+    }
+
+    private static long time(long state) {
+        return state >>> TIME_SHIFT;
+    }
+
+    private static long pack(PomodoroPhase phase, boolean paused, int cycles, long time) {
+        return phase.ordinal() | (paused ? PAUSED_BIT : 0) | ((long) cycles << CYCLES_SHIFT) | (time << TIME_SHIFT);
+    }
+}
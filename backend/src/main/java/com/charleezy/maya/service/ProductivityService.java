@@ -0,0 +1,23 @@
+package com.charleezy.maya.service;
+
+import com.charleezy.maya.model.RollupPeriod;
+import com.charleezy.maya.model.dto.ProductivityStats;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ProductivityService {
+    /**
+     * Daily or weekly figures for a user, read from pre-aggregated rollups
+     * @param from first day (or any day of the first week) to include
+     * @param to last day (or any day of the last week) to include
+     * @return one entry per period with activity, oldest first
+     */
+    List<ProductivityStats> stats(String userId, RollupPeriod period, LocalDate from, LocalDate to);
+
+    /**
+     * Count a finished Pomodoro session towards the day and week it ended in
+     */
+    void recordPomodoroSession(String userId, LocalDateTime endedAt);
+}
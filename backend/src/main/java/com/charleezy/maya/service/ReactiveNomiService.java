@@ -0,0 +1,39 @@
+package com.charleezy.maya.service;
+
+import com.charleezy.maya.model.dto.NomiMessage;
+import com.charleezy.maya.model.dto.NomiResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link NomiService}, for callers that fan out many requests and
+ * shouldn't hold a thread per request in flight. Calls are made with the user's own API key and
+ * count against that user's rate limit; they fail with {@link IllegalStateException} if the user has
+ * no key or is being throttled.
+ */
+public interface ReactiveNomiService {
+    /**
+     * Send a message to a specific Nomi
+     * @param userId the user on whose behalf the call is made
+     * @param nomiId the UUID of the Nomi
+     * @param message the message to send
+     * @return the Nomi's response, or an error if it takes longer than {@code nomi.message-timeout}
+     */
+    Mono<NomiResponse> sendMessage(String userId, String nomiId, NomiMessage message);
+
+    /**
+     * List all Nomis associated with the user's account, emitted as each one is decoded
+     */
+    Flux<NomiResponse.Nomi> listNomis(String userId);
+
+    /**
+     * Get details about a specific Nomi
+     * @param nomiId the UUID of the Nomi
+     */
+    Mono<NomiResponse.Nomi> getNomi(String userId, String nomiId);
+
+    /**
+     * Rate limit and error counts of the user's calls on this instance
+     */
+    TenantGuard.Stats usage(String userId);
+}
@@ -0,0 +1,416 @@
+package com.charleezy.maya.service;
+
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Parsed recurrence rule for {@code Task.recurrencePattern}.
+ *
+ * Supports the commonly used part of RFC 5545 RRULE: FREQ (DAILY, WEEKLY, MONTHLY, YEARLY), INTERVAL,
+ * COUNT, UNTIL, BYDAY (with ordinals such as {@code 1MO} or {@code -1FR} for MONTHLY/YEARLY),
+ * BYMONTHDAY and BYMONTH. The legacy free-form values "daily", "weekly", "weekdays", "monthly" and
+ * "yearly" are accepted too. Occurrences are generated lazily one period at a time, so expanding a
+ * window never materializes the whole series.
+ */
+public final class RecurrenceRule {
+
+    public enum Frequency { DAILY, WEEKLY, MONTHLY, YEARLY }
+
+    /** A BYDAY entry; {@code ordinal} is 0 for "every such weekday in the period". */
+    public record WeekdayNum(int ordinal, DayOfWeek day) {}
+
+    private static final int MAX_EMPTY_PERIODS = 1000;
+    private static final List<Integer> ALL_MONTHS = List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12);
+    private static final Map<String, DayOfWeek> DAYS = Map.of(
+        "MO", DayOfWeek.MONDAY, "TU", DayOfWeek.TUESDAY, "WE", DayOfWeek.WEDNESDAY,
+        "TH", DayOfWeek.THURSDAY, "FR", DayOfWeek.FRIDAY, "SA", DayOfWeek.SATURDAY, "SU", DayOfWeek.SUNDAY
+    );
+
+    private final Frequency frequency;
+    private final int interval;
+    private final Integer count;
+    private final LocalDateTime until;
+    private final List<WeekdayNum> byDay;
+    private final List<Integer> byMonthDay;
+    private final List<Integer> byMonth;
+
+    private RecurrenceRule(Frequency frequency, int interval, Integer count, LocalDateTime until,
+                           List<WeekdayNum> byDay, List<Integer> byMonthDay, List<Integer> byMonth) {
+        this.frequency = frequency;
+        this.interval = interval;
+        this.count = count;
+        this.until = until;
+        this.byDay = byDay;
+        this.byMonthDay = byMonthDay;
+        this.byMonth = byMonth;
+    }
+
+    /**
+     * Parses an RRULE (with or without the {@code RRULE:} prefix) or one of the legacy keywords.
+     * @throws IllegalArgumentException if the pattern is empty, malformed or uses unsupported parts
+     */
+    public static RecurrenceRule parse(String pattern) {
+        if (pattern == null || pattern.trim().isEmpty()) {
+            throw new IllegalArgumentException("Recurrence pattern cannot be empty");
+        }
+        String normalized = pattern.trim();
+        switch (normalized.toLowerCase()) {
+            case "daily": return parse("FREQ=DAILY");
+            case "weekly": return parse("FREQ=WEEKLY");
+            case "weekdays": return parse("FREQ=WEEKLY;BYDAY=MO,TU,WE,TH,FR");
+            case "monthly": return parse("FREQ=MONTHLY");
+            case "yearly":
+            case "annually": return parse("FREQ=YEARLY");
+            default: break;
+        }
+        if (normalized.toUpperCase().startsWith("RRULE:")) {
+            normalized = normalized.substring("RRULE:".length());
+        }
+
+        Frequency frequency = null;
+        int interval = 1;
+        Integer count = null;
+        LocalDateTime until = null;
+        List<WeekdayNum> byDay = List.of();
+        List<Integer> byMonthDay = List.of();
+        List<Integer> byMonth = List.of();
+
+        for (String part : normalized.split(";")) {
+            if (part.isBlank()) {
+                continue;
+            }
+            String[] keyValue = part.split("=", 2);
+            if (keyValue.length != 2) {
+                throw new IllegalArgumentException("Malformed recurrence rule part: " + part);
+            }
+            String key = keyValue[0].trim().toUpperCase();
+            String value = keyValue[1].trim().toUpperCase();
+            switch (key) {
+                case "FREQ" -> frequency = parseFrequency(value);
+                case "INTERVAL" -> interval = parsePositive(key, value);
+                case "COUNT" -> count = parsePositive(key, value);
+                case "UNTIL" -> until = parseUntil(value);
+                case "BYDAY" -> byDay = Arrays.stream(value.split(",")).map(RecurrenceRule::parseWeekdayNum).toList();
+                case "BYMONTHDAY" -> byMonthDay = parseIntList(key, value, 31);
+                case "BYMONTH" -> byMonth = parseIntList(key, value, 12);
+                case "WKST" -> { /* weeks always start on Monday */ }
+                default -> throw new IllegalArgumentException("Unsupported recurrence rule part: " + key);
+            }
+        }
+
+        if (frequency == null) {
+            throw new IllegalArgumentException("Recurrence rule must specify FREQ");
+        }
+        if (count != null && until != null) {
+            throw new IllegalArgumentException("COUNT and UNTIL cannot both be specified");
+        }
+        boolean hasOrdinals = byDay.stream().anyMatch(d -> d.ordinal() != 0);
+        if (hasOrdinals && (frequency == Frequency.DAILY || frequency == Frequency.WEEKLY)) {
+            throw new IllegalArgumentException("BYDAY ordinals are only valid for MONTHLY and YEARLY rules");
+        }
+        if (frequency == Frequency.YEARLY && !byDay.isEmpty() && byMonth.isEmpty()) {
+            throw new IllegalArgumentException("YEARLY rules with BYDAY must also specify BYMONTH");
+        }
+        return new RecurrenceRule(frequency, interval, count, until, byDay, byMonthDay, byMonth);
+    }
+
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+    /**
+     * @return true if the series ends, either by COUNT or by UNTIL
+     */
+    public boolean isBounded() {
+        return count != null || until != null;
+    }
+
+    /**
+     * Lazily iterates every occurrence of the series starting at {@code dtstart}.
+     * The first occurrence is {@code dtstart} itself when it matches the rule.
+     */
+    public Iterator<LocalDateTime> iterator(LocalDateTime dtstart) {
+        return new OccurrenceIterator(dtstart, 0);
+    }
+
+    /**
+     * Lazily streams occurrences in {@code [from, to)}. Unless the rule uses COUNT, periods before
+     * {@code from} are skipped arithmetically rather than generated and discarded.
+     */
+    public Stream<LocalDateTime> between(LocalDateTime dtstart, LocalDateTime from, LocalDateTime to) {
+        long skip = count == null ? periodsBefore(dtstart, from) : 0;
+        Iterator<LocalDateTime> iterator = new OccurrenceIterator(dtstart, skip);
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .dropWhile(occurrence -> occurrence.isBefore(from))
+            .takeWhile(occurrence -> occurrence.isBefore(to));
+    }
+
+    private long periodsBefore(LocalDateTime dtstart, LocalDateTime from) {
+        if (!from.isAfter(dtstart)) {
+            return 0;
+        }
+        LocalDate start = periodStart(dtstart.toLocalDate());
+        long periods = switch (frequency) {
+            case DAILY -> ChronoUnit.DAYS.between(start, from.toLocalDate());
+            case WEEKLY -> ChronoUnit.WEEKS.between(start, from.toLocalDate());
+            case MONTHLY -> ChronoUnit.MONTHS.between(start, from.toLocalDate());
+            case YEARLY -> ChronoUnit.YEARS.between(start, from.toLocalDate());
+        };
+        // Step back one period so occurrences in the period containing "from" are not missed
+        return Math.max(0, periods / interval - 1);
+    }
+
+    private LocalDate periodStart(LocalDate date) {
+        return switch (frequency) {
+            case DAILY -> date;
+            case WEEKLY -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTHLY -> date.withDayOfMonth(1);
+            case YEARLY -> date.withDayOfYear(1);
+        };
+    }
+
+    private LocalDate advance(LocalDate periodStart, long periods) {
+        return switch (frequency) {
+            case DAILY -> periodStart.plusDays(periods * interval);
+            case WEEKLY -> periodStart.plusWeeks(periods * interval);
+            case MONTHLY -> periodStart.plusMonths(periods * interval);
+            case YEARLY -> periodStart.plusYears(periods * interval);
+        };
+    }
+
+    /**
+     * Candidate dates inside one period, in ascending order, before the dtstart/COUNT/UNTIL checks.
+     */
+    private List<LocalDate> expand(LocalDate periodStart, LocalDate dtstart) {
+        List<LocalDate> dates = switch (frequency) {
+            case DAILY -> List.of(periodStart);
+            case WEEKLY -> expandWeek(periodStart, dtstart);
+            case MONTHLY -> expandMonth(YearMonth.from(periodStart), dtstart);
+            case YEARLY -> {
+                // BYMONTHDAY alone applies to every month of the year; otherwise only dtstart's month recurs
+                List<Integer> months = !byMonth.isEmpty() ? byMonth
+                    : !byMonthDay.isEmpty() ? ALL_MONTHS : List.of(dtstart.getMonthValue());
+                List<LocalDate> all = new ArrayList<>();
+                for (Integer month : months.stream().sorted().toList()) {
+                    all.addAll(expandMonth(YearMonth.of(periodStart.getYear(), month), dtstart));
+                }
+                yield all;
+            }
+        };
+        List<LocalDate> filtered = new ArrayList<>(dates.size());
+        for (LocalDate date : dates) {
+            if (matchesFilters(date)) {
+                filtered.add(date);
+            }
+        }
+        return filtered;
+    }
+
+    private List<LocalDate> expandWeek(LocalDate weekStart, LocalDate dtstart) {
+        if (byDay.isEmpty()) {
+            return List.of(weekStart.with(TemporalAdjusters.nextOrSame(dtstart.getDayOfWeek())));
+        }
+        return byDay.stream()
+            .map(d -> weekStart.with(TemporalAdjusters.nextOrSame(d.day())))
+            .sorted()
+            .distinct()
+            .toList();
+    }
+
+    private List<LocalDate> expandMonth(YearMonth month, LocalDate dtstart) {
+        TreeSet<LocalDate> dates = new TreeSet<>();
+        if (!byMonthDay.isEmpty()) {
+            for (Integer day : byMonthDay) {
+                int dayOfMonth = day > 0 ? day : month.lengthOfMonth() + day + 1;
+                if (dayOfMonth >= 1 && dayOfMonth <= month.lengthOfMonth()) {
+                    dates.add(month.atDay(dayOfMonth));
+                }
+            }
+        } else if (!byDay.isEmpty()) {
+            for (WeekdayNum weekday : byDay) {
+                if (weekday.ordinal() == 0) {
+                    LocalDate date = month.atDay(1).with(TemporalAdjusters.nextOrSame(weekday.day()));
+                    while (YearMonth.from(date).equals(month)) {
+                        dates.add(date);
+                        date = date.plusWeeks(1);
+                    }
+                } else {
+                    LocalDate date = month.atDay(1).with(TemporalAdjusters.dayOfWeekInMonth(weekday.ordinal(), weekday.day()));
+                    if (YearMonth.from(date).equals(month)) {
+                        dates.add(date);
+                    }
+                }
+            }
+        } else if (dtstart.getDayOfMonth() <= month.lengthOfMonth()) {
+            // Per RFC 5545, months without the start's day of month are skipped rather than clamped
+            dates.add(month.atDay(dtstart.getDayOfMonth()));
+        }
+        return new ArrayList<>(dates);
+    }
+
+    private boolean matchesFilters(LocalDate date) {
+        if (!byMonth.isEmpty() && !byMonth.contains(date.getMonthValue())) {
+            return false;
+        }
+        // BYDAY limits DAILY rules, and limits MONTHLY/YEARLY rules when BYMONTHDAY did the expanding
+        boolean byDayLimits = frequency == Frequency.DAILY
+            || ((frequency == Frequency.MONTHLY || frequency == Frequency.YEARLY) && !byMonthDay.isEmpty());
+        if (byDayLimits && !byDay.isEmpty()
+                && byDay.stream().noneMatch(d -> d.day() == date.getDayOfWeek())) {
+            return false;
+        }
+        if (frequency == Frequency.DAILY && !byMonthDay.isEmpty()) {
+            int fromEnd = date.getDayOfMonth() - date.lengthOfMonth() - 1;
+            return byMonthDay.contains(date.getDayOfMonth()) || byMonthDay.contains(fromEnd);
+        }
+        return true;
+    }
+
+    private final class OccurrenceIterator implements Iterator<LocalDateTime> {
+        private final LocalDateTime dtstart;
+        private final LocalDate firstPeriod;
+        private long period;
+        private int emitted;
+        private Iterator<LocalDate> current = Collections.emptyIterator();
+        private LocalDateTime next;
+        private boolean exhausted;
+
+        OccurrenceIterator(LocalDateTime dtstart, long skipPeriods) {
+            this.dtstart = dtstart;
+            this.firstPeriod = periodStart(dtstart.toLocalDate());
+            this.period = skipPeriods;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !exhausted) {
+                next = computeNext();
+                exhausted = next == null;
+            }
+            return next != null;
+        }
+
+        @Override
+        public LocalDateTime next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            LocalDateTime result = next;
+            next = null;
+            emitted++;
+            return result;
+        }
+
+        private LocalDateTime computeNext() {
+            if (count != null && emitted >= count) {
+                return null;
+            }
+            int emptyPeriods = 0;
+            while (true) {
+                while (current.hasNext()) {
+                    LocalDateTime candidate = current.next().atTime(dtstart.toLocalTime());
+                    if (candidate.isBefore(dtstart)) {
+                        continue;
+                    }
+                    if (until != null && candidate.isAfter(until)) {
+                        return null;
+                    }
+                    return candidate;
+                }
+                if (emptyPeriods++ > MAX_EMPTY_PERIODS) {
+                    return null;
+                }
+                LocalDate periodStart = advance(firstPeriod, period++);
+                if (until != null && periodStart.atStartOfDay().isAfter(until)) {
+                    return null;
+                }
+                current = expand(periodStart, dtstart.toLocalDate()).iterator();
+            }
+        }
+    }
+
+    private static Frequency parseFrequency(String value) {
+        try {
+            return Frequency.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported recurrence frequency: " + value);
+        }
+    }
+
+    private static int parsePositive(String key, String value) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed <= 0) {
+                throw new IllegalArgumentException(key + " must be positive");
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + key + ": " + value);
+        }
+    }
+
+    private static LocalDateTime parseUntil(String value) {
+        try {
+            if (value.length() == 8) {
+                return LocalDate.parse(value, DateTimeFormatter.BASIC_ISO_DATE).atTime(LocalTime.MAX);
+            }
+            DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+            if (value.endsWith("Z")) {
+                return LocalDateTime.parse(value.substring(0, value.length() - 1), format)
+                    .atZone(ZoneOffset.UTC)
+                    .withZoneSameInstant(ZoneId.systemDefault())
+                    .toLocalDateTime();
+            }
+            return LocalDateTime.parse(value, format);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid UNTIL: " + value);
+        }
+    }
+
+    private static WeekdayNum parseWeekdayNum(String value) {
+        String trimmed = value.trim();
+        if (trimmed.length() < 2) {
+            throw new IllegalArgumentException("Invalid BYDAY: " + value);
+        }
+        DayOfWeek day = DAYS.get(trimmed.substring(trimmed.length() - 2));
+        if (day == null) {
+            throw new IllegalArgumentException("Invalid BYDAY: " + value);
+        }
+        String ordinal = trimmed.substring(0, trimmed.length() - 2);
+        if (ordinal.isEmpty()) {
+            return new WeekdayNum(0, day);
+        }
+        try {
+            int n = Integer.parseInt(ordinal.startsWith("+") ? ordinal.substring(1) : ordinal);
+            if (n == 0 || Math.abs(n) > 5) {
+                throw new IllegalArgumentException("Invalid BYDAY ordinal: " + value);
+            }
+            return new WeekdayNum(n, day);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid BYDAY: " + value);
+        }
+    }
+
+    private static List<Integer> parseIntList(String key, String value, int max) {
+        List<Integer> values = new ArrayList<>();
+        for (String item : value.split(",")) {
+            try {
+                int parsed = Integer.parseInt(item.trim());
+                if (parsed == 0 || Math.abs(parsed) > max || (max == 12 && parsed < 0)) {
+                    throw new IllegalArgumentException("Invalid " + key + ": " + item);
+                }
+                values.add(parsed);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid " + key + ": " + item);
+            }
+        }
+        return List.copyOf(values);
+    }
+}
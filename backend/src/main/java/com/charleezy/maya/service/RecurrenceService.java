@@ -0,0 +1,25 @@
+package com.charleezy.maya.service;
+
+import com.charleezy.maya.model.Task;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+public interface RecurrenceService {
+    /**
+     * Occurrences of a task in {@code [from, to)}, produced lazily. Non-recurring tasks yield their
+     * scheduled time if it falls in the window.
+     * @param task the task whose {@code recurrencePattern} is expanded from its {@code scheduledTime}
+     * @param from inclusive start of the window
+     * @param to exclusive end of the window
+     * @return occurrence start times in ascending order
+     * @throws IllegalArgumentException if the task's recurrence pattern can't be parsed
+     */
+    Stream<LocalDateTime> occurrences(Task task, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Drop any cached expansion for a task
+     * @param taskId the ID of the task
+     */
+    void invalidate(Long taskId);
+}
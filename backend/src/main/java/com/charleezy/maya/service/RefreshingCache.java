@@ -0,0 +1,105 @@
+package com.charleezy.maya.service;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * LRU cache of values loaded reactively, for data that rarely changes but is read on hot paths.
+ *
+ * A value is served as-is for {@code ttlMs}. For a further {@code staleMs} it is still served
+ * immediately, but the first read also starts a background reload; if that fails the stale value
+ * stays. Past that, reads wait for a reload. Concurrent loads of one key share a single call.
+ */
+@Slf4j
+public class RefreshingCache<K, V> {
+
+    private record Entry<V>(V value, long loadedAt) {}
+
+    private final long ttlMs;
+    private final long staleMs;
+    private final int maxEntries;
+    private final LongSupplier clock;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+    // Bumped by invalidations, so a load that started before one doesn't put back what it dropped
+    private long generation;
+
+    public RefreshingCache(long ttlMs, long staleMs, int maxEntries, LongSupplier clock) {
+        this.ttlMs = ttlMs;
+        this.staleMs = staleMs;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    /**
+     * @param loader loads the value on a miss or refresh; an empty result is not cached
+     */
+    public Mono<V> get(K key, Supplier<Mono<V>> loader) {
+        Entry<V> entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        if (entry != null) {
+            long age = clock.getAsLong() - entry.loadedAt();
+            if (age < ttlMs) {
+                return Mono.just(entry.value());
+            }
+            if (age < ttlMs + staleMs) {
+                load(key, loader).subscribe(value -> {}, e -> log.debug("Background refresh of {} failed", key, e));
+                return Mono.just(entry.value());
+            }
+        }
+        return load(key, loader);
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, clock.getAsLong()));
+        Iterator<K> eldest = entries.keySet().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    public synchronized void invalidateIf(Predicate<K> predicate) {
+        generation++;
+        entries.keySet().removeIf(predicate);
+    }
+
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private Mono<V> load(K key, Supplier<Mono<V>> loader) {
+        return inFlight.computeIfAbsent(key, k -> {
+            long startedIn;
+            synchronized (this) {
+                startedIn = generation;
+            }
+            return Mono.defer(loader)
+                .doOnNext(value -> {
+                    synchronized (this) {
+                        if (generation == startedIn) {
+                            put(key, value);
+                        }
+                    }
+                })
+                .doFinally(signal -> inFlight.remove(key))
+                // Shares the one call between every caller waiting on it, without re-running it later
+                .cache();
+        });
+    }
+}
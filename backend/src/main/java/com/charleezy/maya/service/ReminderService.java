@@ -0,0 +1,23 @@
+package com.charleezy.maya.service;
+
+import java.time.Instant;
+
+public interface ReminderService {
+    /**
+     * Schedule a reminder. Reminders within the in-process horizon are delivered by the timer engine
+     * through the user's Nomi; anything further out is created as a Google Calendar reminder.
+     * @param userId the user the reminder belongs to
+     * @param nomiId the UUID of the Nomi that delivers the reminder
+     * @param summary the reminder text
+     * @param remindAt when the reminder should fire
+     * @return the timer ID, or the Google Calendar event ID for long-horizon reminders
+     */
+    String scheduleReminder(String userId, String nomiId, String summary, Instant remindAt);
+
+    /**
+     * Cancel a reminder that hasn't been delivered yet
+     * @param reminderId the id returned by {@link #scheduleReminder}
+     * @return false if it isn't the user's, or was already delivered or cancelled
+     */
+    boolean cancelReminder(String userId, String reminderId);
+}
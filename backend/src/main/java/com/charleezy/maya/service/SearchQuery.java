@@ -0,0 +1,41 @@
+package com.charleezy.maya.service;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Turns free text, as typed by a user or pulled out of a chat message, into a Postgres
+ * {@code to_tsquery} expression.
+ *
+ * Words are OR-ed and prefix-matched, so "when is my dentist thing" still finds "Dentist appointment":
+ * ranking rewards items matching more of the words, and stop words are dropped by the text search
+ * configuration. Everything except letters and digits is discarded, so user input can never form
+ * tsquery syntax.
+ */
+public final class SearchQuery {
+    private static final int MAX_TERMS = 8;
+
+    private SearchQuery() {
+    }
+
+    /**
+     * @return the tsquery expression, or null if the text has no searchable words
+     */
+    public static String toPrefixQuery(String text) {
+        if (text == null) {
+            return null;
+        }
+        Set<String> terms = new LinkedHashSet<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() >= 2 && terms.size() < MAX_TERMS) {
+                terms.add(word);
+            }
+        }
+        if (terms.isEmpty()) {
+            return null;
+        }
+        return terms.stream().map(term -> term + ":*").collect(Collectors.joining(" | "));
+    }
+}
@@ -0,0 +1,24 @@
+package com.charleezy.maya.service;
+
+import com.charleezy.maya.model.dto.SearchResult;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface SearchService {
+    int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Full-text search over a user's item titles, descriptions and event locations
+     * @param page zero-based page number
+     * @param size page size, capped at {@link #MAX_PAGE_SIZE}
+     * @return matches ordered by relevance, empty if the text has no searchable words
+     */
+    List<SearchResult> search(String userId, String text, int page, int size);
+
+    /**
+     * The item a phrase most likely refers to, e.g. "my dentist thing", for resolving references
+     * in chat messages
+     */
+    Optional<SearchResult> bestMatch(String userId, String text);
+}
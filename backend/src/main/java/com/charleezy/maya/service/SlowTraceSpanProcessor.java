@@ -0,0 +1,147 @@
+package com.charleezy.maya.service;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Tail sampling in front of the exporting processor. Ended spans are held back per trace until the
+ * trace's local root span ends; the whole trace is then passed on if the root took at least the slow
+ * threshold or failed, or for a small random share of the rest, and dropped otherwise. Samplers only
+ * see a span as it starts, before anyone can know it will be slow.
+ *
+ * Children that end after their root are dropped, as are traces whose root hasn't ended within
+ * {@code maxTraceAgeMs} or that don't fit in {@code maxBufferedTraces}.
+ */
+public class SlowTraceSpanProcessor implements SpanProcessor {
+    private static final int MAX_SPANS_PER_TRACE = 512;
+
+    private record PendingTrace(long firstSeenMs, List<ReadableSpan> spans) {}
+
+    private final SpanProcessor delegate;
+    private final long slowThresholdNanos;
+    private final double baselineRatio;
+    private final int maxBufferedTraces;
+    private final long maxTraceAgeMs;
+    private final LongSupplier clock;
+    // Insertion order, so the eldest entry is the trace that has waited longest
+    private final LinkedHashMap<String, PendingTrace> pending = new LinkedHashMap<>();
+
+    public SlowTraceSpanProcessor(SpanProcessor delegate, long slowThresholdMs, double baselineRatio,
+                                  int maxBufferedTraces, long maxTraceAgeMs, LongSupplier clock) {
+        this.delegate = delegate;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+        this.baselineRatio = baselineRatio;
+        this.maxBufferedTraces = maxBufferedTraces;
+        this.maxTraceAgeMs = maxTraceAgeMs;
+        this.clock = clock;
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return false;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        if (!span.getSpanContext().isSampled()) {
+            return;
+        }
+        String traceId = span.getSpanContext().getTraceId();
+        SpanContext parent = span.getParentSpanContext();
+        if (parent.isValid() && !parent.isRemote()) {
+            hold(traceId, span);
+            return;
+        }
+        PendingTrace trace;
+        synchronized (pending) {
+            trace = pending.remove(traceId);
+        }
+        if (!isKept(span)) {
+            return;
+        }
+        if (trace != null) {
+            trace.spans().forEach(delegate::onEnd);
+        }
+        delegate.onEnd(span);
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        synchronized (pending) {
+            pending.clear();
+        }
+        return delegate.shutdown();
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+        return delegate.forceFlush();
+    }
+
+    /**
+     * @return how many traces are waiting for their root span
+     */
+    public int pendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    private void hold(String traceId, ReadableSpan span) {
+        long now = clock.getAsLong();
+        synchronized (pending) {
+            PendingTrace trace = pending.get(traceId);
+            if (trace == null) {
+                evict(now);
+                trace = new PendingTrace(now, new ArrayList<>());
+                pending.put(traceId, trace);
+            }
+            if (trace.spans().size() < MAX_SPANS_PER_TRACE) {
+                trace.spans().add(span);
+            }
+        }
+    }
+
+    /**
+     * Drops traces that have waited too long, and the longest-waiting ones while there's no room
+     */
+    private void evict(long now) {
+        Iterator<Map.Entry<String, PendingTrace>> eldest = pending.entrySet().iterator();
+        while (eldest.hasNext()) {
+            PendingTrace trace = eldest.next().getValue();
+            if (pending.size() < maxBufferedTraces && now - trace.firstSeenMs() < maxTraceAgeMs) {
+                return;
+            }
+            eldest.remove();
+        }
+    }
+
+    private boolean isKept(ReadableSpan root) {
+        return root.getLatencyNanos() >= slowThresholdNanos
+            || root.toSpanData().getStatus().getStatusCode() == StatusCode.ERROR
+            || (baselineRatio > 0 && ThreadLocalRandom.current().nextDouble() < baselineRatio);
+    }
+}
@@ -0,0 +1,152 @@
+package com.charleezy.maya.service;
+
+import java.time.*;
+import java.util.*;
+
+/**
+ * Greedy planner that packs tasks into the free time between busy intervals.
+ *
+ * Tasks are placed one at a time at the earliest free slot inside working hours, ordered by the day
+ * they are due, then by priority (higher first), then shortest first. Ordering by due day rather than
+ * exact due time lets priority decide between tasks due the same day. Tasks that can only be placed
+ * after their due date are still placed but reported as late; tasks that don't fit before the end of
+ * the planning window are reported as unplaced.
+ */
+public class TaskPlanner {
+
+    public record PlannableTask(Long id, int minutes, LocalDateTime dueDate, int priority) {}
+
+    public record Placement(Long taskId, LocalDateTime start, LocalDateTime end, boolean late) {}
+
+    public record Plan(List<Placement> placements, List<Long> unplaced) {
+
+        public Optional<Placement> placementOf(Long taskId) {
+            return placements.stream().filter(p -> p.taskId().equals(taskId)).findFirst();
+        }
+    }
+
+    public static final Comparator<PlannableTask> PLACEMENT_ORDER = Comparator
+        .comparing((PlannableTask t) -> t.dueDate() == null ? LocalDate.MAX : t.dueDate().toLocalDate())
+        .thenComparing(PlannableTask::priority, Comparator.reverseOrder())
+        .thenComparingInt(PlannableTask::minutes)
+        .thenComparing(PlannableTask::id);
+
+    private final LocalTime workdayStart;
+    private final LocalTime workdayEnd;
+
+    public TaskPlanner(LocalTime workdayStart, LocalTime workdayEnd) {
+        if (!workdayEnd.isAfter(workdayStart)) {
+            throw new IllegalArgumentException("Workday end must be after its start");
+        }
+        this.workdayStart = workdayStart;
+        this.workdayEnd = workdayEnd;
+    }
+
+    /**
+     * Plans every task from scratch.
+     * @param busy intervals that tasks must not overlap, as {@code [start, end)} pairs
+     * @param from earliest time a task may start
+     * @param to end of the planning window
+     */
+    public Plan plan(List<PlannableTask> tasks, List<LocalDateTime[]> busy, LocalDateTime from, LocalDateTime to) {
+        IntervalTree<Long> occupied = toTree(busy);
+        List<Placement> placements = new ArrayList<>(tasks.size());
+        List<Long> unplaced = new ArrayList<>();
+        List<PlannableTask> ordered = new ArrayList<>(tasks);
+        ordered.sort(PLACEMENT_ORDER);
+        for (PlannableTask task : ordered) {
+            place(task, occupied, from, to).ifPresentOrElse(placements::add, () -> unplaced.add(task.id()));
+        }
+        return new Plan(placements, unplaced);
+    }
+
+    /**
+     * Re-places a single task against an existing plan, leaving every other placement where it is.
+     * Falls back to a full {@link #plan} when the task can no longer be placed on time.
+     * @param task the changed task, or null if it was removed and only needs dropping from the plan
+     * @param changedTaskId ID of the changed task
+     */
+    public Plan replan(Plan previous, List<PlannableTask> allTasks, Long changedTaskId, PlannableTask task,
+                       List<LocalDateTime[]> busy, LocalDateTime from, LocalDateTime to) {
+        List<Placement> kept = new ArrayList<>(previous.placements().size());
+        for (Placement placement : previous.placements()) {
+            if (!placement.taskId().equals(changedTaskId) && placement.end().isAfter(from)) {
+                kept.add(placement);
+            }
+        }
+        List<Long> unplaced = new ArrayList<>(previous.unplaced());
+        unplaced.remove(changedTaskId);
+        if (task == null) {
+            return new Plan(kept, unplaced);
+        }
+
+        List<LocalDateTime[]> blocked = new ArrayList<>(busy);
+        kept.forEach(p -> blocked.add(new LocalDateTime[] {p.start(), p.end()}));
+        Optional<Placement> placement = place(task, toTree(blocked), from, to);
+        if (placement.isEmpty() || placement.get().late()) {
+            return plan(allTasks, busy, from, to);
+        }
+        kept.add(placement.get());
+        kept.sort(Comparator.comparing(Placement::start));
+        return new Plan(kept, unplaced);
+    }
+
+    private Optional<Placement> place(PlannableTask task, IntervalTree<Long> occupied, LocalDateTime from, LocalDateTime to) {
+        long length = Duration.ofMinutes(task.minutes()).toSeconds();
+        long workdayLength = Duration.between(workdayStart, workdayEnd).toSeconds();
+        if (length <= 0 || length > workdayLength) {
+            return Optional.empty();
+        }
+        LocalDateTime candidate = alignToWorkday(from);
+        while (candidate.isBefore(to)) {
+            long start = occupied.nextGap(toSeconds(candidate), length);
+            LocalDateTime slotStart = fromSeconds(start);
+            LocalDateTime aligned = alignToWorkday(slotStart);
+            if (!aligned.equals(slotStart)) {
+                candidate = aligned;
+                continue;
+            }
+            LocalDateTime slotEnd = slotStart.plusSeconds(length);
+            if (slotEnd.toLocalTime().isAfter(workdayEnd) || !slotEnd.toLocalDate().equals(slotStart.toLocalDate())) {
+                candidate = slotStart.toLocalDate().plusDays(1).atTime(workdayStart);
+                continue;
+            }
+            if (slotEnd.isAfter(to)) {
+                return Optional.empty();
+            }
+            occupied.insert(start, start + length, task.id(), task.id());
+            boolean late = task.dueDate() != null && slotEnd.isAfter(task.dueDate());
+            return Optional.of(new Placement(task.id(), slotStart, slotEnd, late));
+        }
+        return Optional.empty();
+    }
+
+    private LocalDateTime alignToWorkday(LocalDateTime time) {
+        LocalTime timeOfDay = time.toLocalTime();
+        if (timeOfDay.isBefore(workdayStart)) {
+            return time.toLocalDate().atTime(workdayStart);
+        }
+        if (!timeOfDay.isBefore(workdayEnd)) {
+            return time.toLocalDate().plusDays(1).atTime(workdayStart);
+        }
+        return time;
+    }
+
+    private static IntervalTree<Long> toTree(List<LocalDateTime[]> intervals) {
+        IntervalTree<Long> tree = new IntervalTree<>();
+        long id = 0;
+        for (LocalDateTime[] interval : intervals) {
+            // Negative ids keep busy blocks distinct from placed task ids sharing a start time
+            tree.insert(toSeconds(interval[0]), toSeconds(interval[1]), --id, null);
+        }
+        return tree;
+    }
+
+    private static long toSeconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime fromSeconds(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,14 @@
+package com.charleezy.maya.service;
+
+import com.charleezy.maya.model.ItemStatus;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+
+public interface TaskStatusService {
+    /**
+     * Moves the tasks still in {@code expected} to {@code target} without blocking the caller
+     * @return ids of the tasks this call moved; tasks that had already moved on are left out
+     */
+    Flux<Long> transition(Collection<Long> taskIds, ItemStatus expected, ItemStatus target);
+}
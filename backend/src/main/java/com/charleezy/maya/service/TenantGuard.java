@@ -0,0 +1,136 @@
+package com.charleezy.maya.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-tenant admission for a shared upstream: a token bucket caps each tenant's request rate, and
+ * consecutive failures (bad key, upstream rejecting the tenant) open a per-tenant circuit for a
+ * cool-down, so one tenant's traffic or broken credentials can't crowd out everyone else's.
+ */
+public class TenantGuard {
+
+    public record Stats(long requests, long throttled, long failures, int consecutiveFailures, boolean open) {}
+
+    private final double tokensPerMs;
+    private final double burst;
+    private final int failureThreshold;
+    private final long cooldownMs;
+    private final LongSupplier clock;
+    private final Map<String, Tenant> tenants = new ConcurrentHashMap<>();
+
+    private final class Tenant {
+        double tokens = burst;
+        long refilledAt = clock.getAsLong();
+        long lastUsed = refilledAt;
+        long requests;
+        long throttled;
+        long failures;
+        int consecutiveFailures;
+        long openUntil;
+    }
+
+    public TenantGuard(double requestsPerSecond, int burst, int failureThreshold, long cooldownMs, LongSupplier clock) {
+        if (requestsPerSecond <= 0 || burst <= 0 || failureThreshold <= 0) {
+            throw new IllegalArgumentException("requestsPerSecond, burst and failureThreshold must be positive");
+        }
+        this.tokensPerMs = requestsPerSecond / 1000;
+        this.burst = burst;
+        this.failureThreshold = failureThreshold;
+        this.cooldownMs = cooldownMs;
+        this.clock = clock;
+    }
+
+    /**
+     * Takes a token for one request, possibly from the future.
+     * @param maxWaitMs how long the caller is willing to wait for the token
+     * @return milliseconds to wait before sending, or -1 if the tenant's circuit is open or it would
+     *         have to wait longer than {@code maxWaitMs}; nothing is taken in that case
+     */
+    public long reserve(String tenantId, long maxWaitMs) {
+        Tenant tenant = tenants.computeIfAbsent(tenantId, id -> new Tenant());
+        synchronized (tenant) {
+            long now = clock.getAsLong();
+            tenant.lastUsed = now;
+            if (now < tenant.openUntil) {
+                tenant.throttled++;
+                return -1;
+            }
+            tenant.tokens = Math.min(burst, tenant.tokens + (now - tenant.refilledAt) * tokensPerMs);
+            tenant.refilledAt = now;
+            long waitMs = tenant.tokens >= 1 ? 0 : (long) Math.ceil((1 - tenant.tokens) / tokensPerMs);
+            if (waitMs > maxWaitMs) {
+                tenant.throttled++;
+                return -1;
+            }
+            // Tokens may go negative: later callers then queue behind this one's wait
+            tenant.tokens--;
+            tenant.requests++;
+            return waitMs;
+        }
+    }
+
+    /**
+     * Gives back a token taken by {@link #reserve} for a request that is not going to be sent after all,
+     * e.g. because another limit turned it away
+     */
+    public void refund(String tenantId) {
+        Tenant tenant = tenants.get(tenantId);
+        if (tenant != null) {
+            synchronized (tenant) {
+                tenant.tokens = Math.min(burst, tenant.tokens + 1);
+                tenant.requests--;
+            }
+        }
+    }
+
+    public void recordSuccess(String tenantId) {
+        Tenant tenant = tenants.get(tenantId);
+        if (tenant != null) {
+            synchronized (tenant) {
+                tenant.consecutiveFailures = 0;
+            }
+        }
+    }
+
+    public void recordFailure(String tenantId) {
+        Tenant tenant = tenants.get(tenantId);
+        if (tenant != null) {
+            synchronized (tenant) {
+                tenant.failures++;
+                if (++tenant.consecutiveFailures >= failureThreshold) {
+                    tenant.openUntil = clock.getAsLong() + cooldownMs;
+                    tenant.consecutiveFailures = 0;
+                }
+            }
+        }
+    }
+
+    public Stats stats(String tenantId) {
+        Tenant tenant = tenants.get(tenantId);
+        if (tenant == null) {
+            return new Stats(0, 0, 0, 0, false);
+        }
+        synchronized (tenant) {
+            return new Stats(tenant.requests, tenant.throttled, tenant.failures, tenant.consecutiveFailures,
+                clock.getAsLong() < tenant.openUntil);
+        }
+    }
+
+    /**
+     * Forgets tenants idle for longer than {@code idleMs} whose bucket has refilled and circuit closed.
+     * @return the number of tenants forgotten
+     */
+    public int evictIdle(long idleMs) {
+        long now = clock.getAsLong();
+        int before = tenants.size();
+        tenants.values().removeIf(tenant -> {
+            synchronized (tenant) {
+                return now - tenant.lastUsed > idleMs && now >= tenant.openUntil
+                    && tenant.tokens + (now - tenant.refilledAt) * tokensPerMs >= burst;
+            }
+        });
+        return before - tenants.size();
+    }
+}
@@ -0,0 +1,43 @@
+package com.charleezy.maya.service;
+
+import java.time.Instant;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+public interface TimerService {
+
+    /**
+     * @param taskId the backing {@code Task} row for durable timers, or null for ephemeral ones
+     */
+    record ScheduledTimer(String id, Long taskId, String userId, String nomiId, String message, Instant fireAt) {}
+
+    /**
+     * Schedule an in-process timer. Scheduling a timer with an id that is already pending replaces it.
+     * @param timer the timer to schedule; timers whose fire time has passed fire immediately
+     */
+    void schedule(ScheduledTimer timer);
+
+    /**
+     * Run {@code handler} for fired timers whose id starts with {@code idPrefix}, instead of sending
+     * their message. Handlers run on the timer thread and must not block.
+     */
+    void onFired(String idPrefix, Consumer<ScheduledTimer> handler);
+
+    /**
+     * Cancel a pending timer
+     * @param timerId the ID of the timer
+     * @return true if the timer was pending and will no longer fire
+     */
+    boolean cancel(String timerId);
+
+    /**
+     * Cancel every pending timer matching the predicate, e.g. when handing a shard to another instance
+     * @return number of timers cancelled
+     */
+    int cancelIf(Predicate<ScheduledTimer> predicate);
+
+    /**
+     * @return number of timers waiting to fire
+     */
+    int pendingCount();
+}
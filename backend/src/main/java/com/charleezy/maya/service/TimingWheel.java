@@ -0,0 +1,306 @@
+package com.charleezy.maya.service;
+
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel for large numbers of in-process timers.
+ *
+ * Each level is a circular array of buckets; timers that don't fit in a level's span overflow
+ * into a coarser parent level and cascade down as the clock advances. Buckets are doubly-linked
+ * lists, so scheduling and cancelling are O(1). Only non-empty buckets are put on a
+ * {@link DelayQueue}, which lets the driving thread sleep until the next bucket is due instead
+ * of ticking through empty slots.
+ *
+ * @param <T> payload handed to the expiry handler when a timer fires
+ */
+public class TimingWheel<T> {
+
+    private final DelayQueue<Bucket<T>> delayQueue = new DelayQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Consumer<T> expiryHandler;
+    private final Level root;
+
+    /**
+     * @param tickMs resolution of the finest level in milliseconds
+     * @param wheelSize number of buckets per level
+     * @param expiryHandler invoked on the thread calling {@link #advanceClock(long)} for each due timer;
+     *                      it should hand the payload off rather than do slow work inline
+     */
+    public TimingWheel(long tickMs, int wheelSize, Consumer<T> expiryHandler) {
+        if (tickMs <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickMs and wheelSize must be positive");
+        }
+        this.expiryHandler = expiryHandler;
+        this.root = new Level(tickMs, wheelSize, nowMs());
+    }
+
+    /**
+     * Schedules a payload to fire after the given delay. Timers that are already due fire immediately.
+     * @return handle that can be used to cancel the timer
+     */
+    public Entry<T> schedule(T payload, long delayMs) {
+        Entry<T> entry = new Entry<>(payload, nowMs() + Math.max(delayMs, 0));
+        if (delayMs <= 0) {
+            entry.expired = true;
+            expiryHandler.accept(payload);
+            return entry;
+        }
+        lock.readLock().lock();
+        try {
+            addOrExpire(entry);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return entry;
+    }
+
+    /**
+     * Waits up to {@code timeoutMs} for the next bucket to become due and fires everything in it.
+     * Intended to be called in a loop by a single driver thread.
+     * @return true if a bucket was processed
+     */
+    public boolean advanceClock(long timeoutMs) throws InterruptedException {
+        Bucket<T> bucket = delayQueue.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        if (bucket == null) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            while (bucket != null) {
+                root.advanceClock(bucket.getExpiration());
+                bucket.flush(this::addOrExpire);
+                bucket = delayQueue.poll();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return true;
+    }
+
+    /**
+     * @return number of timers currently waiting in the wheel
+     */
+    public int size() {
+        return size.get();
+    }
+
+    private void addOrExpire(Entry<T> entry) {
+        if (!root.add(entry) && !entry.cancelled) {
+            entry.expired = true;
+            expiryHandler.accept(entry.payload);
+        }
+    }
+
+    private static long nowMs() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    /**
+     * A scheduled timer. Cancelling unlinks it from its bucket in constant time.
+     */
+    public static final class Entry<T> {
+        private final T payload;
+        private final long expirationMs;
+        private volatile Bucket<T> bucket;
+        private volatile boolean cancelled;
+        private volatile boolean expired;
+        private Entry<T> prev;
+        private Entry<T> next;
+
+        private Entry(T payload, long expirationMs) {
+            this.payload = payload;
+            this.expirationMs = expirationMs;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public boolean isExpired() {
+            return expired;
+        }
+
+        /**
+         * @return true if the timer was still pending and will no longer fire
+         */
+        public boolean cancel() {
+            cancelled = true;
+            return detach();
+        }
+
+        private boolean detach() {
+            boolean removed = false;
+            Bucket<T> current = bucket;
+            while (current != null) {
+                removed |= current.remove(this);
+                current = bucket;
+            }
+            return removed;
+        }
+    }
+
+    private static final class Bucket<T> implements Delayed {
+        private final Entry<T> sentinel = new Entry<>(null, -1L);
+        private final AtomicLong expiration = new AtomicLong(-1L);
+        private final AtomicInteger size;
+
+        Bucket(AtomicInteger size) {
+            this.size = size;
+            sentinel.next = sentinel;
+            sentinel.prev = sentinel;
+        }
+
+        /**
+         * @return true if the expiration changed, meaning the bucket must be (re)queued
+         */
+        boolean setExpiration(long expirationMs) {
+            return expiration.getAndSet(expirationMs) != expirationMs;
+        }
+
+        long getExpiration() {
+            return expiration.get();
+        }
+
+        void add(Entry<T> entry) {
+            boolean done = false;
+            while (!done) {
+                // An entry can only live in one bucket; detach it first if it is being re-inserted
+                entry.detach();
+                synchronized (this) {
+                    synchronized (entry) {
+                        if (entry.bucket == null) {
+                            Entry<T> tail = sentinel.prev;
+                            entry.next = sentinel;
+                            entry.prev = tail;
+                            tail.next = entry;
+                            sentinel.prev = entry;
+                            entry.bucket = this;
+                            size.incrementAndGet();
+                            done = true;
+                        }
+                    }
+                }
+            }
+        }
+
+        boolean remove(Entry<T> entry) {
+            synchronized (this) {
+                synchronized (entry) {
+                    if (entry.bucket == this) {
+                        entry.next.prev = entry.prev;
+                        entry.prev.next = entry.next;
+                        entry.next = null;
+                        entry.prev = null;
+                        entry.bucket = null;
+                        size.decrementAndGet();
+                        return true;
+                    }
+                    return false;
+                }
+            }
+        }
+
+        synchronized void flush(Consumer<Entry<T>> reinsert) {
+            Entry<T> head = sentinel.next;
+            while (head != sentinel) {
+                remove(head);
+                reinsert.accept(head);
+                head = sentinel.next;
+            }
+            expiration.set(-1L);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Math.max(getExpiration() - nowMs(), 0), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getExpiration(), ((Bucket<?>) other).getExpiration());
+        }
+    }
+
+    /**
+     * One ring of the hierarchy. Mutations of {@code currentTime} happen under the write lock,
+     * insertions under the read lock.
+     */
+    private final class Level {
+        private final long tickMs;
+        private final int wheelSize;
+        private final long interval;
+        private final Bucket<T>[] buckets;
+        private long currentTime;
+        private volatile Level overflow;
+
+        @SuppressWarnings("unchecked")
+        Level(long tickMs, int wheelSize, long startMs) {
+            this.tickMs = tickMs;
+            this.wheelSize = wheelSize;
+            this.interval = tickMs * wheelSize;
+            this.buckets = new Bucket[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new Bucket<>(size);
+            }
+            this.currentTime = startMs - (startMs % tickMs);
+        }
+
+        /**
+         * @return false if the entry is already due (or cancelled) and was not stored
+         */
+        boolean add(Entry<T> entry) {
+            long expirationMs = entry.expirationMs;
+            if (entry.cancelled) {
+                return false;
+            }
+            if (expirationMs < currentTime + tickMs) {
+                return false;
+            }
+            if (expirationMs < currentTime + interval) {
+                long virtualId = expirationMs / tickMs;
+                Bucket<T> bucket = buckets[(int) (virtualId % wheelSize)];
+                bucket.add(entry);
+                if (bucket.setExpiration(virtualId * tickMs)) {
+                    delayQueue.offer(bucket);
+                }
+                return true;
+            }
+            return overflow().add(entry);
+        }
+
+        void advanceClock(long timeMs) {
+            if (timeMs >= currentTime + tickMs) {
+                currentTime = timeMs - (timeMs % tickMs);
+                Level parent = overflow;
+                if (parent != null) {
+                    parent.advanceClock(currentTime);
+                }
+            }
+        }
+
+        private Level overflow() {
+            Level parent = overflow;
+            if (parent == null) {
+                synchronized (this) {
+                    parent = overflow;
+                    if (parent == null) {
+                        parent = new Level(interval, wheelSize, currentTime);
+                        overflow = parent;
+                    }
+                }
+            }
+            return parent;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.charleezy.maya.service;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Bloom filter that forgets: entries go into the current generation, lookups check the current and
+ * the previous one, and every {@code window} the previous generation is dropped. An entry is therefore
+ * remembered for at least one window and at most two, in the memory of two fixed-size filters no
+ * matter how many entries pass through.
+ */
+public class WindowedBloomFilter {
+    private final long expectedPerWindow;
+    private final double falsePositiveRate;
+    private final long windowMs;
+    private final LongSupplier clock;
+    private volatile Generations generations;
+
+    private record Generations(BloomFilter current, BloomFilter previous, long startedAt) {}
+
+    public WindowedBloomFilter(long expectedPerWindow, double falsePositiveRate, Duration window, LongSupplier clock) {
+        this.expectedPerWindow = expectedPerWindow;
+        this.falsePositiveRate = falsePositiveRate;
+        this.windowMs = window.toMillis();
+        this.clock = clock;
+        this.generations = new Generations(new BloomFilter(expectedPerWindow, falsePositiveRate),
+            new BloomFilter(expectedPerWindow, falsePositiveRate), clock.getAsLong());
+    }
+
+    public void add(String value) {
+        rotateIfDue().current().add(value);
+    }
+
+    /**
+     * @return false if the value was definitely not added within the last window
+     */
+    public boolean mightContain(String value) {
+        Generations g = rotateIfDue();
+        return g.current().mightContain(value) || g.previous().mightContain(value);
+    }
+
+    public long sizeInBytes() {
+        Generations g = generations;
+        return g.current().sizeInBytes() + g.previous().sizeInBytes();
+    }
+
+    private Generations rotateIfDue() {
+        Generations g = generations;
+        long now = clock.getAsLong();
+        if (now - g.startedAt() < windowMs) {
+            return g;
+        }
+        synchronized (this) {
+            g = generations;
+            if (now - g.startedAt() >= windowMs) {
+                // After a long idle spell both generations are too old to keep
+                BloomFilter previous = now - g.startedAt() < 2 * windowMs
+                    ? g.current() : new BloomFilter(expectedPerWindow, falsePositiveRate);
+                g = new Generations(new BloomFilter(expectedPerWindow, falsePositiveRate), previous, now);
+                generations = g;
+            }
+            return g;
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.charleezy.maya.service.impl;
+
+import com.charleezy.maya.config.AgendaConfig;
+import com.charleezy.maya.model.ArchivedCalendarItem;
+import com.charleezy.maya.model.CacheInvalidationEvent;
+import com.charleezy.maya.model.CalendarItem;
+import com.charleezy.maya.model.CalendarItemChangedEvent;
+import com.charleezy.maya.model.Event;
+import com.charleezy.maya.model.ItemType;
+import com.charleezy.maya.model.Task;
+import com.charleezy.maya.model.dto.AgendaItem;
+import com.charleezy.maya.model.dto.AgendaPage;
+import com.charleezy.maya.repository.ArchivedCalendarItemRepository;
+import com.charleezy.maya.repository.CalendarItemRepository;
+import com.charleezy.maya.repository.TaskRepository;
+import com.charleezy.maya.service.AgendaCache;
+import com.charleezy.maya.service.AgendaService;
+import com.charleezy.maya.service.RecurrenceService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads the agenda with keyset pagination on (startsAt, id), served by the
+ * (user_id, starts_at, id) index, so deep pages cost the same as the first one. A window is read in
+ * two sections in the same order: items already in progress at {@code from}, found through the
+ * (user_id, ends_at) index, then items starting in {@code [from, to)}. Neither index range reaches
+ * back into the user's past items, and a cursor before {@code from} is still in the first section.
+ *
+ * Each page is loaded and mapped in its own read-only transaction; event attendees are batch-loaded
+ * for the whole page (see {@link Event#getAttendees()}) while the entities are still managed.
+ *
+ * The upcoming window of each active user, recurrences expanded, is also kept in an {@link AgendaCache}
+ * that is dropped for a user on any change to one of their items.
+ */
+@Slf4j
+@Service
+public class AgendaServiceImpl implements AgendaService {
+    public static final String CACHE_NAME = "agenda";  // keyed by user id
+
+    private static final Comparator<AgendaItem> START_ORDER = Comparator
+        .comparing(AgendaItem::getStartsAt)
+        .thenComparing(AgendaItem::getId);
+
+    private final AgendaConfig agendaConfig;
+    private final CalendarItemRepository calendarItemRepository;
+    private final TaskRepository taskRepository;
+    private final ArchivedCalendarItemRepository archivedCalendarItemRepository;
+    private final RecurrenceService recurrenceService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final AgendaCache cache;
+
+    public AgendaServiceImpl(AgendaConfig agendaConfig,
+                             CalendarItemRepository calendarItemRepository,
+                             TaskRepository taskRepository,
+                             ArchivedCalendarItemRepository archivedCalendarItemRepository,
+                             RecurrenceService recurrenceService,
+                             PlatformTransactionManager transactionManager) {
+        this.agendaConfig = agendaConfig;
+        this.calendarItemRepository = calendarItemRepository;
+        this.taskRepository = taskRepository;
+        this.archivedCalendarItemRepository = archivedCalendarItemRepository;
+        this.recurrenceService = recurrenceService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.cache = new AgendaCache(agendaConfig.getCacheMaxMb() * 1024 * 1024);
+    }
+
+    private record Cursor(LocalDateTime startsAt, long id) {
+
+        // Before any item, so a window starts with the items in progress at its start
+        static final Cursor START = new Cursor(LocalDateTime.of(1970, 1, 1, 0, 0), 0);
+
+        // Ids start at 1, so this includes items starting exactly at from
+        static Cursor first(LocalDateTime from) {
+            return new Cursor(from, 0);
+        }
+
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((startsAt + "|" + id).getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                return new Cursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid agenda cursor: " + cursor, e);
+            }
+        }
+    }
+
+    @Override
+    public AgendaPage page(String userId, LocalDateTime from, LocalDateTime to, String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Cursor after = cursor == null || cursor.isBlank() ? Cursor.START : Cursor.decode(cursor);
+        return toPage(fetch(userId, from, to, after, size), size);
+    }
+
+    @Override
+    public void stream(String userId, LocalDateTime from, LocalDateTime to, Consumer<AgendaItem> sink) {
+        long started = System.currentTimeMillis();
+        long count = 0;
+        Cursor after = Cursor.START;
+        List<AgendaItem> items;
+        do {
+            items = fetch(userId, from, to, after, MAX_PAGE_SIZE);
+            items.forEach(sink);
+            count += items.size();
+            if (!items.isEmpty()) {
+                AgendaItem last = items.get(items.size() - 1);
+                after = new Cursor(last.getStartsAt(), last.getId());
+            }
+        } while (items.size() == MAX_PAGE_SIZE);
+        log.debug("Streamed {} agenda items for user {} in {} ms", count, userId, System.currentTimeMillis() - started);
+    }
+
+    @Override
+    public List<AgendaItem> upcoming(String userId, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime windowFrom = LocalDate.now().atStartOfDay();
+        LocalDateTime windowTo = windowFrom.plusDays(agendaConfig.getCacheWindowDays());
+        if (from.isBefore(windowFrom) || to.isAfter(windowTo)) {
+            return load(userId, from, to);
+        }
+        List<AgendaItem> cached = cache.get(userId, from, to);
+        if (cached != null) {
+            return cached;
+        }
+        long token = cache.beginLoad(userId);
+        List<AgendaItem> items = load(userId, windowFrom, windowTo);
+        cache.put(userId, token, windowFrom, windowTo, items);
+        return AgendaCache.overlapping(items, from, to);
+    }
+
+    @Override
+    public AgendaPage history(String userId, LocalDateTime from, LocalDateTime to, String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Cursor after = cursor == null || cursor.isBlank() ? Cursor.START : Cursor.decode(cursor);
+        // Both sources share one id sequence, so a page of each merged on (startsAt, id) holds the next page
+        List<AgendaItem> items = readOnlyTransaction.execute(status -> inSections(from, after, size,
+            (afterStart, afterId, n) -> merge(n,
+                calendarItemRepository.findOngoingHistory(userId, from, afterStart, afterId, Pageable.ofSize(n)).stream()
+                    .map(AgendaServiceImpl::toAgendaItem),
+                archivedCalendarItemRepository.findOngoingHistory(userId, from, afterStart, afterId, Pageable.ofSize(n)).stream()
+                    .map(AgendaServiceImpl::toAgendaItem)),
+            (afterStart, afterId, n) -> merge(n,
+                calendarItemRepository.findHistory(userId, from, to, afterStart, afterId, Pageable.ofSize(n)).stream()
+                    .map(AgendaServiceImpl::toAgendaItem),
+                archivedCalendarItemRepository.findHistory(userId, from, to, afterStart, afterId, Pageable.ofSize(n)).stream()
+                    .map(AgendaServiceImpl::toAgendaItem))));
+        return toPage(items, size);
+    }
+
+    @Override
+    public AgendaCache.Stats cacheStats() {
+        return cache.stats();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCalendarItemChanged(CalendarItemChangedEvent event) {
+        if (event.userId() != null) {
+            cache.invalidate(event.userId());
+        }
+    }
+
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        if (!event.appliesTo(CACHE_NAME)) {
+            return;
+        }
+        if (event.key() == null) {
+            cache.clear();
+        } else {
+            cache.invalidate(event.key());
+        }
+    }
+
+    /**
+     * Items overlapping {@code [from, to)}, recurrences expanded, in start order. Uses the same overlap
+     * rule as {@link AgendaCache#overlapping}, so a window answered from the cache and one read here agree.
+     */
+    private List<AgendaItem> load(String userId, LocalDateTime from, LocalDateTime to) {
+        return readOnlyTransaction.execute(status -> {
+            List<AgendaItem> items = new ArrayList<>();
+            Cursor first = Cursor.first(from);
+            Stream.concat(
+                    calendarItemRepository.findOngoing(userId, from, Cursor.START.startsAt(), Cursor.START.id(), Pageable.unpaged())
+                        .stream(),
+                    calendarItemRepository.findAgendaPage(userId, from, to, first.startsAt(), first.id(), Pageable.unpaged()).stream())
+                .filter(item -> !(item instanceof Task task && Boolean.TRUE.equals(task.getIsRecurring())))
+                .map(AgendaServiceImpl::toAgendaItem)
+                .forEach(items::add);
+            for (Task task : taskRepository.findRecurringTasks(userId, to)) {
+                AgendaItem series = toAgendaItem(task);
+                int minutes = task.getEstimatedMinutes() == null ? 0 : task.getEstimatedMinutes();
+                try {
+                    recurrenceService.occurrences(task, from.minusMinutes(minutes), to)
+                        .map(start -> series.toBuilder().startsAt(start).endsAt(start.plusMinutes(minutes)).build())
+                        .forEach(items::add);
+                } catch (IllegalArgumentException e) {
+                    log.warn("Skipping task {} with invalid recurrence pattern '{}'", task.getId(), task.getRecurrencePattern());
+                }
+            }
+            items.sort(START_ORDER);
+            // Occurrences were expanded from their length before from; drop those that ended by then
+            return AgendaCache.overlapping(items, from, to);
+        });
+    }
+
+    private List<AgendaItem> fetch(String userId, LocalDateTime from, LocalDateTime to, Cursor after, int size) {
+        return readOnlyTransaction.execute(status -> inSections(from, after, size,
+            (afterStart, afterId, n) -> calendarItemRepository
+                .findOngoing(userId, from, afterStart, afterId, Pageable.ofSize(n)).stream()
+                .map(AgendaServiceImpl::toAgendaItem)
+                .toList(),
+            (afterStart, afterId, n) -> calendarItemRepository
+                .findAgendaPage(userId, from, to, afterStart, afterId, Pageable.ofSize(n)).stream()
+                .map(AgendaServiceImpl::toAgendaItem)
+                .toList()));
+    }
+
+    @FunctionalInterface
+    private interface KeysetQuery {
+        List<AgendaItem> after(LocalDateTime afterStart, long afterId, int size);
+    }
+
+    /**
+     * Up to {@code size} items after {@code after}: the rest of the items in progress at {@code from}
+     * if the cursor is still among them, topped up with items starting at or after {@code from}
+     */
+    private static List<AgendaItem> inSections(LocalDateTime from, Cursor after, int size,
+                                               KeysetQuery ongoing, KeysetQuery starting) {
+        if (!after.startsAt().isBefore(from)) {
+            return starting.after(after.startsAt(), after.id(), size);
+        }
+        List<AgendaItem> items = new ArrayList<>(ongoing.after(after.startsAt(), after.id(), size));
+        if (items.size() < size) {
+            Cursor first = Cursor.first(from);
+            items.addAll(starting.after(first.startsAt(), first.id(), size - items.size()));
+        }
+        return items;
+    }
+
+    @SafeVarargs
+    private static List<AgendaItem> merge(int size, Stream<AgendaItem>... sources) {
+        return Stream.of(sources).flatMap(source -> source).sorted(START_ORDER).limit(size).toList();
+    }
+
+    private static AgendaPage toPage(List<AgendaItem> items, int size) {
+        String next = null;
+        if (items.size() == size) {
+            AgendaItem last = items.get(items.size() - 1);
+            next = new Cursor(last.getStartsAt(), last.getId()).encode();
+        }
+        return AgendaPage.builder().items(items).nextCursor(next).build();
+    }
+
+    private static AgendaItem toAgendaItem(CalendarItem item) {
+        AgendaItem.AgendaItemBuilder builder = AgendaItem.builder()
+            .id(item.getId())
+            .type(item.getType())
+            .title(item.getTitle())
+            .description(item.getDescription())
+            .status(item.getStatus())
+            .startsAt(item.getStartsAt())
+            .endsAt(item.getEndsAt())
+            .googleCalendarId(item.getGoogleCalendarId());
+        if (item instanceof Task task) {
+            builder.dueDate(task.getDueDate())
+                .priority(task.getPriority())
+                .recurrencePattern(task.getRecurrencePattern());
+        } else if (item instanceof Event event) {
+            builder.location(event.getLocation())
+                .isAllDay(event.getIsAllDay())
+                .meetingLink(event.getMeetingLink())
+                .attendees(new HashSet<>(event.getAttendees()));
+        }
+        return builder.build();
+    }
+
+    private static AgendaItem toAgendaItem(ArchivedCalendarItem item) {
+        Map<String, Object> details = item.getDetails();
+        AgendaItem.AgendaItemBuilder builder = AgendaItem.builder()
+            .id(item.getId())
+            .type(item.getType())
+            .title(item.getTitle())
+            .description(item.getDescription())
+            .status(item.getStatus())
+            .startsAt(item.getStartsAt())
+            .endsAt(item.getEndsAt())
+            .googleCalendarId(item.getGoogleCalendarId());
+        // Details are the subtype's columns as serialized by Postgres, so keys are column names
+        if (item.getType() == ItemType.TASK) {
+            builder.dueDate(details.get("due_date") instanceof String due ? LocalDateTime.parse(due) : null)
+                .priority(details.get("priority") instanceof Number priority ? priority.intValue() : null)
+                .recurrencePattern((String) details.get("recurrence_pattern"));
+        } else if (item.getType() == ItemType.EVENT) {
+            builder.location((String) details.get("location"))
+                .isAllDay((Boolean) details.get("is_all_day"))
+                .meetingLink((String) details.get("meeting_link"));
+            if (details.get("attendees") instanceof List<?> attendees) {
+                builder.attendees(attendees.stream().map(String::valueOf).collect(Collectors.toSet()));
+            }
+        }
+        return builder.build();
+    }
+}
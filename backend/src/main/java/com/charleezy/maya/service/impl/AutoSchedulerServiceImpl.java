@@ -0,0 +1,217 @@
+package com.charleezy.maya.service.impl;
+
+import com.charleezy.maya.config.SchedulerConfig;
+import com.charleezy.maya.config.TimerConfig;
+import com.charleezy.maya.model.CalendarItemChangedEvent;
+import com.charleezy.maya.model.ItemType;
+import com.charleezy.maya.model.Task;
+import com.charleezy.maya.repository.TaskRepository;
+import com.charleezy.maya.service.AutoSchedulerService;
+import com.charleezy.maya.service.AvailabilityService;
+import com.charleezy.maya.service.GoogleCalendarService;
+import com.charleezy.maya.service.TaskPlanner;
+import com.charleezy.maya.service.TimerService;
+import com.google.api.services.calendar.model.Event;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Packs a user's estimated tasks into free time on request and keeps the plan current afterwards: once
+ * a user has a plan, every change to one of their tasks re-places just that task. Moving a task moves
+ * its Calendar event and, for tasks a Nomi delivers, its in-process timer.
+ */
+@Slf4j
+@Service
+public class AutoSchedulerServiceImpl implements AutoSchedulerService {
+    private static final int MAX_CACHED_PLANS = 5_000;
+    // Set while this thread saves placements, so the resulting change events don't trigger another replan
+    private static final ThreadLocal<Boolean> WRITING_BACK = ThreadLocal.withInitial(() -> false);
+
+    private final SchedulerConfig schedulerConfig;
+    private final TimerConfig timerConfig;
+    private final TaskRepository taskRepository;
+    private final AvailabilityService availabilityService;
+    private final GoogleCalendarService googleCalendarService;
+    private final TimerService timerService;
+    private final TaskPlanner planner;
+    private final Map<String, TaskPlanner.Plan> lastPlans = Collections.synchronizedMap(
+        new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TaskPlanner.Plan> eldest) {
+                return size() > MAX_CACHED_PLANS;
+            }
+        });
+
+    public AutoSchedulerServiceImpl(SchedulerConfig schedulerConfig,
+                                    TimerConfig timerConfig,
+                                    TaskRepository taskRepository,
+                                    AvailabilityService availabilityService,
+                                    GoogleCalendarService googleCalendarService,
+                                    TimerService timerService) {
+        this.schedulerConfig = schedulerConfig;
+        this.timerConfig = timerConfig;
+        this.taskRepository = taskRepository;
+        this.availabilityService = availabilityService;
+        this.googleCalendarService = googleCalendarService;
+        this.timerService = timerService;
+        this.planner = new TaskPlanner(schedulerConfig.getWorkdayStart(), schedulerConfig.getWorkdayEnd());
+    }
+
+    @Override
+    public TaskPlanner.Plan scheduleUser(String userId) {
+        long started = System.currentTimeMillis();
+        LocalDateTime from = LocalDateTime.now();
+        LocalDateTime to = from.plusDays(schedulerConfig.getHorizonDays());
+        Map<Long, Task> tasks = schedulableTasks(userId);
+
+        TaskPlanner.Plan plan = planner.plan(toPlannable(tasks.values()), busyIntervals(userId, tasks.keySet(), from, to), from, to);
+        log.info("Planned {} tasks for user {} ({} unplaced) in {} ms",
+            plan.placements().size(), userId, plan.unplaced().size(), System.currentTimeMillis() - started);
+
+        writeBack(plan, tasks);
+        lastPlans.put(userId, plan);
+        return plan;
+    }
+
+    @Override
+    public TaskPlanner.Plan replanTask(String userId, Long taskId) {
+        TaskPlanner.Plan previous = lastPlans.get(userId);
+        if (previous == null) {
+            return scheduleUser(userId);
+        }
+        LocalDateTime from = LocalDateTime.now();
+        LocalDateTime to = from.plusDays(schedulerConfig.getHorizonDays());
+        Map<Long, Task> tasks = schedulableTasks(userId);
+        List<TaskPlanner.PlannableTask> plannable = toPlannable(tasks.values());
+        TaskPlanner.PlannableTask changed = plannable.stream()
+            .filter(t -> t.id().equals(taskId))
+            .findFirst()
+            .orElse(null);
+        if (changed == null && previous.placementOf(taskId).isEmpty() && !previous.unplaced().contains(taskId)) {
+            // Neither planned before nor schedulable now, e.g. a reminder
+            return previous;
+        }
+
+        TaskPlanner.Plan plan = planner.replan(previous, plannable, taskId, changed,
+            busyIntervals(userId, tasks.keySet(), from, to), from, to);
+        writeBack(plan, tasks);
+        lastPlans.put(userId, plan);
+        return plan;
+    }
+
+    /**
+     * Re-places a changed task for users who have a plan; users who never asked for one are left alone
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCalendarItemChanged(CalendarItemChangedEvent event) {
+        if (event.userId() == null || event.type() == ItemType.EVENT || WRITING_BACK.get()
+                || !lastPlans.containsKey(event.userId())) {
+            return;
+        }
+        if (event.itemId() == null) {
+            // Bulk change: the next replan starts over from the database
+            lastPlans.remove(event.userId());
+            return;
+        }
+        try {
+            replanTask(event.userId(), event.itemId());
+        } catch (RuntimeException e) {
+            log.warn("Failed to replan task {} for user {}", event.itemId(), event.userId(), e);
+        }
+    }
+
+    private Map<Long, Task> schedulableTasks(String userId) {
+        return taskRepository.findSchedulableTasks(userId).stream()
+            .collect(Collectors.toMap(Task::getId, Function.identity()));
+    }
+
+    private static List<TaskPlanner.PlannableTask> toPlannable(Collection<Task> tasks) {
+        return tasks.stream()
+            .map(t -> new TaskPlanner.PlannableTask(t.getId(), t.getEstimatedMinutes(), t.getDueDate(),
+                t.getPriority() == null ? 0 : t.getPriority()))
+            .toList();
+    }
+
+    private List<LocalDateTime[]> busyIntervals(String userId, Set<Long> movableTaskIds, LocalDateTime from, LocalDateTime to) {
+        // The availability index also holds the movable tasks at their current times; those don't block anything
+        return availabilityService.findOverlapping(userId, from, to).stream()
+            .filter(busy -> busy.type() != ItemType.TASK || !movableTaskIds.contains(busy.itemId()))
+            .map(busy -> new LocalDateTime[] {busy.start(), busy.end()})
+            .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private void writeBack(TaskPlanner.Plan plan, Map<Long, Task> tasks) {
+        boolean previous = WRITING_BACK.get();
+        WRITING_BACK.set(true);
+        try {
+            for (TaskPlanner.Placement placement : plan.placements()) {
+                Task task = tasks.get(placement.taskId());
+                if (task == null
+                        || (placement.start().equals(task.getScheduledTime()) && task.getGoogleCalendarId() != null)) {
+                    continue;
+                }
+                move(task, placement);
+            }
+        } finally {
+            WRITING_BACK.set(previous);
+        }
+    }
+
+    private void move(Task task, TaskPlanner.Placement placement) {
+        // Create the new event before deleting the old one, so a failure leaves the task where its event is;
+        // the next replan tries again
+        String previousEventId = task.getGoogleCalendarId();
+        try {
+            Event event = googleCalendarService.createEvent(task.getTitle(), task.getDescription(),
+                toIso(placement.start()), toIso(placement.end()));
+            task.setGoogleCalendarId(event.getId());
+        } catch (RuntimeException e) {
+            if (previousEventId != null) {
+                log.warn("Failed to create calendar event for task {}, leaving it at its current time", task.getId(), e);
+                return;
+            }
+            log.warn("Failed to create calendar event for task {}", task.getId(), e);
+        }
+        task.setScheduledTime(placement.start());
+        taskRepository.save(task);
+        rearmTimer(task);
+        if (previousEventId != null) {
+            try {
+                googleCalendarService.deleteEvent(previousEventId);
+            } catch (RuntimeException e) {
+                log.warn("Failed to delete previous calendar event for task {}", task.getId(), e);
+            }
+        }
+    }
+
+    /**
+     * Moves the in-process timer of a task a Nomi delivers; tasks beyond the horizon are armed by the
+     * shard owner's sweep once they come within it
+     */
+    private void rearmTimer(Task task) {
+        if (task.getNomiId() == null) {
+            return;
+        }
+        String timerId = String.valueOf(task.getId());
+        timerService.cancel(timerId);
+        Instant fireAt = task.getScheduledTime().atZone(ZoneId.systemDefault()).toInstant();
+        if (fireAt.isBefore(Instant.now().plus(Duration.ofHours(timerConfig.getInProcessHorizonHours())))) {
+            timerService.schedule(new TimerService.ScheduledTimer(timerId, task.getId(), task.getUserId(),
+                task.getNomiId(), task.getTitle(), fireAt));
+        }
+    }
+
+    private static String toIso(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+    }
+}
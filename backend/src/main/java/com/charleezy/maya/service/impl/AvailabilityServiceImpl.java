@@ -0,0 +1,225 @@
+package com.charleezy.maya.service.impl;
+
+import com.charleezy.maya.model.CacheInvalidationEvent;
+import com.charleezy.maya.model.CalendarItemChangedEvent;
+import com.charleezy.maya.model.Event;
+import com.charleezy.maya.model.ItemStatus;
+import com.charleezy.maya.model.ItemType;
+import com.charleezy.maya.model.Task;
+import com.charleezy.maya.repository.CalendarItemRepository;
+import com.charleezy.maya.repository.EventRepository;
+import com.charleezy.maya.repository.TaskRepository;
+import com.charleezy.maya.service.AvailabilityService;
+import com.charleezy.maya.service.IntervalTree;
+import com.charleezy.maya.service.RecurrenceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Keeps an {@link IntervalTree} of busy time per active user, covering a horizon around now.
+ *
+ * An index is built from the database on a user's first query, extended when a query reaches past
+ * its horizon, patched item by item from {@link CalendarItemChangedEvent}s and evicted when the user
+ * falls out of the LRU. Recurring tasks are expanded into one interval per occurrence in the horizon.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AvailabilityServiceImpl implements AvailabilityService {
+    public static final String CACHE_NAME = "availability";  // keyed by user id
+    private static final int MAX_ACTIVE_USERS = 5_000;
+    private static final Duration LOOK_BEHIND = Duration.ofDays(1);
+    private static final Duration LOOK_AHEAD = Duration.ofDays(90);
+    // One-off tasks are fetched from this far before the window so long-running ones still count
+    private static final Duration MAX_TASK_LENGTH = Duration.ofDays(1);
+
+    private final CalendarItemRepository calendarItemRepository;
+    private final EventRepository eventRepository;
+    private final TaskRepository taskRepository;
+    private final RecurrenceService recurrenceService;
+
+    private final Map<String, UserIndex> indexes = Collections.synchronizedMap(
+        new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, UserIndex> eldest) {
+                return size() > MAX_ACTIVE_USERS;
+            }
+        });
+
+    private static final class UserIndex {
+        final IntervalTree<BusyInterval> tree = new IntervalTree<>();
+        final Map<Long, List<Long>> startsByItem = new HashMap<>();
+        LocalDateTime loadedFrom;
+        LocalDateTime loadedTo;
+
+        boolean covers(LocalDateTime from, LocalDateTime to) {
+            return loadedFrom != null && !from.isBefore(loadedFrom) && !to.isAfter(loadedTo);
+        }
+
+        void add(BusyInterval interval) {
+            long start = toSeconds(interval.start());
+            tree.insert(start, toSeconds(interval.end()), interval.itemId(), interval);
+            startsByItem.computeIfAbsent(interval.itemId(), id -> new ArrayList<>(1)).add(start);
+        }
+
+        void removeItem(Long itemId) {
+            List<Long> starts = startsByItem.remove(itemId);
+            if (starts != null) {
+                starts.forEach(start -> tree.remove(start, itemId));
+            }
+        }
+
+        void clear() {
+            tree.clear();
+            startsByItem.clear();
+        }
+    }
+
+    @Override
+    public boolean isFree(String userId, LocalDateTime from, LocalDateTime to) {
+        UserIndex index = indexFor(userId, from, to);
+        synchronized (index) {
+            return !index.tree.overlapsAny(toSeconds(from), toSeconds(to));
+        }
+    }
+
+    @Override
+    public List<BusyInterval> findOverlapping(String userId, LocalDateTime from, LocalDateTime to) {
+        UserIndex index = indexFor(userId, from, to);
+        synchronized (index) {
+            return index.tree.overlapping(toSeconds(from), toSeconds(to));
+        }
+    }
+
+    @Override
+    public Optional<LocalDateTime> findNextFreeSlot(String userId, LocalDateTime after, Duration length) {
+        UserIndex index = indexFor(userId, after, after.plus(length));
+        synchronized (index) {
+            long start = index.tree.nextGap(toSeconds(after), length.toSeconds());
+            if (start + length.toSeconds() > toSeconds(index.loadedTo)) {
+                return Optional.empty();
+            }
+            return Optional.of(LocalDateTime.ofEpochSecond(start, 0, ZoneOffset.UTC));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)  // before listeners that query the index, such as the auto-scheduler
+    public void onCalendarItemChanged(CalendarItemChangedEvent event) {
+        UserIndex index = event.userId() != null ? indexes.get(event.userId()) : null;
+        if (index == null) {
+            return;
+        }
+        if (event.itemId() == null) {
+            // Bulk change: rebuilding on the next query is cheaper than patching item by item
+            indexes.remove(event.userId());
+            return;
+        }
+        synchronized (index) {
+            if (index.loadedFrom == null) {
+                return;
+            }
+            index.removeItem(event.itemId());
+            if (event.change() == CalendarItemChangedEvent.ChangeType.DELETED) {
+                return;
+            }
+            if (event.type() == ItemType.EVENT) {
+                eventRepository.findById(event.itemId()).ifPresent(e -> addEvent(index, e));
+            } else {
+                taskRepository.findById(event.itemId()).ifPresent(t -> addTask(index, t));
+            }
+        }
+    }
+
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        if (!event.appliesTo(CACHE_NAME)) {
+            return;
+        }
+        if (event.key() == null) {
+            indexes.clear();
+        } else {
+            indexes.remove(event.key());
+        }
+    }
+
+    private UserIndex indexFor(String userId, LocalDateTime from, LocalDateTime to) {
+        UserIndex index = indexes.get(userId);
+        if (index == null) {
+            UserIndex created = new UserIndex();
+            index = indexes.putIfAbsent(userId, created);
+            if (index == null) {
+                index = created;
+            }
+        }
+        synchronized (index) {
+            if (!index.covers(from, to)) {
+                LocalDateTime now = LocalDateTime.now();
+                LocalDateTime loadFrom = min(from, now.minus(LOOK_BEHIND));
+                LocalDateTime loadTo = max(to, now.plus(LOOK_AHEAD));
+                if (index.loadedFrom != null) {
+                    loadFrom = min(loadFrom, index.loadedFrom);
+                    loadTo = max(loadTo, index.loadedTo);
+                }
+                load(userId, index, loadFrom, loadTo);
+            }
+        }
+        return index;
+    }
+
+    private void load(String userId, UserIndex index, LocalDateTime from, LocalDateTime to) {
+        long started = System.currentTimeMillis();
+        index.clear();
+        index.loadedFrom = from;
+        index.loadedTo = to;
+        calendarItemRepository.findBusyEventIntervals(userId, from, to).forEach(index::add);
+        taskRepository.findTimeBlockingTasks(userId, from.minus(MAX_TASK_LENGTH), to)
+            .forEach(task -> addTask(index, task));
+        log.debug("Built availability index for user {} with {} intervals in {} ms",
+            userId, index.tree.size(), System.currentTimeMillis() - started);
+    }
+
+    private void addEvent(UserIndex index, Event event) {
+        if (event.getStatus() == ItemStatus.CANCELLED
+                || !event.getEndTime().isAfter(index.loadedFrom) || !event.getStartTime().isBefore(index.loadedTo)) {
+            return;
+        }
+        index.add(new BusyInterval(event.getId(), ItemType.EVENT, event.getStartTime(), event.getEndTime()));
+    }
+
+    private void addTask(UserIndex index, Task task) {
+        if (task.getEstimatedMinutes() == null || task.getScheduledTime() == null
+                || (task.getStatus() != ItemStatus.PENDING && task.getStatus() != ItemStatus.IN_PROGRESS)) {
+            return;
+        }
+        Duration length = Duration.ofMinutes(task.getEstimatedMinutes());
+        try {
+            recurrenceService.occurrences(task, index.loadedFrom.minus(length), index.loadedTo)
+                .forEach(start -> index.add(new BusyInterval(task.getId(), ItemType.TASK, start, start.plus(length))));
+        } catch (IllegalArgumentException e) {
+            log.warn("Skipping task {} with invalid recurrence pattern '{}'", task.getId(), task.getRecurrencePattern());
+        }
+    }
+
+    private static long toSeconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
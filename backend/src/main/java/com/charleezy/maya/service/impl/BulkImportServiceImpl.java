@@ -0,0 +1,248 @@
+package com.charleezy.maya.service.impl;
+
+import com.charleezy.maya.model.CalendarItem;
+import com.charleezy.maya.model.CalendarItemChangedEvent;
+import com.charleezy.maya.model.CalendarItemListener;
+import com.charleezy.maya.model.Event;
+import com.charleezy.maya.model.ItemStatus;
+import com.charleezy.maya.model.ItemType;
+import com.charleezy.maya.model.Task;
+import com.charleezy.maya.model.dto.ImportItem;
+import com.charleezy.maya.model.dto.ImportProgress;
+import com.charleezy.maya.service.BulkImportService;
+import com.charleezy.maya.service.ImportReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streams an upload into the database in chunks of {@code CHUNKS_PER_COMMIT} JDBC batches.
+ *
+ * Each chunk is one transaction: entities are persisted, flushed as a JDBC batch and cleared from
+ * the persistence context every {@code batchSize} rows, so memory stays flat however large the
+ * upload is. Per-item change events are suppressed during the import and replaced by a single
+ * user-level event at the end.
+ *
+ * A chunk the database rejects is split in half and each half retried, down to single rows, so one
+ * bad row costs a few extra transactions and only its own line is reported as failed.
+ */
+@Slf4j
+@Service
+public class BulkImportServiceImpl implements BulkImportService {
+    private static final int CHUNKS_PER_COMMIT = 10;
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    private record Staged(long line, ImportItem item, CalendarItem entity) {}
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public BulkImportServiceImpl(PlatformTransactionManager transactionManager,
+                                 ApplicationEventPublisher eventPublisher,
+                                 ObjectMapper objectMapper,
+                                 @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}") int batchSize) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public ImportProgress importItems(String userId, InputStream in, ImportReader.Format format,
+                                      Consumer<ImportProgress> progress) throws IOException {
+        long started = System.currentTimeMillis();
+        Totals totals = new Totals();
+        List<Staged> chunk = new ArrayList<>(batchSize * CHUNKS_PER_COMMIT);
+
+        try (ImportReader reader = new ImportReader(in, format, objectMapper)) {
+            ImportReader.Row row;
+            while ((row = reader.next()) != null) {
+                totals.processed++;
+                if (row.error() != null) {
+                    totals.fail(row.line(), row.error());
+                    continue;
+                }
+                try {
+                    chunk.add(new Staged(row.line(), row.item(), toEntity(userId, row.item())));
+                } catch (IllegalArgumentException e) {
+                    totals.fail(row.line(), e.getMessage());
+                    continue;
+                }
+                if (chunk.size() == batchSize * CHUNKS_PER_COMMIT) {
+                    commit(userId, chunk, totals);
+                    chunk.clear();
+                    progress.accept(totals.snapshot(false, started));
+                }
+            }
+            if (!chunk.isEmpty()) {
+                commit(userId, chunk, totals);
+            }
+        } finally {
+            if (totals.imported > 0) {
+                eventPublisher.publishEvent(new CalendarItemChangedEvent(null, userId, null, CalendarItemChangedEvent.ChangeType.CREATED));
+            }
+        }
+
+        ImportProgress result = totals.snapshot(true, started);
+        log.info("Imported {} of {} items for user {} in {} ms ({} failed)",
+            result.getImported(), result.getProcessed(), userId, result.getElapsedMs(), result.getFailed());
+        progress.accept(result);
+        return result;
+    }
+
+    private void commit(String userId, List<Staged> staged, Totals totals) {
+        try {
+            CalendarItemListener.runSuppressed(() -> transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < staged.size(); i++) {
+                    entityManager.persist(staged.get(i).entity());
+                    if ((i + 1) % batchSize == 0) {
+                        entityManager.flush();
+                        entityManager.clear();
+                    }
+                }
+            }));
+            totals.imported += staged.size();
+        } catch (DataAccessException | PersistenceException e) {
+            if (staged.size() == 1) {
+                log.debug("Bulk import line {} failed", staged.get(0).line(), e);
+                totals.fail(staged.get(0).line(), rootMessage(e));
+                return;
+            }
+            log.info("Bulk import of lines {}-{} failed, retrying in halves: {}",
+                staged.get(0).line(), staged.get(staged.size() - 1).line(), rootMessage(e));
+            // The rolled-back entities already hold generated ids, so each retry persists fresh ones
+            List<Staged> fresh = staged.stream()
+                .map(s -> new Staged(s.line(), s.item(), toEntity(userId, s.item())))
+                .toList();
+            int half = fresh.size() / 2;
+            commit(userId, fresh.subList(0, half), totals);
+            commit(userId, fresh.subList(half, fresh.size()), totals);
+        }
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage() != null ? root.getMessage() : e.getMessage();
+    }
+
+    private static CalendarItem toEntity(String userId, ImportItem item) {
+        if (item.getTitle() == null || item.getTitle().isBlank()) {
+            throw new IllegalArgumentException("title is required");
+        }
+        ItemType type = item.getType();
+        if (type == null) {
+            type = item.getStartTime() != null && item.getEndTime() != null && item.getScheduledTime() == null
+                ? ItemType.EVENT : ItemType.TASK;
+        }
+        CalendarItem entity = type == ItemType.EVENT ? toEvent(item) : toTask(item);
+        entity.setTitle(item.getTitle());
+        entity.setDescription(item.getDescription());
+        entity.setUserId(userId);
+        entity.setGoogleCalendarId(item.getGoogleCalendarId());
+        entity.setStatus(item.getStatus() != null ? item.getStatus() : ItemStatus.PENDING);
+        entity.setCompletedAt(item.getCompletedAt());
+        return entity;
+    }
+
+    private static Task toTask(ImportItem item) {
+        LocalDateTime scheduledTime = firstNonNull(item.getScheduledTime(), item.getStartTime(), item.getDueDate());
+        if (scheduledTime == null) {
+            throw new IllegalArgumentException("a task needs scheduledTime, startTime or dueDate");
+        }
+        Task task = new Task();
+        task.setScheduledTime(scheduledTime);
+        task.setDueDate(item.getDueDate() != null ? item.getDueDate() : scheduledTime);
+        task.setEstimatedMinutes(item.getEstimatedMinutes());
+        if (task.getEstimatedMinutes() == null && item.getEndTime() != null && item.getEndTime().isAfter(scheduledTime)) {
+            task.setEstimatedMinutes((int) Duration.between(scheduledTime, item.getEndTime()).toMinutes());
+        }
+        if (item.getPriority() != null) {
+            task.setPriority(item.getPriority());
+        }
+        if (item.getRecurrencePattern() != null && !item.getRecurrencePattern().isBlank()) {
+            task.setIsRecurring(true);
+            task.setRecurrencePattern(item.getRecurrencePattern());
+        }
+        return task;
+    }
+
+    private static Event toEvent(ImportItem item) {
+        if (item.getStartTime() == null || item.getEndTime() == null) {
+            throw new IllegalArgumentException("an event needs startTime and endTime");
+        }
+        if (item.getEndTime().isBefore(item.getStartTime())) {
+            throw new IllegalArgumentException("endTime is before startTime");
+        }
+        Event event = new Event();
+        event.setStartTime(item.getStartTime());
+        event.setEndTime(item.getEndTime());
+        event.setLocation(item.getLocation());
+        if (item.getIsAllDay() != null) {
+            event.setIsAllDay(item.getIsAllDay());
+        }
+        return event;
+    }
+
+    @SafeVarargs
+    private static <T> T firstNonNull(T... values) {
+        for (T value : values) {
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static final class Totals {
+        long processed;
+        long imported;
+        long failed;
+        final List<String> errors = new ArrayList<>();
+
+        void fail(long line, String message) {
+            failed++;
+            error("line " + line + ": " + message);
+        }
+
+        void error(String message) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(message);
+            }
+        }
+
+        ImportProgress snapshot(boolean done, long started) {
+            return ImportProgress.builder()
+                .processed(processed)
+                .imported(imported)
+                .failed(failed)
+                .done(done)
+                .elapsedMs(System.currentTimeMillis() - started)
+                .errors(List.copyOf(errors))
+                .build();
+        }
+    }
+}
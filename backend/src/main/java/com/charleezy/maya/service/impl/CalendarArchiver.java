@@ -0,0 +1,59 @@
+package com.charleezy.maya.service.impl;
+
+import com.charleezy.maya.config.ArchivalConfig;
+import com.charleezy.maya.model.CacheInvalidationEvent;
+import com.charleezy.maya.repository.ArchivedCalendarItemRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Moves completed and cancelled items out of the hot {@code calendar_items} tables into
+ * {@code calendar_items_archive}, keeping the hot indexes small and cheap to vacuum.
+ *
+ * Each batch is its own short transaction followed by a pause, so a large backlog is worked off
+ * over several runs instead of in one long, lock-holding, WAL-heavy statement. After each batch the
+ * agenda and availability caches of the users whose items moved are dropped, on every instance.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "archival.enabled", havingValue = "true", matchIfMissing = true)
+public class CalendarArchiver {
+    private final ArchivalConfig archivalConfig;
+    private final ArchivedCalendarItemRepository archivedCalendarItemRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Scheduled(cron = "${archival.cron:0 30 3 * * *}")
+    public void archive() {
+        long started = System.currentTimeMillis();
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(archivalConfig.getRetentionDays());
+        long total = 0;
+        for (int batch = 0; batch < archivalConfig.getMaxBatchesPerRun(); batch++) {
+            List<String> movedUserIds = archivedCalendarItemRepository.archiveBatch(cutoff, archivalConfig.getBatchSize(),
+                LocalDateTime.now());
+            total += movedUserIds.size();
+            for (String userId : new LinkedHashSet<>(movedUserIds)) {
+                eventPublisher.publishEvent(new CacheInvalidationEvent(AgendaServiceImpl.CACHE_NAME, userId));
+                eventPublisher.publishEvent(new CacheInvalidationEvent(AvailabilityServiceImpl.CACHE_NAME, userId));
+            }
+            if (movedUserIds.size() < archivalConfig.getBatchSize()) {
+                break;
+            }
+            try {
+                Thread.sleep(archivalConfig.getPauseMs());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        log.info("Archived {} calendar items older than {} in {} ms", total, cutoff, System.currentTimeMillis() - started);
+    }
+}
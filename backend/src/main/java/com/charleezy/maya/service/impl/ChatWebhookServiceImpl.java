@@ -0,0 +1,408 @@
+package com.charleezy.maya.service.impl;
+
+import com.charleezy.maya.config.WebhookConfig;
+import com.charleezy.maya.model.CalendarItem;
+import com.charleezy.maya.model.ItemStatus;
+import com.charleezy.maya.model.TurnKind;
+import com.charleezy.maya.model.dto.InboundChatMessage;
+import com.charleezy.maya.model.dto.NomiMessage;
+import com.charleezy.maya.model.dto.SearchResult;
+import com.charleezy.maya.repository.CalendarItemRepository;
+import com.charleezy.maya.service.AbstractNLPService;
+import com.charleezy.maya.service.AvailabilityService;
+import com.charleezy.maya.service.CallMetrics;
+import com.charleezy.maya.service.ChatCommand;
+import com.charleezy.maya.service.ChatWebhookService;
+import com.charleezy.maya.service.ConversationBuffer;
+import com.charleezy.maya.service.ConversationService;
+import com.charleezy.maya.service.KeyedSerialExecutor;
+import com.charleezy.maya.service.LookupQuery;
+import com.charleezy.maya.service.MessageDedupService;
+import com.charleezy.maya.service.MoveRequest;
+import com.charleezy.maya.service.NomiService;
+import com.charleezy.maya.service.PomodoroCommand;
+import com.charleezy.maya.service.PomodoroService;
+import com.charleezy.maya.service.ReminderService;
+import com.charleezy.maya.service.SearchService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Takes chat messages off the request thread: {@link #accept} only validates and queues, and a fixed
+ * worker pool runs NLP, schedules the reminder (or controls the user's Pomodoro session) and replies
+ * through the user's Nomi. Each user's messages run in order on a {@link KeyedSerialExecutor}, which
+ * also bounds how much work can pile up.
+ *
+ * Messages and replies are recorded with {@link ConversationService}, so a time on its own ("no, in
+ * 30 minutes") or a {@link MoveRequest} ("move that to 5pm") moves the reminder set last in the
+ * conversation, and replies go out with the conversation's recent turns (see {@link NomiService}).
+ *
+ * Questions about something already on the calendar ("when is my dentist thing?") are answered with
+ * the item {@link SearchService#bestMatch} finds for the phrase.
+ *
+ * Before a reminder is scheduled its time is checked with {@link AvailabilityService}; if the user is
+ * busy then, the reminder is still set and the reply names what it clashes with and when they are next free.
+ *
+ * Platforms redeliver messages they think went unacknowledged. Retries are turned away before queueing
+ * when {@link MessageDedupService} already knows the id, and a worker claims each id before acting on
+ * it, so a retry that slips into the queue alongside the original still runs only once.
+ *
+ * Each message is traced on its own, from when it was received: {@code chat.ingest} (queueing, the
+ * claim and recording it), {@code chat.classify} (NLP, with the remote parse beneath),
+ * {@code chat.assemble} (building the command), {@code chat.availability} (the conflict check),
+ * {@code chat.persist} (the reminder, with any Calendar
+ * write beneath) and {@code chat.reply} (the Nomi call), or {@code chat.pomodoro} for Pomodoro commands
+ * and {@code chat.lookup} for questions.
+ * Stages other than ingest are also timed as {@code maya.calls} with component {@code chat}.
+ */
+@Slf4j
+@Service
+public class ChatWebhookServiceImpl implements ChatWebhookService {
+    private static final String SIGNATURE_PREFIX = "sha256=";
+    private static final DateTimeFormatter REPLY_TIME = DateTimeFormatter.ofPattern("EEE HH:mm");
+    private static final DateTimeFormatter CONFLICT_TIME = DateTimeFormatter.ofPattern("HH:mm");
+    // A reminder takes no time itself; it clashes with whatever is on the calendar the minute it fires
+    private static final Duration REMINDER_SLOT = Duration.ofMinutes(1);
+    private static final int MAX_CONFLICTS_NAMED = 3;
+
+    /**
+     * @param moving the turn that scheduled the reminder this command moves, if it only gives a time
+     */
+    private record Assembly(ChatCommand request, Optional<ConversationBuffer.Turn> moving) {}
+
+    private final WebhookConfig webhookConfig;
+    private final AbstractNLPService nlpService;
+    private final ReminderService reminderService;
+    private final NomiService nomiService;
+    private final MessageDedupService messageDedupService;
+    private final PomodoroService pomodoroService;
+    private final ConversationService conversationService;
+    private final AvailabilityService availabilityService;
+    private final CalendarItemRepository calendarItemRepository;
+    private final SearchService searchService;
+    private final Tracer tracer;
+    private final CallMetrics stages;
+    private final ExecutorService workers;
+    private final KeyedSerialExecutor executor;
+
+    public ChatWebhookServiceImpl(WebhookConfig webhookConfig, AbstractNLPService nlpService,
+                                  ReminderService reminderService, NomiService nomiService,
+                                  MessageDedupService messageDedupService, PomodoroService pomodoroService,
+                                  ConversationService conversationService, AvailabilityService availabilityService,
+                                  CalendarItemRepository calendarItemRepository, SearchService searchService,
+                                  MeterRegistry meterRegistry, Tracer tracer) {
+        if (isBlank(webhookConfig.getSecret())) {
+            if (!webhookConfig.isAllowUnsigned()) {
+                throw new IllegalStateException(
+                    "webhook.secret must be set; set webhook.allow-unsigned=true to accept unsigned messages locally");
+            }
+            log.warn("webhook.secret is not set and webhook.allow-unsigned is on; every message is accepted unsigned");
+        }
+        this.webhookConfig = webhookConfig;
+        this.nlpService = nlpService;
+        this.reminderService = reminderService;
+        this.nomiService = nomiService;
+        this.messageDedupService = messageDedupService;
+        this.pomodoroService = pomodoroService;
+        this.conversationService = conversationService;
+        this.availabilityService = availabilityService;
+        this.calendarItemRepository = calendarItemRepository;
+        this.searchService = searchService;
+        this.tracer = tracer;
+        this.stages = new CallMetrics(meterRegistry, tracer, "chat");
+        AtomicInteger threadCount = new AtomicInteger();
+        // Unbounded, but never holds more than one entry per active user; admission is bounded upstream
+        this.workers = new ThreadPoolExecutor(webhookConfig.getWorkerThreads(), webhookConfig.getWorkerThreads(),
+            0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+                Thread t = new Thread(r, "maya-webhook-worker-" + threadCount.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        this.executor = new KeyedSerialExecutor(workers, webhookConfig.getQueueCapacity(),
+            webhookConfig.getPerUserCapacity());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Shut down with {} chat messages still queued", executor.size());
+        }
+    }
+
+    @Override
+    public boolean isAuthentic(byte[] body, String signature) {
+        String secret = webhookConfig.getSecret();
+        if (isBlank(secret)) {
+            return webhookConfig.isAllowUnsigned();
+        }
+        if (signature == null || !signature.startsWith(SIGNATURE_PREFIX)) {
+            return false;
+        }
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            byte[] expected = mac.doFinal(body);
+            byte[] actual = HexFormat.of().parseHex(signature.substring(SIGNATURE_PREFIX.length()));
+            return MessageDigest.isEqual(expected, actual);
+        } catch (IllegalArgumentException e) {
+            return false;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is unavailable", e);
+        }
+    }
+
+    @Override
+    public Admission accept(InboundChatMessage message) {
+        if (isBlank(message.getUserId()) || isBlank(message.getNomiId()) || isBlank(message.getText())) {
+            throw new IllegalArgumentException("userId, nomiId and text are required");
+        }
+        if (message.getText().length() > webhookConfig.getMaxTextLength()) {
+            throw new IllegalArgumentException("text is longer than " + webhookConfig.getMaxTextLength() + " characters");
+        }
+        if (message.getMessageId() != null && messageDedupService.isDuplicate(message.getMessageId())) {
+            log.info("Ignoring redelivered message {} from user {}", message.getMessageId(), message.getUserId());
+            return Admission.DUPLICATE;
+        }
+        Instant receivedAt = Instant.now();
+        if (!executor.submit(message.getUserId(), () -> handle(message, receivedAt))) {
+            log.warn("Chat queue full ({} queued), rejecting message {} from user {}",
+                executor.size(), message.getMessageId(), message.getUserId());
+            return Admission.QUEUE_FULL;
+        }
+        return Admission.ACCEPTED;
+    }
+
+    private void handle(InboundChatMessage message, Instant receivedAt) {
+        // The webhook request has long been answered, so the message starts a trace of its own
+        Span trace = tracer.spanBuilder().setNoParent().name("chat.message")
+            .startTimestamp(micros(receivedAt), TimeUnit.MICROSECONDS)
+            .start();
+        try (Tracer.SpanInScope scope = tracer.withSpan(trace)) {
+            process(message, receivedAt, trace);
+        } catch (RuntimeException e) {
+            trace.error(e);
+            throw e;
+        } finally {
+            trace.end();
+        }
+    }
+
+    private void process(InboundChatMessage message, Instant receivedAt, Span trace) {
+        if (!ingest(message, receivedAt, trace)) {
+            return;
+        }
+        Optional<PomodoroCommand> pomodoro = PomodoroCommand.parse(message.getText());
+        if (pomodoro.isPresent()) {
+            reply(message, stages.record("pomodoro", () -> handlePomodoro(message, pomodoro.get())));
+            return;
+        }
+        Optional<String> lookup = LookupQuery.parse(message.getText());
+        if (lookup.isPresent()) {
+            reply(message, stages.record("lookup", () -> handleLookup(message, lookup.get())));
+            return;
+        }
+        // Relative times count from when the user sent it, not from when the queue got to it
+        Instant sentAt = message.getSentAt() != null ? message.getSentAt() : receivedAt;
+        Optional<MoveRequest> move = MoveRequest.parse(message.getText());
+        Optional<Assembly> assembly;
+        if (move.isPresent()) {
+            assembly = stages.record("assemble", () -> assembleMove(message, move.get(), sentAt));
+            if (assembly.isEmpty()) {
+                reply(message, "Sorry, I'm not sure what you'd like me to move. "
+                    + "Try something like \"remind me to stretch in 20 minutes\".");
+                return;
+            }
+        } else {
+            List<AbstractNLPService.EntityInfo> entities = stages.record("classify", () -> nlpService.analyzeText(message.getText()));
+            assembly = stages.record("assemble", () -> assemble(message, entities));
+            if (assembly.isEmpty()) {
+                log.debug("Message {} from user {} is not a command", message.getMessageId(), message.getUserId());
+                return;
+            }
+        }
+        ChatCommand request = assembly.get().request();
+        Optional<ConversationBuffer.Turn> moving = assembly.get().moving();
+        if (!request.isComplete()) {
+            reply(message, "Sorry, I couldn't tell what to remind you about and when. "
+                + "Try something like \"remind me to stretch in 20 minutes\".");
+            return;
+        }
+        Instant remindAt = sentAt.plus(request.delay());
+        String conflicts = stages.record("availability", () -> describeConflicts(message.getUserId(), remindAt));
+        boolean scheduled = stages.record("persist", () -> {
+            // Only move a reminder that is still pending; otherwise the user would get both
+            if (moving.isPresent() && !reminderService.cancelReminder(message.getUserId(), moving.get().itemRef())) {
+                log.info("Reminder {} for user {} could not be cancelled, not moving it", moving.get().itemRef(), message.getUserId());
+                return false;
+            }
+            String reminderId = reminderService.scheduleReminder(message.getUserId(), message.getNomiId(), request.summary(), remindAt);
+            conversationService.record(message.getUserId(), message.getNomiId(), TurnKind.SCHEDULED, request.summary(), reminderId);
+            return true;
+        });
+        if (!scheduled) {
+            reply(message, "Sorry, I couldn't move your reminder to " + request.summary()
+                + ", it has already gone off or been cancelled. What would you like me to remind you about?");
+            return;
+        }
+        String when = REPLY_TIME.format(LocalDateTime.ofInstant(remindAt, ZoneId.systemDefault()));
+        reply(message, (moving.isPresent()
+            ? "Okay, I've moved your reminder to " + request.summary() + " to " + when + "."
+            : "Okay, I'll remind you to " + request.summary() + " at " + when + ".") + conflicts);
+    }
+
+    /**
+     * @return a sentence naming what is on the user's calendar at {@code remindAt} and when they are next
+     *         free, with a leading space, or an empty string if they are free then
+     */
+    private String describeConflicts(String userId, Instant remindAt) {
+        LocalDateTime at = LocalDateTime.ofInstant(remindAt, ZoneId.systemDefault());
+        List<AvailabilityService.BusyInterval> busy = availabilityService.findOverlapping(userId, at, at.plus(REMINDER_SLOT));
+        if (busy.isEmpty()) {
+            return "";
+        }
+        Map<Long, String> titles = calendarItemRepository.findAllById(
+                busy.stream().limit(MAX_CONFLICTS_NAMED).map(AvailabilityService.BusyInterval::itemId).distinct().toList())
+            .stream().collect(Collectors.toMap(CalendarItem::getId, CalendarItem::getTitle, (a, b) -> a));
+        String clashes = busy.stream().limit(MAX_CONFLICTS_NAMED)
+            .map(interval -> titles.getOrDefault(interval.itemId(), "something") + " ("
+                + CONFLICT_TIME.format(interval.start()) + "-" + CONFLICT_TIME.format(interval.end()) + ")")
+            .collect(Collectors.joining(", "));
+        if (busy.size() > MAX_CONFLICTS_NAMED) {
+            clashes += " and " + (busy.size() - MAX_CONFLICTS_NAMED) + " more";
+        }
+        return " Heads up, you have " + clashes + " then"
+            + availabilityService.findNextFreeSlot(userId, at, REMINDER_SLOT)
+                .map(free -> "; you're next free at " + REPLY_TIME.format(free) + ".")
+                .orElse(".");
+    }
+
+    /**
+     * Claims the message and records it, in a span that also covers its time in the queue
+     * @return false if another worker already handled it
+     */
+    private boolean ingest(InboundChatMessage message, Instant receivedAt, Span trace) {
+        Span span = tracer.spanBuilder().setParent(trace.context()).name("chat.ingest")
+            .startTimestamp(micros(receivedAt), TimeUnit.MICROSECONDS)
+            .start();
+        try (Tracer.SpanInScope scope = tracer.withSpan(span)) {
+            if (message.getMessageId() != null && !messageDedupService.claim(message.getMessageId(), message.getUserId())) {
+                log.info("Message {} from user {} was already handled, skipping", message.getMessageId(), message.getUserId());
+                return false;
+            }
+            conversationService.record(message.getUserId(), message.getNomiId(), TurnKind.USER, message.getText(), null);
+            return true;
+        } catch (RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    private Optional<Assembly> assemble(InboundChatMessage message, List<AbstractNLPService.EntityInfo> entities) {
+        Optional<ChatCommand> command = ChatCommand.from(entities);
+        if (command.isEmpty()) {
+            return Optional.empty();
+        }
+        ChatCommand request = command.get();
+        if (request.summary() == null && request.delay() != null) {
+            // Only a time: it's about whatever was scheduled last
+            Optional<ConversationBuffer.Turn> moving = conversationService.lastScheduled(message.getUserId(), message.getNomiId());
+            if (moving.isPresent()) {
+                return Optional.of(new Assembly(new ChatCommand(moving.get().text(), request.delay()), moving));
+            }
+        }
+        return Optional.of(new Assembly(request, Optional.empty()));
+    }
+
+    /**
+     * Resolves "that" to the reminder scheduled last in the conversation
+     * @return empty if nothing has been scheduled in it
+     */
+    private Optional<Assembly> assembleMove(InboundChatMessage message, MoveRequest move, Instant sentAt) {
+        return conversationService.lastScheduled(message.getUserId(), message.getNomiId())
+            .map(last -> new Assembly(new ChatCommand(last.text(), move.delayFrom(sentAt, ZoneId.systemDefault())),
+                Optional.of(last)));
+    }
+
+    private void reply(InboundChatMessage message, String text) {
+        stages.run("reply", () -> {
+            nomiService.sendMessage(message.getUserId(), message.getNomiId(), NomiMessage.builder().messageText(text).build());
+            conversationService.record(message.getUserId(), message.getNomiId(), TurnKind.OUTBOUND, text, null);
+        });
+    }
+
+    private String handleLookup(InboundChatMessage message, String phrase) {
+        Optional<SearchResult> match = searchService.bestMatch(message.getUserId(), phrase);
+        if (match.isEmpty()) {
+            return "I couldn't find anything like \"" + phrase + "\" on your calendar.";
+        }
+        SearchResult item = match.get();
+        if (item.getStatus() == ItemStatus.CANCELLED) {
+            return item.getTitle() + " was cancelled.";
+        }
+        boolean past = item.getStartsAt().isBefore(LocalDateTime.now());
+        return item.getTitle() + (past ? " was on " : " is on ") + REPLY_TIME.format(item.getStartsAt()) + ".";
+    }
+
+    private String handlePomodoro(InboundChatMessage message, PomodoroCommand command) {
+        String userId = message.getUserId();
+        String noSession = "You don't have a Pomodoro running. Say \"start a pomodoro\" to begin one.";
+        if (command == PomodoroCommand.STOP) {
+            return pomodoroService.stop(userId) ? "Okay, I've stopped your Pomodoro session." : noSession;
+        }
+        Optional<PomodoroService.Status> status = switch (command) {
+            case START -> Optional.of(pomodoroService.start(userId, message.getNomiId()));
+            case PAUSE -> pomodoroService.pause(userId);
+            case RESUME -> pomodoroService.resume(userId);
+            default -> pomodoroService.skip(userId);
+        };
+        if (status.isEmpty()) {
+            return noSession;
+        }
+        long minutes = Math.max(1, status.get().remaining().toMinutes());
+        String phase = switch (status.get().phase()) {
+            case WORK -> "focus";
+            case SHORT_BREAK -> "short break";
+            case LONG_BREAK -> "long break";
+        };
+        return status.get().paused()
+            ? "Paused with " + minutes + " minutes of " + phase + " left."
+            : minutes + " minutes of " + phase + ", starting now.";
+    }
+
+    private static long micros(Instant instant) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
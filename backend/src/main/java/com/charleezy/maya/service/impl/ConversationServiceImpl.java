@@ -0,0 +1,245 @@
+package com.charleezy.maya.service.impl;
+
+import com.charleezy.maya.config.ConversationConfig;
+import com.charleezy.maya.model.ConversationTurn;
+import com.charleezy.maya.model.TurnKind;
+import com.charleezy.maya.repository.ConversationTurnRepository;
+import com.charleezy.maya.service.ConversationBuffer;
+import com.charleezy.maya.service.ConversationService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+/**
+ * Keeps the last {@code conversation.turns-per-conversation} turns of each conversation in a
+ * {@link ConversationBuffer}, for up to {@code conversation.max-conversations} conversations. These are
+ * split by key into segments, each an LRU map under its own lock, so conversations only contend with
+ * those in the same segment and the least recently used one of a segment is evicted when it fills up.
+ * Turns pushed out of a buffer, and whole buffers of evicted conversations, are queued and written to
+ * {@code conversation_turns} in batches, so recording stays in memory.
+ *
+ * A conversation seen for the first time since startup or eviction only loads its older turns from
+ * Postgres when it is first read; writes before that go to a fresh buffer and are merged in then.
+ */
+@Slf4j
+@Service
+public class ConversationServiceImpl implements ConversationService {
+    private static final int MAX_TEXT_LENGTH = 4000;
+    private static final int SEGMENTS = 64;
+
+    private record Key(String userId, String nomiId) {}
+
+    private static final class Conversation {
+        ConversationBuffer buffer;
+        boolean historyLoaded;
+
+        Conversation(int capacity) {
+            this.buffer = new ConversationBuffer(capacity);
+        }
+    }
+
+    /**
+     * Conversations in least recently used order; guarded by itself
+     */
+    private final class Segment extends LinkedHashMap<Key, Conversation> {
+        private final int maxConversations;
+
+        Segment(int maxConversations) {
+            super(16, 0.75f, true);
+            this.maxConversations = maxConversations;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Conversation> eldest) {
+            if (size() <= maxConversations) {
+                return false;
+            }
+            spill(eldest.getKey(), eldest.getValue().buffer.recent(capacity));
+            return true;
+        }
+    }
+
+    private final ConversationConfig conversationConfig;
+    private final ConversationTurnRepository turnRepository;
+    private final int capacity;
+    private final Segment[] segments;
+    // Loads and flushes synchronize on this, so a turn is never between the queue and the table mid-read
+    private final Queue<ConversationTurn> spilled = new ConcurrentLinkedQueue<>();
+
+    public ConversationServiceImpl(ConversationConfig conversationConfig, ConversationTurnRepository turnRepository) {
+        this.conversationConfig = conversationConfig;
+        this.turnRepository = turnRepository;
+        this.capacity = conversationConfig.getTurnsPerConversation();
+        int maxConversations = conversationConfig.getMaxConversations();
+        int segmentCount = Math.max(1, Math.min(SEGMENTS, maxConversations));
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            // Spread the remainder so the segments add up to exactly maxConversations
+            segments[i] = new Segment(maxConversations / segmentCount + (i < maxConversations % segmentCount ? 1 : 0));
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.forEach((key, conversation) -> spill(key, conversation.buffer.recent(capacity)));
+                segment.clear();
+            }
+        }
+        flush();
+    }
+
+    @Override
+    public void record(String userId, String nomiId, TurnKind kind, String text, String itemRef) {
+        Key key = new Key(userId, nomiId);
+        ConversationBuffer.Turn turn = new ConversationBuffer.Turn(kind, text, itemRef, Instant.now(), false);
+        Segment segment = segmentOf(key);
+        synchronized (segment) {
+            Conversation conversation = segment.computeIfAbsent(key, k -> new Conversation(capacity));
+            ConversationBuffer.Turn evicted = conversation.buffer.add(turn);
+            if (evicted != null) {
+                spill(key, List.of(evicted));
+            }
+        }
+    }
+
+    @Override
+    public List<ConversationBuffer.Turn> recent(String userId, String nomiId, int limit) {
+        return read(new Key(userId, nomiId), buffer -> buffer.recent(limit));
+    }
+
+    @Override
+    public Optional<ConversationBuffer.Turn> lastScheduled(String userId, String nomiId) {
+        return read(new Key(userId, nomiId), buffer -> buffer.latest(TurnKind.SCHEDULED));
+    }
+
+    @Override
+    public String withContext(String userId, String nomiId, String text) {
+        int turns = conversationConfig.getContextTurns();
+        if (turns <= 0) {
+            return text;
+        }
+        // Newest first, so whatever doesn't fit in the budget is the oldest
+        List<String> lines = new ArrayList<>();
+        int chars = 0;
+        List<ConversationBuffer.Turn> recent = recent(userId, nomiId, turns);
+        for (int i = recent.size() - 1; i >= 0; i--) {
+            ConversationBuffer.Turn turn = recent.get(i);
+            String line = switch (turn.kind()) {
+                case USER -> "User: ";
+                case OUTBOUND -> "Maya: ";
+                case SCHEDULED -> "Scheduled: ";
+            } + turn.text();
+            chars += line.length() + 1;
+            if (chars > conversationConfig.getContextMaxChars()) {
+                break;
+            }
+            lines.add(line);
+        }
+        if (lines.isEmpty()) {
+            return text;
+        }
+        Collections.reverse(lines);
+        return "Recent conversation:\n" + String.join("\n", lines) + "\n\n" + text;
+    }
+
+    @Scheduled(fixedDelayString = "${conversation.spill-flush-ms:2000}")
+    public void flush() {
+        synchronized (spilled) {
+            List<ConversationTurn> batch = new ArrayList<>();
+            for (ConversationTurn turn = spilled.poll(); turn != null; turn = spilled.poll()) {
+                batch.add(turn);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                turnRepository.saveAll(batch);
+            } catch (RuntimeException e) {
+                log.error("Failed to write {} spilled conversation turns, dropping them", batch.size(), e);
+            }
+        }
+    }
+
+    private <T> T read(Key key, Function<ConversationBuffer, T> reader) {
+        Segment segment = segmentOf(key);
+        synchronized (segment) {
+            Conversation conversation = segment.get(key);
+            if (conversation != null && conversation.historyLoaded) {
+                return reader.apply(conversation.buffer);
+            }
+        }
+        List<ConversationBuffer.Turn> history = loadHistory(key);
+        synchronized (segment) {
+            Conversation conversation = segment.computeIfAbsent(key, k -> new Conversation(capacity));
+            if (!conversation.historyLoaded) {
+                // History is older than anything recorded since, so it goes first and is pushed out first
+                ConversationBuffer merged = new ConversationBuffer(capacity);
+                history.forEach(merged::add);
+                for (ConversationBuffer.Turn turn : conversation.buffer.recent(capacity)) {
+                    merged.add(turn);
+                }
+                conversation.buffer = merged;
+                conversation.historyLoaded = true;
+            }
+            return reader.apply(conversation.buffer);
+        }
+    }
+
+    private Segment segmentOf(Key key) {
+        return segments[Math.floorMod(key.hashCode(), segments.length)];
+    }
+
+    /**
+     * @return the conversation's latest turns outside memory, oldest first, all marked as stored
+     */
+    private List<ConversationBuffer.Turn> loadHistory(Key key) {
+        List<ConversationTurn> rows;
+        synchronized (spilled) {
+            rows = new ArrayList<>(turnRepository.findByUserIdAndNomiIdOrderByIdDesc(
+                key.userId(), key.nomiId(), PageRequest.of(0, capacity)));
+            Collections.reverse(rows);
+            for (ConversationTurn turn : spilled) {
+                if (turn.getUserId().equals(key.userId()) && turn.getNomiId().equals(key.nomiId())) {
+                    rows.add(turn);
+                }
+            }
+        }
+        return rows.subList(Math.max(0, rows.size() - capacity), rows.size()).stream()
+            .map(row -> new ConversationBuffer.Turn(row.getKind(), row.getText(), row.getItemRef(),
+                row.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant(), true))
+            .toList();
+    }
+
+    private void spill(Key key, List<ConversationBuffer.Turn> turns) {
+        for (ConversationBuffer.Turn turn : turns) {
+            if (turn.stored()) {
+                continue;
+            }
+            ConversationTurn row = new ConversationTurn();
+            row.setUserId(key.userId());
+            row.setNomiId(key.nomiId());
+            row.setKind(turn.kind());
+            row.setText(turn.text().length() > MAX_TEXT_LENGTH ? turn.text().substring(0, MAX_TEXT_LENGTH) : turn.text());
+            row.setItemRef(turn.itemRef());
+            row.setCreatedAt(LocalDateTime.ofInstant(turn.at(), ZoneId.systemDefault()));
+            spilled.add(row);
+        }
+    }
+}
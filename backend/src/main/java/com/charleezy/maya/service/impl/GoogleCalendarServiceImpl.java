@@ -1,6 +1,7 @@
 package com.charleezy.maya.service.impl;
 
 import com.charleezy.maya.config.GoogleCalendarConfig;
+import com.charleezy.maya.service.CallMetrics;
 import com.charleezy.maya.service.GoogleCalendarService;
 import com.google.api.client.auth.oauth2.Credential;
 import com.google.api.client.extensions.java6.auth.oauth2.AuthorizationCodeInstalledApp;
@@ -14,28 +15,36 @@ import com.google.api.client.json.gson.GsonFactory;
 import com.google.api.client.util.DateTime;
 import com.google.api.client.util.store.FileDataStoreFactory;
 import com.google.api.services.calendar.Calendar;
+import com.google.api.services.calendar.CalendarRequest;
 import com.google.api.services.calendar.model.Event;
 import com.google.api.services.calendar.model.EventDateTime;
 import com.google.api.services.calendar.model.EventReminder;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.tracing.Tracer;
 import org.springframework.stereotype.Service;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.security.GeneralSecurityException;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
 
 @Service
-@RequiredArgsConstructor
 public class GoogleCalendarServiceImpl implements GoogleCalendarService {
     private static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
     private final GoogleCalendarConfig config;
+    private final CallMetrics callMetrics;
     private Calendar service;
 
+    public GoogleCalendarServiceImpl(GoogleCalendarConfig config, MeterRegistry meterRegistry, Tracer tracer) {
+        this.config = config;
+        this.callMetrics = new CallMetrics(meterRegistry, tracer, "calendar");
+    }
+
     private Calendar getService() throws GeneralSecurityException, IOException {
         if (service == null) {
             final NetHttpTransport HTTP_TRANSPORT = GoogleNetHttpTransport.newTrustedTransport();
@@ -85,7 +94,7 @@ public class GoogleCalendarServiceImpl implements GoogleCalendarService {
                     .setUseDefault(false)
                     .setOverrides(Arrays.asList(reminderOverrides)));
 
-            return getService().events().insert("primary", event).execute();
+            return execute("createEvent", getService().events().insert("primary", event));
         } catch (IOException | GeneralSecurityException e) {
             throw new RuntimeException("Failed to create calendar event", e);
         }
@@ -112,7 +121,7 @@ public class GoogleCalendarServiceImpl implements GoogleCalendarService {
                     .setUseDefault(false)
                     .setOverrides(Arrays.asList(reminderOverrides)));
 
-            return getService().events().insert("primary", event).execute();
+            return execute("createReminder", getService().events().insert("primary", event));
         } catch (IOException | GeneralSecurityException e) {
             throw new RuntimeException("Failed to create reminder", e);
         }
@@ -121,9 +130,26 @@ public class GoogleCalendarServiceImpl implements GoogleCalendarService {
     @Override
     public void deleteEvent(String eventId) {
         try {
-            getService().events().delete("primary", eventId).execute();
+            execute("deleteEvent", getService().events().delete("primary", eventId));
         } catch (IOException | GeneralSecurityException e) {
             throw new RuntimeException("Failed to delete calendar event", e);
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * Sends the request, timing only the round trip to Google and not building the client or authorizing
+     */
+    private <T> T execute(String operation, CalendarRequest<T> request) throws IOException {
+        try {
+            return callMetrics.record(operation, () -> {
+                try {
+                    return request.execute();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
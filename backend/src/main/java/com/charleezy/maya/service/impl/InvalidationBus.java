@@ -0,0 +1,235 @@
+package com.charleezy.maya.service.impl;
+
+import com.charleezy.maya.config.InvalidationConfig;
+import com.charleezy.maya.model.CacheInvalidationEvent;
+import com.charleezy.maya.model.CalendarItemChangedEvent;
+import com.charleezy.maya.model.ItemType;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps in-memory caches coherent across instances using Postgres LISTEN/NOTIFY.
+ *
+ * Local {@link CalendarItemChangedEvent}s and {@link CacheInvalidationEvent}s are queued, de-duplicated
+ * and sent every {@code coalesceMs} as one NOTIFY per ~7 KB of payload; a burst of item changes for one
+ * user collapses into a single user-wide invalidation. A dedicated connection LISTENs and replays
+ * notifications from other instances as local events. NOTIFY is fire-and-forget, so after the listening
+ * connection drops and comes back every local cache is flushed to cover what was missed meanwhile.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "invalidation.enabled", havingValue = "true")
+public class InvalidationBus {
+    // NOTIFY payloads are limited to 8000 bytes; stay under it with room for the envelope
+    private static final int MAX_PAYLOAD_BYTES = 7000;
+    private static final long POLL_TIMEOUT_MS = 1000;
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+    private static final ThreadLocal<Boolean> REPLAYING = ThreadLocal.withInitial(() -> false);
+
+    private final InvalidationConfig config;
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Set<Notice> queued = new LinkedHashSet<>();
+    private Thread listener;
+    private volatile boolean running;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record Notice(String userId, Long itemId, ItemType type, CalendarItemChangedEvent.ChangeType change,
+                  String cache, String key) {}
+
+    record Message(String node, List<Notice> notices) {}
+
+    public InvalidationBus(InvalidationConfig config, DataSource dataSource, ApplicationEventPublisher eventPublisher,
+                           ObjectMapper objectMapper) {
+        if (!CHANNEL_NAME.matcher(config.getChannel()).matches()) {
+            throw new IllegalArgumentException("Invalid invalidation channel name: " + config.getChannel());
+        }
+        this.config = config;
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        listener = new Thread(this::listen, "maya-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        listener.interrupt();
+        flush();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCalendarItemChanged(CalendarItemChangedEvent event) {
+        if (!REPLAYING.get() && event.userId() != null) {
+            enqueue(new Notice(event.userId(), event.itemId(), event.type(), event.change(), null, null));
+        }
+    }
+
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        if (!REPLAYING.get()) {
+            enqueue(new Notice(null, null, null, null, event.cache(), event.key()));
+        }
+    }
+
+    private void enqueue(Notice notice) {
+        synchronized (queued) {
+            queued.add(notice);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${invalidation.coalesce-ms:50}")
+    public void flush() {
+        List<Notice> batch;
+        synchronized (queued) {
+            if (queued.isEmpty()) {
+                return;
+            }
+            batch = coalesce(queued);
+            queued.clear();
+        }
+        try {
+            List<Notice> chunk = new ArrayList<>();
+            int chunkBytes = 0;
+            for (Notice notice : batch) {
+                int bytes = objectMapper.writeValueAsBytes(notice).length + 1;
+                if (!chunk.isEmpty() && chunkBytes + bytes > MAX_PAYLOAD_BYTES) {
+                    notify(chunk);
+                    chunk = new ArrayList<>();
+                    chunkBytes = 0;
+                }
+                chunk.add(notice);
+                chunkBytes += bytes;
+            }
+            notify(chunk);
+        } catch (RuntimeException | JsonProcessingException e) {
+            // Other instances keep serving stale entries until their next local change or reconnect
+            log.warn("Failed to broadcast {} cache invalidations", batch.size(), e);
+        }
+    }
+
+    private List<Notice> coalesce(Collection<Notice> notices) {
+        Map<String, Integer> itemsPerUser = new HashMap<>();
+        for (Notice notice : notices) {
+            if (notice.userId() != null) {
+                itemsPerUser.merge(notice.userId(), 1, Integer::sum);
+            }
+        }
+        List<Notice> result = new ArrayList<>();
+        Set<String> collapsed = new HashSet<>();
+        for (Notice notice : notices) {
+            if (notice.userId() == null || itemsPerUser.get(notice.userId()) <= config.getUserScopeThreshold()) {
+                result.add(notice);
+            } else if (collapsed.add(notice.userId())) {
+                // No item id: every listener drops whatever it holds for the user, including recurrences
+                result.add(new Notice(notice.userId(), null, null, CalendarItemChangedEvent.ChangeType.UPDATED, null, null));
+            }
+        }
+        return result;
+    }
+
+    private void notify(List<Notice> notices) throws JsonProcessingException {
+        String payload = objectMapper.writeValueAsString(new Message(nodeId, notices));
+        jdbcTemplate.queryForObject("select pg_notify(?, ?)", Object.class, config.getChannel(), payload);
+    }
+
+    private void listen() {
+        long backoff = config.getReconnectBackoffMs();
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + config.getChannel());
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                if (reconnecting) {
+                    log.info("Invalidation listener reconnected, flushing local caches");
+                    replay(List.of(new Notice(null, null, null, null, null, null)));
+                }
+                backoff = config.getReconnectBackoffMs();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) POLL_TIMEOUT_MS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Invalidation listener lost its connection, retrying in {} ms", backoff, e);
+                reconnecting = true;
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoff = Math.min(backoff * 2, config.getMaxReconnectBackoffMs());
+            }
+        }
+    }
+
+    private void receive(String payload) {
+        try {
+            Message message = objectMapper.readValue(payload.getBytes(StandardCharsets.UTF_8), Message.class);
+            if (!nodeId.equals(message.node())) {
+                replay(message.notices());
+            }
+        } catch (Exception e) {
+            log.warn("Ignoring malformed invalidation notification: {}", payload, e);
+        }
+    }
+
+    private void replay(List<Notice> notices) {
+        REPLAYING.set(true);
+        try {
+            for (Notice notice : notices) {
+                if (notice.userId() != null) {
+                    eventPublisher.publishEvent(new CalendarItemChangedEvent(
+                        notice.itemId(), notice.userId(), notice.type(), notice.change()));
+                } else {
+                    // A notice with neither user nor cache is CacheInvalidationEvent.ALL
+                    eventPublisher.publishEvent(new CacheInvalidationEvent(notice.cache(), notice.key()));
+                }
+            }
+        } finally {
+            REPLAYING.set(false);
+        }
+    }
+}
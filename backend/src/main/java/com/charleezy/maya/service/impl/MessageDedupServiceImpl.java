@@ -0,0 +1,52 @@
+package com.charleezy.maya.service.impl;
+
+import com.charleezy.maya.config.WebhookConfig;
+import com.charleezy.maya.repository.ProcessedMessageRepository;
+import com.charleezy.maya.service.MessageDedupService;
+import com.charleezy.maya.service.WindowedBloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Recognizes webhook retries by message id. Every id taken on goes into a {@link WindowedBloomFilter};
+ * a miss there means the id is new and is answered from memory, so only retries (and the filter's
+ * rare false positives) reach {@code processed_messages}, where the row inserted by {@link #claim}
+ * gives the exact answer. Rows are kept as long as the filter can remember an id, then purged.
+ */
+@Slf4j
+@Service
+public class MessageDedupServiceImpl implements MessageDedupService {
+    private final ProcessedMessageRepository processedMessageRepository;
+    private final WindowedBloomFilter recent;
+    private final Duration retention;
+
+    public MessageDedupServiceImpl(WebhookConfig webhookConfig, ProcessedMessageRepository processedMessageRepository) {
+        this.processedMessageRepository = processedMessageRepository;
+        Duration window = Duration.ofHours(webhookConfig.getDedupWindowHours());
+        this.recent = new WindowedBloomFilter(webhookConfig.getDedupExpectedPerWindow(),
+            webhookConfig.getDedupFalsePositiveRate(), window, System::currentTimeMillis);
+        this.retention = window.multipliedBy(2);
+        log.info("Message dedup filter uses {} KB for a {} window", recent.sizeInBytes() / 1024, window);
+    }
+
+    @Override
+    public boolean isDuplicate(String messageId) {
+        return recent.mightContain(messageId) && processedMessageRepository.existsById(messageId);
+    }
+
+    @Override
+    public boolean claim(String messageId, String userId) {
+        recent.add(messageId);
+        return processedMessageRepository.insertIfAbsent(messageId, userId, LocalDateTime.now()) == 1;
+    }
+
+    @Scheduled(fixedDelayString = "PT1H", initialDelayString = "PT5M")
+    public void purge() {
+        int deleted = processedMessageRepository.deleteReceivedBefore(LocalDateTime.now().minus(retention));
+        log.debug("Purged {} processed message ids older than {}", deleted, retention);
+    }
+}
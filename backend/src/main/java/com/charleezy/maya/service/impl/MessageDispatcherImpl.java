@@ -0,0 +1,187 @@
+package com.charleezy.maya.service.impl;
+
+import com.charleezy.maya.config.DispatchConfig;
+import com.charleezy.maya.model.TurnKind;
+import com.charleezy.maya.model.dto.NomiMessage;
+import com.charleezy.maya.service.ConversationService;
+import com.charleezy.maya.service.MessageDispatcher;
+import com.charleezy.maya.service.ReactiveNomiService;
+import com.charleezy.maya.service.TenantGuard;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Reminders and follow-ups tend to come due on round minutes, thousands in the same second. Each
+ * conversation's first message is held for a random delay within {@code dispatch.jitter-ms}, and
+ * whatever else comes due for that conversation meanwhile is merged into the same message. Sends then
+ * take a token from a global and a per-user bucket; a batch that would wait too long for one is put back
+ * and tried again later. Failures on Nomi's side (5xx, timeouts, connection errors) are retried with
+ * backoff; 4xx and throttling by the client are not. Messages go out with the conversation's recent
+ * turns in front (see {@link ConversationService#withContext}) and are recorded in it once sent.
+ */
+@Slf4j
+@Service
+public class MessageDispatcherImpl implements MessageDispatcher {
+    private static final String GLOBAL = "global";
+    // Sends are released from timer threads at the same time; retry briefly when two of them emit at once
+    private static final Sinks.EmitFailureHandler EMIT_RETRY = Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100));
+
+    private record Conversation(String userId, String nomiId) {}
+
+    private record Outgoing(Conversation conversation, String text) {}
+
+    private final DispatchConfig dispatchConfig;
+    private final ReactiveNomiService reactiveNomiService;
+    private final ConversationService conversationService;
+    // Only rate limits are used; the failure threshold is out of reach
+    private final TenantGuard tenantLimits;
+    private final TenantGuard globalLimit;
+    // Texts are only touched inside compute() until the batch is removed for sending
+    private final Map<Conversation, Set<String>> pending = new ConcurrentHashMap<>();
+    private Sinks.Many<Outgoing> sends;
+
+    public MessageDispatcherImpl(DispatchConfig dispatchConfig, ReactiveNomiService reactiveNomiService,
+                                 ConversationService conversationService) {
+        this.dispatchConfig = dispatchConfig;
+        this.reactiveNomiService = reactiveNomiService;
+        this.conversationService = conversationService;
+        this.tenantLimits = new TenantGuard(dispatchConfig.getTenantRequestsPerSecond(), dispatchConfig.getTenantBurst(),
+            Integer.MAX_VALUE, 0, System::currentTimeMillis);
+        this.globalLimit = new TenantGuard(dispatchConfig.getGlobalRequestsPerSecond(), dispatchConfig.getGlobalBurst(),
+            Integer.MAX_VALUE, 0, System::currentTimeMillis);
+    }
+
+    @PostConstruct
+    public void start() {
+        sends = Sinks.many().unicast().onBackpressureBuffer();
+        sends.asFlux()
+            .flatMap(this::send, dispatchConfig.getMaxConcurrent())
+            .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        sends.tryEmitComplete();
+        if (!pending.isEmpty()) {
+            log.warn("Shut down with messages for {} conversations not yet dispatched", pending.size());
+        }
+    }
+
+    @Override
+    public boolean dispatch(String userId, String nomiId, String text) {
+        Conversation conversation = new Conversation(userId, nomiId);
+        if (pending.size() >= dispatchConfig.getMaxPending() && !pending.containsKey(conversation)) {
+            log.warn("Dispatch queue full ({} conversations), dropping message for user {}", pending.size(), userId);
+            return false;
+        }
+        if (enqueue(conversation, Set.of(text))) {
+            long jitterMs = dispatchConfig.getJitterMs();
+            releaseAfter(conversation, jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0);
+        }
+        return true;
+    }
+
+    @Override
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Adds texts to the conversation's waiting batch
+     * @return true if this started a new batch, which the caller must then schedule for release
+     */
+    private boolean enqueue(Conversation conversation, Set<String> texts) {
+        boolean[] started = new boolean[1];
+        pending.compute(conversation, (key, batch) -> {
+            if (batch == null) {
+                batch = new LinkedHashSet<>();
+                started[0] = true;
+            }
+            batch.addAll(texts);
+            return batch;
+        });
+        return started[0];
+    }
+
+    private void releaseAfter(Conversation conversation, long delayMs) {
+        if (delayMs == 0) {
+            release(conversation);
+        } else {
+            Mono.delay(Duration.ofMillis(delayMs)).subscribe(tick -> release(conversation));
+        }
+    }
+
+    /**
+     * Takes the conversation's batch out of {@link #pending}, so later messages start a new one, and
+     * queues it once both rate limits allow
+     */
+    private void release(Conversation conversation) {
+        Set<String> batch = pending.remove(conversation);
+        if (batch == null) {
+            return;
+        }
+        long maxWaitMs = dispatchConfig.getMaxRateWaitMs();
+        long tenantWaitMs = tenantLimits.reserve(conversation.userId(), maxWaitMs);
+        long globalWaitMs = tenantWaitMs < 0 ? -1 : globalLimit.reserve(GLOBAL, maxWaitMs);
+        if (tenantWaitMs >= 0 && globalWaitMs < 0) {
+            // Nothing is sent, so the tenant keeps its token for the retry
+            tenantLimits.refund(conversation.userId());
+        }
+        if (globalWaitMs < 0) {
+            log.debug("Rate limits are saturated, putting back {} messages for user {}", batch.size(), conversation.userId());
+            if (enqueue(conversation, batch)) {
+                releaseAfter(conversation, maxWaitMs);
+            }
+            return;
+        }
+        Outgoing outgoing = new Outgoing(conversation, String.join("\n", batch));
+        long waitMs = Math.max(tenantWaitMs, globalWaitMs);
+        if (waitMs == 0) {
+            sends.emitNext(outgoing, EMIT_RETRY);
+        } else {
+            Mono.delay(Duration.ofMillis(waitMs)).subscribe(tick -> sends.emitNext(outgoing, EMIT_RETRY));
+        }
+    }
+
+    private Mono<Void> send(Outgoing outgoing) {
+        Conversation conversation = outgoing.conversation();
+        // Reading the conversation may load it from Postgres
+        return Mono.fromCallable(() -> conversationService.withContext(conversation.userId(), conversation.nomiId(), outgoing.text()))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(text -> reactiveNomiService.sendMessage(conversation.userId(), conversation.nomiId(), NomiMessage.builder()
+                    .messageText(text)
+                    .build())
+                .retryWhen(Retry.backoff(dispatchConfig.getMaxRetries(), Duration.ofMillis(dispatchConfig.getRetryBackoffMs()))
+                    .filter(MessageDispatcherImpl::isTransient)))
+            .doOnSuccess(response -> conversationService.record(conversation.userId(), conversation.nomiId(),
+                TurnKind.OUTBOUND, outgoing.text(), null))
+            .then()
+            .onErrorResume(e -> {
+                log.error("Failed to dispatch message to Nomi {} for user {}", conversation.nomiId(), conversation.userId(), e);
+                return Mono.empty();
+            });
+    }
+
+    private static boolean isTransient(Throwable e) {
+        if (e instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError();
+        }
+        return e instanceof TimeoutException || e instanceof WebClientRequestException;
+    }
+}
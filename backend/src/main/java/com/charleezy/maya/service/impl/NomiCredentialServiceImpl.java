@@ -0,0 +1,149 @@
+package com.charleezy.maya.service.impl;
+
+import com.charleezy.maya.config.NomiConfig;
+import com.charleezy.maya.model.CacheInvalidationEvent;
+import com.charleezy.maya.model.NomiCredential;
+import com.charleezy.maya.repository.NomiCredentialRepository;
+import com.charleezy.maya.service.CredentialCipher;
+import com.charleezy.maya.service.NomiCredentialService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Users' Nomi API keys, encrypted in {@code nomi_credentials} and cached decrypted in memory for
+ * {@code nomi.credential-cache-minutes}, including the fact that a user has none. Changes drop the
+ * cached entry on every instance through a {@link CacheInvalidationEvent}; a key read from the database
+ * while an invalidation arrives is not kept, so a replaced key can't be cached again.
+ */
+@Slf4j
+@Service
+public class NomiCredentialServiceImpl implements NomiCredentialService {
+    public static final String CACHE_NAME = "nomi-credentials";  // keyed by user id
+
+    private final NomiConfig nomiConfig;
+    private final NomiCredentialRepository nomiCredentialRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CredentialCipher cipher;
+    private final Map<String, Cached> cache = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    // apiKey is null when the user has no key of their own
+    private record Cached(String apiKey, long expiresAt) {}
+
+    public NomiCredentialServiceImpl(NomiConfig nomiConfig, NomiCredentialRepository nomiCredentialRepository,
+                                     ApplicationEventPublisher eventPublisher) {
+        this.nomiConfig = nomiConfig;
+        this.nomiCredentialRepository = nomiCredentialRepository;
+        this.eventPublisher = eventPublisher;
+        String key = nomiConfig.getCredentialsKey();
+        this.cipher = key == null || key.isBlank() ? null : new CredentialCipher(key);
+        if (cipher == null) {
+            log.warn("nomi.credentials-key is not set; per-user Nomi API keys are disabled");
+        }
+    }
+
+    @Override
+    public void store(String userId, String apiKey) {
+        if (cipher == null) {
+            throw new IllegalStateException("Per-user Nomi API keys need nomi.credentials-key to be configured");
+        }
+        if (apiKey == null || apiKey.isBlank()) {
+            throw new IllegalArgumentException("apiKey is required");
+        }
+        NomiCredential credential = nomiCredentialRepository.findById(userId).orElseGet(NomiCredential::new);
+        credential.setUserId(userId);
+        credential.setEncryptedApiKey(cipher.encrypt(userId, apiKey.trim()));
+        credential.setUpdatedAt(LocalDateTime.now());
+        nomiCredentialRepository.save(credential);
+        eventPublisher.publishEvent(new CacheInvalidationEvent(CACHE_NAME, userId));
+    }
+
+    @Override
+    public boolean remove(String userId) {
+        if (!nomiCredentialRepository.existsById(userId)) {
+            return false;
+        }
+        nomiCredentialRepository.deleteById(userId);
+        eventPublisher.publishEvent(new CacheInvalidationEvent(CACHE_NAME, userId));
+        return true;
+    }
+
+    @Override
+    public Mono<String> apiKey(String userId) {
+        Cached cached = cache.get(userId);
+        if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+            return withFallback(cached.apiKey());
+        }
+        return Mono.fromCallable(() -> Optional.ofNullable(load(userId)))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(own -> withFallback(own.orElse(null)));
+    }
+
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        if (!event.appliesTo(CACHE_NAME)) {
+            return;
+        }
+        // Counted before removing, so a load that read the old key sees it (see load)
+        invalidations.incrementAndGet();
+        if (event.key() == null) {
+            cache.clear();
+        } else {
+            cache.remove(event.key());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "PT5M")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        cache.values().removeIf(cached -> cached.expiresAt() <= now);
+    }
+
+    private Mono<String> withFallback(String apiKey) {
+        if (apiKey != null) {
+            return Mono.just(apiKey);
+        }
+        String shared = nomiConfig.getApiKey();
+        return shared == null || shared.isBlank() ? Mono.empty() : Mono.just(shared);
+    }
+
+    // Returns null, and caches that, when the user has no usable key of their own
+    private String load(String userId) {
+        long generation = invalidations.get();
+        String apiKey = nomiCredentialRepository.findById(userId)
+            .map(credential -> decrypt(userId, credential))
+            .orElse(null);
+        long ttlMs = nomiConfig.getCredentialCacheMinutes() * 60_000L;
+        Cached loaded = new Cached(apiKey, System.currentTimeMillis() + ttlMs);
+        cache.put(userId, loaded);
+        // An invalidation since the read may have been for this key: either it removes the entry after
+        // this put, or it was counted before this check and the entry is taken back here
+        if (invalidations.get() != generation) {
+            cache.remove(userId, loaded);
+        }
+        return apiKey;
+    }
+
+    private String decrypt(String userId, NomiCredential credential) {
+        if (cipher == null) {
+            return null;
+        }
+        try {
+            return cipher.decrypt(userId, credential.getEncryptedApiKey());
+        } catch (RuntimeException e) {
+            log.error("Stored Nomi API key for user {} could not be decrypted", userId, e);
+            return null;
+        }
+    }
+}
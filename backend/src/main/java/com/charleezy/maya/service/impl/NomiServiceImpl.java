@@ -1,62 +1,41 @@
 package com.charleezy.maya.service.impl;
 
-import com.charleezy.maya.config.NomiConfig;
 import com.charleezy.maya.model.dto.NomiMessage;
 import com.charleezy.maya.model.dto.NomiResponse;
+import com.charleezy.maya.service.ConversationService;
 import com.charleezy.maya.service.NomiService;
+import com.charleezy.maya.service.ReactiveNomiService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.beans.factory.annotation.Qualifier;
 
 import java.util.List;
-import java.util.Map;
 
+/**
+ * Blocking facade over {@link ReactiveNomiService} for callers that already run on their own worker
+ * threads. Must not be called from an event loop thread. Messages go out with the conversation's recent
+ * turns in front (see {@link ConversationService#withContext}).
+ */
 @Service
 @RequiredArgsConstructor
 public class NomiServiceImpl implements NomiService {
-    private final NomiConfig nomiConfig;
-    @Qualifier("nomiWebClient")
-    private final WebClient nomiWebClient;
+    private final ReactiveNomiService reactiveNomiService;
+    private final ConversationService conversationService;
 
     @Override
-    public NomiResponse sendMessage(String nomiId, NomiMessage message) {
-        return nomiWebClient.post()
-            .uri(nomiConfig.getBaseUrl() + "/chat/completions")
-            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-            .header("X-API-KEY", nomiConfig.getApiKey())
-            .bodyValue(Map.of(
-                "messages", List.of(Map.of(
-                    "role", "user",
-                    "content", message.getMessageText()
-                )),
-                "model", "gpt-3.5-turbo",
-                "temperature", 0.7,
-                "max_tokens", 150
-            ))
-            .retrieve()
-            .bodyToMono(NomiResponse.class)
-            .block();
+    public NomiResponse sendMessage(String userId, String nomiId, NomiMessage message) {
+        NomiMessage inContext = NomiMessage.builder()
+            .messageText(conversationService.withContext(userId, nomiId, message.getMessageText()))
+            .build();
+        return reactiveNomiService.sendMessage(userId, nomiId, inContext).block();
     }
 
     @Override
-    public List<NomiResponse.Nomi> listNomis() {
-        return nomiWebClient.get()
-            .uri("/nomis")
-            .retrieve()
-            .bodyToMono(new ParameterizedTypeReference<List<NomiResponse.Nomi>>() {})
-            .block();
+    public List<NomiResponse.Nomi> listNomis(String userId) {
+        return reactiveNomiService.listNomis(userId).collectList().block();
     }
 
     @Override
-    public NomiResponse.Nomi getNomi(String nomiId) {
-        return nomiWebClient.get()
-            .uri("/nomis/{id}", nomiId)
-            .retrieve()
-            .bodyToMono(NomiResponse.Nomi.class)
-            .block();
+    public NomiResponse.Nomi getNomi(String userId, String nomiId) {
+        return reactiveNomiService.getNomi(userId, nomiId).block();
     }
-} 
\ No newline at end of file
+}
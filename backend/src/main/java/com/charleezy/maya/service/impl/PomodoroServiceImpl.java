@@ -0,0 +1,408 @@
+package com.charleezy.maya.service.impl;
+
+import com.charleezy.maya.config.PomodoroConfig;
+import com.charleezy.maya.config.TimerConfig;
+import com.charleezy.maya.model.PomodoroCheckpoint;
+import com.charleezy.maya.model.PomodoroPhase;
+import com.charleezy.maya.repository.PomodoroCheckpointRepository;
+import com.charleezy.maya.repository.TimerNodeRepository;
+import com.charleezy.maya.service.MessageDispatcher;
+import com.charleezy.maya.service.PomodoroService;
+import com.charleezy.maya.service.PomodoroStateMachine;
+import com.charleezy.maya.service.ProductivityService;
+import com.charleezy.maya.service.TimerService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongBinaryOperator;
+import java.util.stream.IntStream;
+
+import static com.charleezy.maya.service.PomodoroStateMachine.ENDED;
+
+/**
+ * Runs Pomodoro sessions in memory: one packed {@code long} per user (see {@link PomodoroStateMachine})
+ * and one in-process timer for the end of the current phase. When a phase ends the session moves on,
+ * the user's Nomi follows up through the {@link MessageDispatcher}, and finished work phases are
+ * counted in the user's productivity stats.
+ *
+ * A session runs on the instance that owns its {@code pomodoro_sessions} row ({@code timer.node-id}).
+ * Starting one takes the row in a single upsert, and a command for a session another instance runs
+ * takes the row over before applying. Every change is written to the row as it happens, but only while
+ * this instance still owns it: an instance whose write finds the row gone elsewhere drops its copy and
+ * cancels its timer, and a phase end sends its follow-up only after that write, so one session never
+ * runs or follows up on two instances. Writes that fail are retried every
+ * {@code pomodoro.checkpoint-seconds}.
+ *
+ * Every instance heartbeats in {@code timer_nodes} (the shard coordinator does it when timer sharding
+ * is on), so sessions are only adopted from instances known to have stopped: on startup an instance
+ * claims back its own rows (when its node id is configured) and those of stopped instances, and then
+ * does the same every heartbeat. A phase that ended meanwhile ends as soon as the session is back.
+ *
+ * Timers are armed only after the map update that changed the session, because a phase that is
+ * already over fires straight away and ends the phase with an update of its own.
+ */
+@Slf4j
+@Service
+public class PomodoroServiceImpl implements PomodoroService {
+    private static final String TIMER_PREFIX = "pomodoro:";
+    private static final int WRITE_LOCKS = 64;
+
+    private record Session(String nomiId, long state) {}
+
+    private final PomodoroStateMachine stateMachine;
+    private final TimerService timerService;
+    private final MessageDispatcher messageDispatcher;
+    private final ProductivityService productivityService;
+    private final PomodoroCheckpointRepository checkpointRepository;
+    private final TimerNodeRepository nodeRepository;
+    private final TimerConfig timerConfig;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    // Users whose last write failed
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    // Striped by user, so each user's writes land in order and the row ends up with the latest state
+    private final Object[] writeLocks = IntStream.range(0, WRITE_LOCKS).mapToObj(i -> new Object()).toArray();
+
+    public PomodoroServiceImpl(PomodoroConfig pomodoroConfig, TimerService timerService,
+                               MessageDispatcher messageDispatcher, ProductivityService productivityService,
+                               PomodoroCheckpointRepository checkpointRepository, TimerNodeRepository nodeRepository,
+                               TimerConfig timerConfig) {
+        this.stateMachine = new PomodoroStateMachine(
+            TimeUnit.MINUTES.toMillis(pomodoroConfig.getWorkMinutes()),
+            TimeUnit.MINUTES.toMillis(pomodoroConfig.getShortBreakMinutes()),
+            TimeUnit.MINUTES.toMillis(pomodoroConfig.getLongBreakMinutes()),
+            pomodoroConfig.getCyclesPerSession());
+        this.timerService = timerService;
+        this.messageDispatcher = messageDispatcher;
+        this.productivityService = productivityService;
+        this.checkpointRepository = checkpointRepository;
+        this.nodeRepository = nodeRepository;
+        this.timerConfig = timerConfig;
+        timerService.onFired(TIMER_PREFIX, this::onPhaseEnd);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        heartbeat();
+        log.info("Restored {} Pomodoro sessions", adopt(checkpointRepository.claim(timerConfig.getNodeId(), true, liveSince())));
+    }
+
+    /**
+     * Takes over the sessions of instances that stopped heartbeating
+     */
+    @Scheduled(fixedDelayString = "${timer.heartbeat-seconds:10}", timeUnit = TimeUnit.SECONDS)
+    public void adoptOrphans() {
+        heartbeat();
+        int adopted = adopt(checkpointRepository.claim(timerConfig.getNodeId(), false, liveSince()));
+        if (adopted > 0) {
+            log.info("Took over {} Pomodoro sessions from stopped instances", adopted);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        checkpoint();
+        if (!timerConfig.isShardingEnabled()) {
+            // Lets the others adopt our sessions now rather than once the heartbeat goes stale
+            nodeRepository.deleteById(timerConfig.getNodeId());
+        }
+    }
+
+    @Override
+    public Status start(String userId, String nomiId) {
+        long now = System.currentTimeMillis();
+        Session session = new Session(nomiId, stateMachine.start(now));
+        synchronized (writeLock(userId)) {
+            checkpointRepository.take(userId, nomiId, session.state(), LocalDateTime.now(), timerConfig.getNodeId());
+            sessions.put(userId, session);
+            dirty.remove(userId);
+        }
+        armCurrent(userId, session);
+        return status(session.state(), now);
+    }
+
+    @Override
+    public Optional<Status> pause(String userId) {
+        return update(userId, (state, now) -> stateMachine.pause(state, now));
+    }
+
+    @Override
+    public Optional<Status> resume(String userId) {
+        return update(userId, (state, now) -> stateMachine.resume(state, now));
+    }
+
+    @Override
+    public Optional<Status> skip(String userId) {
+        return update(userId, (state, now) -> stateMachine.skip(state, now));
+    }
+
+    @Override
+    public boolean stop(String userId) {
+        // A second pass if another instance took the session over meanwhile, to stop it there
+        for (int attempt = 0; attempt < 2; attempt++) {
+            if (!holds(userId) || sessions.remove(userId) == null) {
+                return false;
+            }
+            armCurrent(userId, null);
+            if (tryStore(userId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Optional<Status> status(String userId) {
+        long now = System.currentTimeMillis();
+        Session session = sessions.get(userId);
+        if (session != null) {
+            return Optional.of(status(session.state(), now));
+        }
+        // Run by another instance, as of its last write
+        return checkpointRepository.findById(userId).map(checkpoint -> status(checkpoint.getState(), now));
+    }
+
+    @Override
+    public int activeCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Retries the writes that failed
+     */
+    @Scheduled(fixedDelayString = "${pomodoro.checkpoint-seconds:30}", timeUnit = TimeUnit.SECONDS)
+    public void checkpoint() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        int written = 0;
+        for (String userId : List.copyOf(dirty)) {
+            try {
+                if (store(userId)) {
+                    written++;
+                } else {
+                    handOver(userId);
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to checkpoint {} Pomodoro sessions", dirty.size(), e);
+                return;
+            }
+        }
+        log.debug("Checkpointed {} Pomodoro sessions", written);
+    }
+
+    private Optional<Status> update(String userId, LongBinaryOperator transition) {
+        // A second pass if another instance took the session over meanwhile, to apply the command there
+        for (int attempt = 0; attempt < 2; attempt++) {
+            if (!holds(userId)) {
+                return Optional.empty();
+            }
+            long now = System.currentTimeMillis();
+            boolean[] changed = new boolean[1];
+            Session session = sessions.computeIfPresent(userId, (id, current) -> {
+                long next = transition.applyAsLong(current.state(), now);
+                if (next == current.state()) {
+                    return current;
+                }
+                changed[0] = true;
+                return next == ENDED ? null : new Session(current.nomiId(), next);
+            });
+            if (changed[0] && !tryStore(userId)) {
+                handOver(userId);
+                continue;
+            }
+            if (changed[0]) {
+                armCurrent(userId, session);
+            }
+            return session == null ? Optional.empty() : Optional.of(status(session.state(), now));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return true if this instance runs the user's session, taking it over from the instance running it
+     * if need be, or false if the user has none
+     */
+    private boolean holds(String userId) {
+        if (sessions.containsKey(userId)) {
+            return true;
+        }
+        checkpointRepository.takeOver(userId, timerConfig.getNodeId()).ifPresent(checkpoint -> {
+            log.info("Took over the Pomodoro session of user {}", userId);
+            adopt(List.of(checkpoint));
+        });
+        return sessions.containsKey(userId);
+    }
+
+    /**
+     * Writes the user's session as it is now, or removes its row if it has ended
+     * @return false if another instance has taken the session over
+     */
+    private boolean store(String userId) {
+        synchronized (writeLock(userId)) {
+            dirty.remove(userId);
+            Session session = sessions.get(userId);
+            try {
+                String ownerId = timerConfig.getNodeId();
+                int written = session == null
+                    ? checkpointRepository.deleteOwned(userId, ownerId)
+                    : checkpointRepository.updateOwned(userId, session.nomiId(), session.state(), LocalDateTime.now(), ownerId);
+                return written == 1;
+            } catch (RuntimeException e) {
+                dirty.add(userId);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Like {@link #store}, but carries on as the owner if the database can't be reached; the write is
+     * retried by {@link #checkpoint}
+     */
+    private boolean tryStore(String userId) {
+        try {
+            return store(userId);
+        } catch (RuntimeException e) {
+            log.error("Failed to write the Pomodoro session of user {}, will retry", userId, e);
+            return true;
+        }
+    }
+
+    /**
+     * Stops running a session that another instance has taken over
+     */
+    private void handOver(String userId) {
+        dirty.remove(userId);
+        if (sessions.remove(userId) != null) {
+            armCurrent(userId, null);
+            log.info("Pomodoro session of user {} was taken over by another instance", userId);
+        }
+    }
+
+    private Object writeLock(String userId) {
+        return writeLocks[Math.floorMod(userId.hashCode(), WRITE_LOCKS)];
+    }
+
+    // The shard coordinator heartbeats when timer sharding is on
+    private void heartbeat() {
+        if (!timerConfig.isShardingEnabled()) {
+            nodeRepository.heartbeat(timerConfig.getNodeId(), LocalDateTime.now());
+        }
+    }
+
+    private int adopt(List<PomodoroCheckpoint> checkpoints) {
+        int adopted = 0;
+        for (PomodoroCheckpoint checkpoint : checkpoints) {
+            Session session = new Session(checkpoint.getNomiId(), checkpoint.getState());
+            if (sessions.putIfAbsent(checkpoint.getUserId(), session) == null) {
+                armCurrent(checkpoint.getUserId(), session);
+                adopted++;
+            }
+        }
+        return adopted;
+    }
+
+    private LocalDateTime liveSince() {
+        return LocalDateTime.now().minusSeconds(timerConfig.getLeaseSeconds());
+    }
+
+    /**
+     * Arms the timer for {@code session}, or cancels it for null, then repeats for the user's session as
+     * it is by now until the two agree, so a concurrent update can't leave a stale timer behind
+     */
+    private void armCurrent(String userId, Session session) {
+        while (true) {
+            if (session == null) {
+                timerService.cancel(TIMER_PREFIX + userId);
+            } else {
+                arm(userId, session);
+            }
+            Session current = sessions.get(userId);
+            if (current == session) {
+                return;
+            }
+            session = current;
+        }
+    }
+
+    /**
+     * Sets the timer for the end of the session's current phase, or clears it while paused
+     */
+    private void arm(String userId, Session session) {
+        String timerId = TIMER_PREFIX + userId;
+        if (PomodoroStateMachine.isPaused(session.state())) {
+            timerService.cancel(timerId);
+            return;
+        }
+        PomodoroPhase phase = PomodoroStateMachine.phase(session.state());
+        timerService.schedule(new TimerService.ScheduledTimer(timerId, null, userId, session.nomiId(),
+            phase.name(), Instant.ofEpochMilli(PomodoroStateMachine.endsAt(session.state()))));
+    }
+
+    private void onPhaseEnd(TimerService.ScheduledTimer timer) {
+        String userId = timer.userId();
+        long now = System.currentTimeMillis();
+        Session[] ended = new Session[1];
+        Session next = sessions.computeIfPresent(userId, (id, session) -> {
+            // Pausing, skipping or restarting replaces the timer, but one may have fired just before
+            if (PomodoroStateMachine.isPaused(session.state())
+                    || PomodoroStateMachine.endsAt(session.state()) != timer.fireAt().toEpochMilli()) {
+                return session;
+            }
+            ended[0] = session;
+            long state = stateMachine.complete(session.state(), now);
+            return state == ENDED ? null : new Session(session.nomiId(), state);
+        });
+        if (ended[0] == null) {
+            return;
+        }
+        armCurrent(userId, next);
+        PomodoroPhase phase = PomodoroStateMachine.phase(ended[0].state());
+        LocalDateTime endedAt = LocalDateTime.now();
+        // Off the timer thread; the write also tells whether the follow-up is still ours to send
+        Mono.fromCallable(() -> tryStore(userId))
+            .subscribeOn(Schedulers.boundedElastic())
+            .subscribe(owned -> {
+                if (!owned) {
+                    handOver(userId);
+                    return;
+                }
+                messageDispatcher.dispatch(userId, ended[0].nomiId(), followUp(next));
+                if (phase == PomodoroPhase.WORK) {
+                    productivityService.recordPomodoroSession(userId, endedAt);
+                }
+            }, e -> log.error("Failed to finish Pomodoro phase for user {}", userId, e));
+    }
+
+    private String followUp(Session next) {
+        if (next == null) {
+            return "That's the end of your Pomodoro session. Great focus today!";
+        }
+        long minutes = TimeUnit.MILLISECONDS.toMinutes(stateMachine.durationMs(PomodoroStateMachine.phase(next.state())));
+        int cycles = PomodoroStateMachine.completedCycles(next.state());
+        return switch (PomodoroStateMachine.phase(next.state())) {
+            case SHORT_BREAK -> "Nice work, that's " + cycles + " done! Take a " + minutes + " minute break.";
+            case LONG_BREAK -> "That's " + cycles + " Pomodoros, well done! Enjoy a " + minutes + " minute break.";
+            case WORK -> "Break's over. Back to it for " + minutes + " minutes.";
+        };
+    }
+
+    private static Status status(long state, long now) {
+        return new Status(PomodoroStateMachine.phase(state), PomodoroStateMachine.completedCycles(state),
+            PomodoroStateMachine.isPaused(state), Duration.ofMillis(PomodoroStateMachine.remainingMs(state, now)));
+    }
+}
@@ -0,0 +1,86 @@
+package com.charleezy.maya.service.impl;
+
+import com.charleezy.maya.config.ProductivityConfig;
+import com.charleezy.maya.model.ProductivityRollup;
+import com.charleezy.maya.model.RollupPeriod;
+import com.charleezy.maya.model.TaskCompletionChangedEvent;
+import com.charleezy.maya.model.dto.ProductivityStats;
+import com.charleezy.maya.repository.ProductivityRollupRepository;
+import com.charleezy.maya.service.ProductivityService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+/**
+ * Maintains {@link ProductivityRollup} rows incrementally: each task completion (or reversal) adds
+ * its deltas to the day and ISO week it belongs to with a single upsert of both rows. Days and weeks
+ * are the user's own, per {@link ProductivityConfig}; timestamps are stored in the server's zone.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductivityServiceImpl implements ProductivityService {
+    private final ProductivityRollupRepository rollupRepository;
+    private final ProductivityConfig productivityConfig;
+
+    @Override
+    public List<ProductivityStats> stats(String userId, RollupPeriod period, LocalDate from, LocalDate to) {
+        return rollupRepository.findRange(userId, period, periodStart(period, from), periodStart(period, to)).stream()
+            .map(ProductivityServiceImpl::toStats)
+            .toList();
+    }
+
+    @Override
+    public void recordPomodoroSession(String userId, LocalDateTime endedAt) {
+        add(userId, endedAt, 0, 0, 0, 0, 1);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskCompletionChanged(TaskCompletionChangedEvent event) {
+        int delta = event.delta();
+        try {
+            add(event.userId(), event.completedAt(), delta, event.onTime() ? delta : 0,
+                delta * event.plannedMinutes(), delta * event.estimatedMinutes(), 0);
+        } catch (RuntimeException e) {
+            log.error("Failed to update productivity rollups for task {}", event.taskId(), e);
+        }
+    }
+
+    private void add(String userId, LocalDateTime at, int completed, int onTime, int planned, int estimated, int pomodoros) {
+        LocalDate day = localDay(userId, at);
+        rollupRepository.add(userId, day, periodStart(RollupPeriod.WEEK, day),
+            completed, onTime, planned, estimated, pomodoros, LocalDateTime.now());
+    }
+
+    /**
+     * The day {@code at}, a server-zone timestamp, falls on for the user
+     */
+    private LocalDate localDay(String userId, LocalDateTime at) {
+        String zone = productivityConfig.getUserZones().getOrDefault(userId, productivityConfig.getDefaultZone());
+        return at.atZone(ZoneId.systemDefault()).withZoneSameInstant(ZoneId.of(zone)).toLocalDate();
+    }
+
+    static LocalDate periodStart(RollupPeriod period, LocalDate day) {
+        return period == RollupPeriod.WEEK ? day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)) : day;
+    }
+
+    private static ProductivityStats toStats(ProductivityRollup rollup) {
+        return ProductivityStats.builder()
+            .period(rollup.getKey().getPeriod())
+            .periodStart(rollup.getKey().getPeriodStart())
+            .completedCount(rollup.getCompletedCount())
+            .onTimeRate(rollup.getCompletedCount() > 0 ? (double) rollup.getOnTimeCount() / rollup.getCompletedCount() : 0)
+            .plannedMinutes(rollup.getPlannedMinutes())
+            .estimatedMinutes(rollup.getEstimatedMinutes())
+            .pomodoroSessions(rollup.getPomodoroSessions())
+            .build();
+    }
+}
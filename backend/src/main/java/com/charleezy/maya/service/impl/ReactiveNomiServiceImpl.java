@@ -0,0 +1,182 @@
+package com.charleezy.maya.service.impl;
+
+import com.charleezy.maya.config.NomiConfig;
+import com.charleezy.maya.model.CacheInvalidationEvent;
+import com.charleezy.maya.model.dto.NomiMessage;
+import com.charleezy.maya.model.dto.NomiResponse;
+import com.charleezy.maya.service.CallMetrics;
+import com.charleezy.maya.service.NomiCredentialService;
+import com.charleezy.maya.service.ReactiveNomiService;
+import com.charleezy.maya.service.RefreshingCache;
+import com.charleezy.maya.service.TenantGuard;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.tracing.Tracer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Nomi API client on the shared {@code nomiWebClient}. Nothing here blocks; responses are decoded on
+ * the client's event loop.
+ *
+ * Every tenant (user) goes through the same client and connection pool, with their own API key set on
+ * each request. A {@link TenantGuard} gives each tenant its own rate limit, and pauses a tenant whose
+ * calls keep being rejected as a client error (revoked key, upstream rate limit) instead of letting it
+ * keep occupying connections.
+ *
+ * Nomi profiles hardly ever change but are needed for every reply, so {@link #getNomi} and
+ * {@link #listNomis} answer from a per-tenant {@link RefreshingCache}. Publishing a
+ * {@link CacheInvalidationEvent} for {@link #CACHE_NAME} with a user id drops that user's entries, as
+ * does a change to their API key, which may point at another account.
+ *
+ * Calls that reach the network are metered and traced under the {@code nomi} component; cache hits
+ * are not.
+ */
+@Slf4j
+@Service
+public class ReactiveNomiServiceImpl implements ReactiveNomiService {
+    public static final String CACHE_NAME = "nomi-metadata";  // keyed by user id
+    private static final long IDLE_TENANT_MS = Duration.ofMinutes(30).toMillis();
+
+    private record NomiKey(String userId, String nomiId) {}
+
+    private final NomiConfig nomiConfig;
+    private final WebClient nomiWebClient;
+    private final NomiCredentialService nomiCredentialService;
+    private final TenantGuard tenantGuard;
+    private final Duration messageTimeout;
+    private final RefreshingCache<NomiKey, NomiResponse.Nomi> nomis;
+    private final RefreshingCache<String, List<NomiResponse.Nomi>> nomiLists;
+    private final CallMetrics callMetrics;
+
+    public ReactiveNomiServiceImpl(NomiConfig nomiConfig, @Qualifier("nomiWebClient") WebClient nomiWebClient,
+                                   NomiCredentialService nomiCredentialService, MeterRegistry meterRegistry,
+                                   Tracer tracer) {
+        this.nomiConfig = nomiConfig;
+        this.nomiWebClient = nomiWebClient;
+        this.nomiCredentialService = nomiCredentialService;
+        this.tenantGuard = new TenantGuard(nomiConfig.getTenantRequestsPerSecond(), nomiConfig.getTenantBurst(),
+            nomiConfig.getTenantFailureThreshold(), nomiConfig.getTenantCooldownSeconds() * 1000L,
+            System::currentTimeMillis);
+        this.messageTimeout = Duration.ofSeconds(nomiConfig.getMessageTimeout());
+        long ttlMs = Duration.ofMinutes(nomiConfig.getMetadataTtlMinutes()).toMillis();
+        long staleMs = Duration.ofMinutes(nomiConfig.getMetadataStaleMinutes()).toMillis();
+        this.nomis = new RefreshingCache<>(ttlMs, staleMs, nomiConfig.getMetadataMaxEntries(), System::currentTimeMillis);
+        this.nomiLists = new RefreshingCache<>(ttlMs, staleMs, nomiConfig.getMetadataMaxEntries(), System::currentTimeMillis);
+        this.callMetrics = new CallMetrics(meterRegistry, tracer, "nomi");
+    }
+
+    @Override
+    public Mono<NomiResponse> sendMessage(String userId, String nomiId, NomiMessage message) {
+        return callMetrics.record("sendMessage", admit(userId)
+            .flatMap(apiKey -> nomiWebClient.post()
+                .uri("/nomis/{id}/chat", nomiId)
+                .header(HttpHeaders.AUTHORIZATION, apiKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(message)
+                .retrieve()
+                .bodyToMono(NomiResponse.class))
+            // Nomis can take a while to compose a reply; the timeout also cancels the request
+            .timeout(messageTimeout)
+            .doOnSuccess(response -> tenantGuard.recordSuccess(userId))
+            .doOnError(e -> recordError(userId, e)));
+    }
+
+    @Override
+    public Flux<NomiResponse.Nomi> listNomis(String userId) {
+        return nomiLists.get(userId, () -> fetchNomis(userId)
+                .doOnNext(nomi -> nomis.put(new NomiKey(userId, nomi.getUuid()), nomi))
+                .collectList())
+            .flatMapIterable(list -> list);
+    }
+
+    @Override
+    public Mono<NomiResponse.Nomi> getNomi(String userId, String nomiId) {
+        return nomis.get(new NomiKey(userId, nomiId), () -> fetchNomi(userId, nomiId));
+    }
+
+    @Override
+    public TenantGuard.Stats usage(String userId) {
+        return tenantGuard.stats(userId);
+    }
+
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        boolean metadata = event.appliesTo(CACHE_NAME);
+        if (!metadata && !event.appliesTo(NomiCredentialServiceImpl.CACHE_NAME)) {
+            return;
+        }
+        if (event.key() == null) {
+            // Flushing the credential cache is not a key change
+            if (metadata) {
+                nomis.clear();
+                nomiLists.clear();
+            }
+            return;
+        }
+        nomis.invalidateIf(key -> key.userId().equals(event.key()));
+        nomiLists.invalidateIf(userId -> userId.equals(event.key()));
+    }
+
+    private Flux<NomiResponse.Nomi> fetchNomis(String userId) {
+        // A top-level JSON array is decoded element by element, so each Nomi is emitted as it arrives
+        return callMetrics.record("listNomis", admit(userId)
+            .flatMapMany(apiKey -> nomiWebClient.get()
+                .uri("/nomis")
+                .header(HttpHeaders.AUTHORIZATION, apiKey)
+                .retrieve()
+                .bodyToFlux(NomiResponse.Nomi.class))
+            .doOnComplete(() -> tenantGuard.recordSuccess(userId))
+            .doOnError(e -> recordError(userId, e)));
+    }
+
+    private Mono<NomiResponse.Nomi> fetchNomi(String userId, String nomiId) {
+        return callMetrics.record("getNomi", admit(userId)
+            .flatMap(apiKey -> nomiWebClient.get()
+                .uri("/nomis/{id}", nomiId)
+                .header(HttpHeaders.AUTHORIZATION, apiKey)
+                .retrieve()
+                .bodyToMono(NomiResponse.Nomi.class))
+            .doOnSuccess(nomi -> tenantGuard.recordSuccess(userId))
+            .doOnError(e -> recordError(userId, e)));
+    }
+
+    @Scheduled(fixedDelayString = "PT10M")
+    public void evictIdleTenants() {
+        int evicted = tenantGuard.evictIdle(IDLE_TENANT_MS);
+        log.debug("Forgot rate limit state of {} idle Nomi tenants", evicted);
+    }
+
+    /**
+     * Takes the user's rate limit token, waiting for it if that's quick, then resolves their API key
+     */
+    private Mono<String> admit(String userId) {
+        return Mono.defer(() -> {
+            long waitMs = tenantGuard.reserve(userId, nomiConfig.getTenantMaxWaitMs());
+            if (waitMs < 0) {
+                return Mono.error(new IllegalStateException("Nomi calls for user " + userId + " are being throttled"));
+            }
+            Mono<String> apiKey = nomiCredentialService.apiKey(userId)
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("No Nomi API key for user " + userId)));
+            return waitMs == 0 ? apiKey : Mono.delay(Duration.ofMillis(waitMs)).then(apiKey);
+        });
+    }
+
+    private void recordError(String userId, Throwable e) {
+        // Only errors the tenant causes count towards pausing it; 5xx and timeouts are on Nomi
+        if (e instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError()) {
+            tenantGuard.recordFailure(userId);
+        }
+    }
+}
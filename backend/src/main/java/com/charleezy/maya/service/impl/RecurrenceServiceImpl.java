@@ -0,0 +1,159 @@
+package com.charleezy.maya.service.impl;
+
+import com.charleezy.maya.model.CacheInvalidationEvent;
+import com.charleezy.maya.model.CalendarItemChangedEvent;
+import com.charleezy.maya.model.ItemType;
+import com.charleezy.maya.model.Task;
+import com.charleezy.maya.service.RecurrenceRule;
+import com.charleezy.maya.service.RecurrenceService;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Expands task recurrences on demand and remembers the most recent window per task.
+ *
+ * A cached window is stored as a primitive array of epoch seconds rather than a list of
+ * {@link LocalDateTime}s, and only windows with at most {@value #MAX_CACHED_OCCURRENCES} occurrences
+ * are kept; anything larger is streamed straight from the rule. Entries are keyed by task ID, checked
+ * against the task's pattern, start and {@code updatedAt}, and dropped when the task changes, or with
+ * all of the user's entries when a bulk change (or a collapsed burst from another instance) arrives
+ * without an item ID.
+ */
+@Service
+public class RecurrenceServiceImpl implements RecurrenceService {
+    public static final String CACHE_NAME = "recurrence";  // keyed by task id
+    private static final int MAX_CACHED_TASKS = 10_000;
+    private static final int MAX_CACHED_OCCURRENCES = 512;
+
+    private record CachedWindow(String userId, String pattern, LocalDateTime start, LocalDateTime updatedAt,
+                                RecurrenceRule rule, LocalDateTime from, LocalDateTime to, long[] epochSeconds, int size) {
+
+        boolean matches(Task task) {
+            return pattern.equals(task.getRecurrencePattern())
+                && start.equals(task.getScheduledTime())
+                && Objects.equals(updatedAt, task.getUpdatedAt());
+        }
+
+        boolean covers(LocalDateTime windowFrom, LocalDateTime windowTo) {
+            return epochSeconds != null && !from.isAfter(windowFrom) && !to.isBefore(windowTo);
+        }
+    }
+
+    private final Map<Long, CachedWindow> cache = Collections.synchronizedMap(
+        new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedWindow> eldest) {
+                return size() > MAX_CACHED_TASKS;
+            }
+        });
+
+    @Override
+    public Stream<LocalDateTime> occurrences(Task task, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = task.getScheduledTime();
+        if (!Boolean.TRUE.equals(task.getIsRecurring()) || task.getRecurrencePattern() == null) {
+            return start != null && !start.isBefore(from) && start.isBefore(to) ? Stream.of(start) : Stream.empty();
+        }
+
+        CachedWindow cached = task.getId() != null ? cache.get(task.getId()) : null;
+        if (cached != null && !cached.matches(task)) {
+            cached = null;
+        }
+        if (cached != null && cached.covers(from, to)) {
+            return slice(cached, from, to, start.getNano());
+        }
+
+        RecurrenceRule rule = cached != null ? cached.rule() : RecurrenceRule.parse(task.getRecurrencePattern());
+        Iterator<LocalDateTime> iterator = rule.between(start, from, to).iterator();
+        long[] buffer = new long[16];
+        int size = 0;
+        while (iterator.hasNext()) {
+            if (size == MAX_CACHED_OCCURRENCES) {
+                // Too big to be worth caching: hand back what we have and stream the rest lazily
+                if (task.getId() != null) {
+                    cache.put(task.getId(), new CachedWindow(task.getUserId(), task.getRecurrencePattern(), start,
+                        task.getUpdatedAt(), rule, from, to, null, 0));
+                }
+                Stream<LocalDateTime> rest = StreamSupport.stream(
+                    Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+                return Stream.concat(decode(buffer, 0, size, start.getNano()), rest);
+            }
+            if (size == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            buffer[size++] = iterator.next().toEpochSecond(ZoneOffset.UTC);
+        }
+
+        if (task.getId() != null) {
+            cache.put(task.getId(), new CachedWindow(task.getUserId(), task.getRecurrencePattern(), start,
+                task.getUpdatedAt(), rule, from, to, buffer, size));
+        }
+        return decode(buffer, 0, size, start.getNano());
+    }
+
+    @Override
+    public void invalidate(Long taskId) {
+        cache.remove(taskId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCalendarItemChanged(CalendarItemChangedEvent event) {
+        if (event.itemId() == null) {
+            if (event.userId() != null) {
+                synchronized (cache) {
+                    cache.values().removeIf(window -> event.userId().equals(window.userId()));
+                }
+            }
+        } else if (event.type() == ItemType.TASK) {
+            invalidate(event.itemId());
+        }
+    }
+
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        if (!event.appliesTo(CACHE_NAME)) {
+            return;
+        }
+        if (event.key() == null) {
+            cache.clear();
+        } else {
+            invalidate(Long.valueOf(event.key()));
+        }
+    }
+
+    private Stream<LocalDateTime> slice(CachedWindow cached, LocalDateTime from, LocalDateTime to, int nano) {
+        long fromSecond = from.toEpochSecond(ZoneOffset.UTC);
+        long toSecond = to.toEpochSecond(ZoneOffset.UTC);
+        int lo = lowerBound(cached.epochSeconds(), cached.size(), fromSecond);
+        int hi = lowerBound(cached.epochSeconds(), cached.size(), toSecond);
+        // Sub-second precision lives in the task's start time; re-check the edges with it applied
+        return decode(cached.epochSeconds(), lo, Math.min(hi + 1, cached.size()), nano)
+            .filter(occurrence -> !occurrence.isBefore(from) && occurrence.isBefore(to));
+    }
+
+    private static Stream<LocalDateTime> decode(long[] epochSeconds, int from, int to, int nano) {
+        return LongStream.of(epochSeconds).skip(from).limit(Math.max(to - from, 0))
+            .mapToObj(second -> LocalDateTime.ofEpochSecond(second, nano, ZoneOffset.UTC));
+    }
+
+    private static int lowerBound(long[] values, int size, long key) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
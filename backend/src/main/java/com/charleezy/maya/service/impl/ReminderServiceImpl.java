@@ -0,0 +1,77 @@
+package com.charleezy.maya.service.impl;
+
+import com.charleezy.maya.config.TimerConfig;
+import com.charleezy.maya.model.ItemStatus;
+import com.charleezy.maya.model.Task;
+import com.charleezy.maya.repository.TaskRepository;
+import com.charleezy.maya.service.GoogleCalendarService;
+import com.charleezy.maya.service.ReminderService;
+import com.charleezy.maya.service.TaskStatusService;
+import com.charleezy.maya.service.TimerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReminderServiceImpl implements ReminderService {
+    private final TimerConfig timerConfig;
+    private final TimerService timerService;
+    private final GoogleCalendarService googleCalendarService;
+    private final TaskRepository taskRepository;
+    private final TaskStatusService taskStatusService;
+
+    @Override
+    public String scheduleReminder(String userId, String nomiId, String summary, Instant remindAt) {
+        Duration horizon = Duration.ofHours(timerConfig.getInProcessHorizonHours());
+        if (remindAt.isBefore(Instant.now().plus(horizon))) {
+            // Persist first so the timer survives a restart; the task row is the durable timer
+            LocalDateTime scheduledTime = LocalDateTime.ofInstant(remindAt, ZoneId.systemDefault());
+            Task task = new Task();
+            task.setTitle(summary);
+            task.setUserId(userId);
+            task.setNomiId(nomiId);
+            task.setTimerShard(timerConfig.shardOf(userId));
+            task.setScheduledTime(scheduledTime);
+            task.setDueDate(scheduledTime);
+            task = taskRepository.save(task);
+
+            // Arm locally even if another instance owns the shard: it's the most accurate path, and the
+            // owner's sweep plus the claim on delivery keep it from being lost or delivered twice
+            String timerId = String.valueOf(task.getId());
+            timerService.schedule(new TimerService.ScheduledTimer(timerId, task.getId(), userId, nomiId, summary, remindAt));
+            return timerId;
+        }
+
+        log.info("Reminder for user {} at {} is beyond the in-process horizon, creating calendar reminder", userId, remindAt);
+        return googleCalendarService.createReminder(summary, null, remindAt.toString()).getId();
+    }
+
+    @Override
+    public boolean cancelReminder(String userId, String reminderId) {
+        if (reminderId.isEmpty() || !reminderId.chars().allMatch(Character::isDigit)) {
+            googleCalendarService.deleteEvent(reminderId);
+            return true;
+        }
+        long taskId = Long.parseLong(reminderId);
+        if (taskRepository.findById(taskId).filter(task -> userId.equals(task.getUserId())).isEmpty()) {
+            return false;
+        }
+        // Loses to a delivery that already claimed the task. The timer only goes once the task is
+        // CANCELLED, so a reminder left PENDING keeps its timer; one that fires meanwhile finds it cancelled
+        boolean cancelled = Boolean.TRUE.equals(taskStatusService.transition(List.of(taskId), ItemStatus.PENDING, ItemStatus.CANCELLED)
+            .hasElements()
+            .block());
+        if (cancelled) {
+            timerService.cancel(reminderId);
+        }
+        return cancelled;
+    }
+}
@@ -0,0 +1,49 @@
+package com.charleezy.maya.service.impl;
+
+import com.charleezy.maya.model.ItemStatus;
+import com.charleezy.maya.model.ItemType;
+import com.charleezy.maya.model.dto.SearchResult;
+import com.charleezy.maya.repository.CalendarItemRepository;
+import com.charleezy.maya.repository.SearchHit;
+import com.charleezy.maya.service.SearchQuery;
+import com.charleezy.maya.service.SearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+public class SearchServiceImpl implements SearchService {
+    private final CalendarItemRepository calendarItemRepository;
+
+    @Override
+    public List<SearchResult> search(String userId, String text, int page, int size) {
+        String query = SearchQuery.toPrefixQuery(text);
+        if (query == null) {
+            return List.of();
+        }
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return calendarItemRepository.search(userId, query, limit, Math.max(0, page) * limit).stream()
+            .map(SearchServiceImpl::toResult)
+            .toList();
+    }
+
+    @Override
+    public Optional<SearchResult> bestMatch(String userId, String text) {
+        return search(userId, text, 0, 1).stream().findFirst();
+    }
+
+    private static SearchResult toResult(SearchHit hit) {
+        return SearchResult.builder()
+            .id(hit.getId())
+            .type(ItemType.values()[hit.getType()])
+            .title(hit.getTitle())
+            .status(ItemStatus.valueOf(hit.getStatus()))
+            .startsAt(hit.getStartsAt())
+            .endsAt(hit.getEndsAt())
+            .rank(hit.getRank())
+            .build();
+    }
+}
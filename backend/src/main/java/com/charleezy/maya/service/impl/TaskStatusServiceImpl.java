@@ -0,0 +1,66 @@
+package com.charleezy.maya.service.impl;
+
+import com.charleezy.maya.model.CalendarItemChangedEvent;
+import com.charleezy.maya.model.ItemStatus;
+import com.charleezy.maya.model.ItemType;
+import com.charleezy.maya.model.TaskCompletionChangedEvent;
+import com.charleezy.maya.repository.ReactiveTaskStatusRepository;
+import com.charleezy.maya.repository.StatusTransition;
+import com.charleezy.maya.service.TaskStatusService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Status transitions over {@link ReactiveTaskStatusRepository}. The write itself never blocks; the
+ * change events it owes the rest of the app (caches, availability, rollups) are published once per
+ * batch on the bounded elastic scheduler, since their listeners read and write through JPA.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TaskStatusServiceImpl implements TaskStatusService {
+    private final ReactiveTaskStatusRepository reactiveTaskStatusRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public Flux<Long> transition(Collection<Long> taskIds, ItemStatus expected, ItemStatus target) {
+        if (taskIds.isEmpty() || expected == target) {
+            return Flux.empty();
+        }
+        LocalDateTime at = LocalDateTime.now();
+        return reactiveTaskStatusRepository.transition(taskIds, expected, target, at)
+            .collectList()
+            .publishOn(Schedulers.boundedElastic())
+            .doOnNext(transitions -> publish(transitions, expected, target, at))
+            .flatMapIterable(transitions -> transitions)
+            .map(StatusTransition::id);
+    }
+
+    private void publish(List<StatusTransition> transitions, ItemStatus expected, ItemStatus target, LocalDateTime at) {
+        boolean wasCompleted = expected == ItemStatus.COMPLETED;
+        boolean isCompleted = target == ItemStatus.COMPLETED;
+        for (StatusTransition transition : transitions) {
+            try {
+                eventPublisher.publishEvent(new CalendarItemChangedEvent(
+                    transition.id(), transition.userId(), ItemType.TASK, CalendarItemChangedEvent.ChangeType.UPDATED));
+                // Same rule as the entity listener: reminder tasks completing when they fire aren't user work
+                if (wasCompleted != isCompleted && transition.nomiId() == null) {
+                    LocalDateTime completedAt = isCompleted ? transition.completedAt() : transition.previousCompletedAt();
+                    eventPublisher.publishEvent(TaskCompletionChangedEvent.of(transition.id(), transition.userId(),
+                        isCompleted, completedAt != null ? completedAt : at,
+                        transition.startsAt(), transition.endsAt(), transition.estimatedMinutes(), transition.dueDate()));
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to publish status change of task {} to {}", transition.id(), target, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.charleezy.maya.service.impl;
+
+import com.charleezy.maya.config.TimerConfig;
+import com.charleezy.maya.repository.PendingTimer;
+import com.charleezy.maya.repository.TaskRepository;
+import com.charleezy.maya.service.TimerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Re-arms in-process timers from pending {@code Task} rows.
+ *
+ * Rows are streamed in keyset pages ordered by (scheduledTime, id), so memory stays flat and each
+ * page is an index range scan rather than an OFFSET. Timers that came due while nobody owned them
+ * are spread out at {@code timer.catch-up-per-second} instead of all firing in the same instant.
+ * Without sharding every shard is recovered on startup; with sharding the
+ * {@link TimerShardCoordinator} recovers shards as it acquires them.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TimerRecovery {
+    static final LocalDateTime KEYSET_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final TimerConfig timerConfig;
+    private final TaskRepository taskRepository;
+    private final TimerService timerService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverAll() {
+        if (!timerConfig.isShardingEnabled()) {
+            recover(IntStream.range(0, timerConfig.getShardCount()).boxed().toList(), KEYSET_START);
+        }
+    }
+
+    /**
+     * Arms timers for pending tasks in the given shards created at or after {@code createdSince}.
+     * Re-arming a timer that is already pending just replaces it.
+     * @return number of timers armed
+     */
+    public int recover(Collection<Integer> shards, LocalDateTime createdSince) {
+        long started = System.currentTimeMillis();
+        Instant now = Instant.now();
+        LocalDateTime until = LocalDateTime.ofInstant(
+            now.plus(Duration.ofHours(timerConfig.getInProcessHorizonHours())), ZoneId.systemDefault());
+        long catchUpSpacingMicros = 1_000_000L / Math.max(timerConfig.getCatchUpPerSecond(), 1);
+        Pageable page = Pageable.ofSize(timerConfig.getRecoveryPageSize());
+
+        LocalDateTime afterTime = KEYSET_START;
+        Long afterId = 0L;
+        int recovered = 0;
+        int overdue = 0;
+        List<PendingTimer> batch;
+        do {
+            batch = taskRepository.findPendingTimersAfter(shards, createdSince, until, afterTime, afterId, page);
+            for (PendingTimer pending : batch) {
+                Instant fireAt = pending.scheduledTime().atZone(ZoneId.systemDefault()).toInstant();
+                if (!fireAt.isAfter(now)) {
+                    fireAt = now.plusNanos(overdue * catchUpSpacingMicros * 1_000L);
+                    overdue++;
+                }
+                timerService.schedule(new TimerService.ScheduledTimer(
+                    String.valueOf(pending.id()), pending.id(), pending.userId(), pending.nomiId(), pending.title(), fireAt));
+                recovered++;
+            }
+            if (!batch.isEmpty()) {
+                PendingTimer last = batch.get(batch.size() - 1);
+                afterTime = last.scheduledTime();
+                afterId = last.id();
+            }
+        } while (batch.size() == page.getPageSize());
+
+        if (recovered > 0) {
+            log.info("Recovered {} pending timers ({} overdue) from {} shards in {} ms",
+                recovered, overdue, shards.size(), System.currentTimeMillis() - started);
+        }
+        return recovered;
+    }
+}
@@ -0,0 +1,177 @@
+package com.charleezy.maya.service.impl;
+
+import com.charleezy.maya.config.TimerConfig;
+import com.charleezy.maya.model.ItemStatus;
+import com.charleezy.maya.service.MessageDispatcher;
+import com.charleezy.maya.service.TaskStatusService;
+import com.charleezy.maya.service.TimerService;
+import com.charleezy.maya.service.TimingWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Fires short reminders in-process on a {@link TimingWheel}. A single reaper thread advances the
+ * wheel and hands fired reminders to the {@link MessageDispatcher}, so slow HTTP calls never delay
+ * other timers or tie up threads.
+ * Timers backed by a {@code Task} are claimed with a conditional PENDING to COMPLETED update before
+ * delivery, so a task is never delivered twice even if it was re-armed after a restart. Timers that
+ * fire together are claimed together, in one non-blocking update per reaper pass.
+ */
+@Slf4j
+@Service
+public class TimerServiceImpl implements TimerService {
+    private static final long REAPER_POLL_MS = 200;
+
+    private final TimerConfig timerConfig;
+    private final MessageDispatcher messageDispatcher;
+    private final TaskStatusService taskStatusService;
+    private final Map<String, TimingWheel.Entry<ScheduledTimer>> pending = new ConcurrentHashMap<>();
+    private final Queue<ScheduledTimer> fired = new ConcurrentLinkedQueue<>();
+    private final Map<String, Consumer<ScheduledTimer>> handlers = new ConcurrentHashMap<>();
+    private TimingWheel<ScheduledTimer> wheel;
+    private Thread reaper;
+    private volatile boolean running;
+
+    public TimerServiceImpl(TimerConfig timerConfig, MessageDispatcher messageDispatcher,
+                            TaskStatusService taskStatusService) {
+        this.timerConfig = timerConfig;
+        this.messageDispatcher = messageDispatcher;
+        this.taskStatusService = taskStatusService;
+    }
+
+    @PostConstruct
+    public void start() {
+        wheel = new TimingWheel<>(timerConfig.getTickMs(), timerConfig.getWheelSize(), this::onExpired);
+        running = true;
+        reaper = new Thread(this::runReaper, "maya-timer-reaper");
+        reaper.setDaemon(true);
+        reaper.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        reaper.interrupt();
+    }
+
+    @Override
+    public void schedule(ScheduledTimer timer) {
+        cancel(timer.id());
+        long delayMs = Duration.between(Instant.now(), timer.fireAt()).toMillis();
+        TimingWheel.Entry<ScheduledTimer> entry = wheel.schedule(timer, delayMs);
+        pending.put(timer.id(), entry);
+        if (entry.isExpired()) {
+            // Fired before it was registered; don't leave a stale handle behind
+            pending.remove(timer.id(), entry);
+            claimFired();
+            return;
+        }
+        log.debug("Scheduled timer {} for user {} in {} ms", timer.id(), timer.userId(), delayMs);
+    }
+
+    @Override
+    public void onFired(String idPrefix, Consumer<ScheduledTimer> handler) {
+        handlers.put(idPrefix, handler);
+    }
+
+    @Override
+    public boolean cancel(String timerId) {
+        TimingWheel.Entry<ScheduledTimer> entry = pending.remove(timerId);
+        return entry != null && entry.cancel();
+    }
+
+    @Override
+    public int cancelIf(Predicate<ScheduledTimer> predicate) {
+        int cancelled = 0;
+        for (Map.Entry<String, TimingWheel.Entry<ScheduledTimer>> timer : pending.entrySet()) {
+            if (predicate.test(timer.getValue().getPayload())
+                    && pending.remove(timer.getKey(), timer.getValue())
+                    && timer.getValue().cancel()) {
+                cancelled++;
+            }
+        }
+        return cancelled;
+    }
+
+    @Override
+    public int pendingCount() {
+        return wheel.size();
+    }
+
+    private void runReaper() {
+        while (running) {
+            try {
+                wheel.advanceClock(REAPER_POLL_MS);
+                claimFired();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Timer reaper failed to advance the wheel", e);
+            }
+        }
+    }
+
+    private void onExpired(ScheduledTimer timer) {
+        pending.computeIfPresent(timer.id(), (id, entry) -> entry.getPayload() == timer ? null : entry);
+        fired.add(timer);
+    }
+
+    /**
+     * Claims the tasks of everything fired so far in one batched update, then dispatches the timers
+     * that won their claim. Only subscribes, so it is safe to call from the reaper.
+     */
+    private void claimFired() {
+        List<ScheduledTimer> batch = new ArrayList<>();
+        for (ScheduledTimer timer = fired.poll(); timer != null; timer = fired.poll()) {
+            batch.add(timer);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Long> taskIds = batch.stream().map(ScheduledTimer::taskId).filter(Objects::nonNull).toList();
+        taskStatusService.transition(taskIds, ItemStatus.PENDING, ItemStatus.COMPLETED)
+            .collect(HashSet<Long>::new, HashSet::add)
+            .subscribe(claimed -> {
+                for (ScheduledTimer timer : batch) {
+                    if (timer.taskId() == null || claimed.contains(timer.taskId())) {
+                        deliver(timer);
+                    } else {
+                        log.info("Timer {} for task {} was already handled, skipping", timer.id(), timer.taskId());
+                    }
+                }
+            }, e -> log.error("Failed to claim {} fired timers", batch.size(), e));
+    }
+
+    private void deliver(ScheduledTimer timer) {
+        log.info("Timer {} fired for user {}", timer.id(), timer.userId());
+        for (Map.Entry<String, Consumer<ScheduledTimer>> handler : handlers.entrySet()) {
+            if (timer.id().startsWith(handler.getKey())) {
+                try {
+                    handler.getValue().accept(timer);
+                } catch (RuntimeException e) {
+                    log.error("Handler for timer {} failed", timer.id(), e);
+                }
+                return;
+            }
+        }
+        if (!messageDispatcher.dispatch(timer.userId(), timer.nomiId(), timer.message())) {
+            log.error("Dropped timer {} for user {}: dispatch queue is full", timer.id(), timer.userId());
+        }
+    }
+}
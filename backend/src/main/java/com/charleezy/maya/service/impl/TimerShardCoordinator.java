@@ -0,0 +1,154 @@
+package com.charleezy.maya.service.impl;
+
+import com.charleezy.maya.config.TimerConfig;
+import com.charleezy.maya.repository.TimerNodeRepository;
+import com.charleezy.maya.repository.TimerShardLeaseRepository;
+import com.charleezy.maya.service.TimerService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spreads timer shards across running instances using leases in Postgres.
+ *
+ * Every heartbeat each instance records itself in {@code timer_nodes}, works out which shards it should
+ * own by rendezvous hashing over the live instances (so a join or leave only moves the shards that
+ * have to move), releases the rest and takes or renews leases on its own. A shard that is gained is
+ * recovered from the database; a shard that is released or lost has its local timers cancelled first.
+ * Handover can't double-deliver because delivery claims the task row, and it can't lose timers
+ * because the new owner re-arms everything still PENDING.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "timer.sharding-enabled", havingValue = "true")
+public class TimerShardCoordinator {
+    private final TimerConfig timerConfig;
+    private final TimerNodeRepository nodeRepository;
+    private final TimerShardLeaseRepository leaseRepository;
+    private final TimerService timerService;
+    private final TimerRecovery timerRecovery;
+    private final String nodeId;
+    private Set<Integer> ownedShards = new HashSet<>();
+    private LocalDateTime lastSweep;
+
+    public TimerShardCoordinator(TimerConfig timerConfig,
+                                 TimerNodeRepository nodeRepository,
+                                 TimerShardLeaseRepository leaseRepository,
+                                 TimerService timerService,
+                                 TimerRecovery timerRecovery) {
+        this.timerConfig = timerConfig;
+        this.nodeRepository = nodeRepository;
+        this.leaseRepository = leaseRepository;
+        this.timerService = timerService;
+        this.timerRecovery = timerRecovery;
+        this.nodeId = timerConfig.getNodeId();
+    }
+
+    @Scheduled(fixedDelayString = "${timer.heartbeat-seconds:10}", timeUnit = TimeUnit.SECONDS)
+    public synchronized void rebalance() {
+        LocalDateTime now = LocalDateTime.now();
+        nodeRepository.heartbeat(nodeId, now);
+        List<String> liveNodes = new ArrayList<>(nodeRepository.findLiveNodeIds(now.minusSeconds(timerConfig.getLeaseSeconds())));
+        if (!liveNodes.contains(nodeId)) {
+            liveNodes.add(nodeId);
+        }
+
+        Set<Integer> desired = new HashSet<>();
+        for (int shard = 0; shard < timerConfig.getShardCount(); shard++) {
+            if (nodeId.equals(preferredOwner(shard, liveNodes))) {
+                desired.add(shard);
+            }
+        }
+
+        for (Integer shard : ownedShards) {
+            if (!desired.contains(shard)) {
+                dropShard(shard);
+                leaseRepository.release(shard, nodeId);
+            }
+        }
+
+        LocalDateTime expiresAt = now.plusSeconds(timerConfig.getLeaseSeconds());
+        Set<Integer> held = new HashSet<>();
+        for (Integer shard : desired) {
+            if (leaseRepository.tryAcquire(shard, nodeId, expiresAt, now) == 1) {
+                held.add(shard);
+            }
+        }
+
+        // Shards we wanted and thought we had, but whose lease someone else took (e.g. after a long pause)
+        for (Integer shard : ownedShards) {
+            if (desired.contains(shard) && !held.contains(shard)) {
+                log.warn("Lost lease on timer shard {}", shard);
+                dropShard(shard);
+            }
+        }
+
+        Set<Integer> gained = new HashSet<>(held);
+        gained.removeAll(ownedShards);
+        Set<Integer> kept = new HashSet<>(held);
+        kept.retainAll(ownedShards);
+        ownedShards = held;
+
+        if (!gained.isEmpty()) {
+            log.info("Node {} acquired {} timer shards, now owns {}", nodeId, gained.size(), held.size());
+            timerRecovery.recover(gained, TimerRecovery.KEYSET_START);
+        }
+        // Pick up reminders other instances created in our shards since the last sweep
+        if (!kept.isEmpty() && lastSweep != null) {
+            timerRecovery.recover(kept, lastSweep.minusSeconds(timerConfig.getHeartbeatSeconds()));
+        }
+        lastSweep = now;
+
+        nodeRepository.deleteStale(now.minusSeconds(timerConfig.getLeaseSeconds() * 10L));
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        // Hand shards back straight away rather than making the others wait for the leases to expire
+        for (Integer shard : ownedShards) {
+            dropShard(shard);
+            leaseRepository.release(shard, nodeId);
+        }
+        ownedShards = new HashSet<>();
+        nodeRepository.deleteById(nodeId);
+    }
+
+    public synchronized Set<Integer> getOwnedShards() {
+        return Set.copyOf(ownedShards);
+    }
+
+    private void dropShard(int shard) {
+        int cancelled = timerService.cancelIf(timer ->
+            timer.taskId() != null && timerConfig.shardOf(timer.userId()) == shard);
+        log.debug("Released timer shard {}, cancelled {} local timers", shard, cancelled);
+    }
+
+    static String preferredOwner(int shard, List<String> nodes) {
+        String owner = null;
+        long best = Long.MIN_VALUE;
+        for (String node : nodes) {
+            long score = mix(node.hashCode() * 0x9E3779B97F4A7C15L + shard);
+            if (owner == null || score > best) {
+                best = score;
+                owner = node;
+            }
+        }
+        return owner;
+    }
+
+    // MurmurHash3 finalizer: spreads the combined key so ownership is balanced across nodes
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
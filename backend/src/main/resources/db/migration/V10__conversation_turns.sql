@@ -0,0 +1,14 @@
+-- Conversation turns pushed out of the in-memory buffers, loaded back on demand (see ConversationServiceImpl)
+create sequence if not exists conversation_turns_seq start with 1 increment by 50;
+
+create table if not exists conversation_turns (
+    id bigint not null primary key,
+    user_id varchar(255) not null,
+    nomi_id varchar(255) not null,
+    kind varchar(255) not null,
+    text varchar(4000) not null,
+    item_ref varchar(255),
+    created_at timestamp(6) not null
+);
+
+create index if not exists idx_conversation_turns_conversation on conversation_turns (user_id, nomi_id, id);
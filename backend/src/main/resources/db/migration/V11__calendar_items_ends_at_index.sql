@@ -0,0 +1,3 @@
+-- Serves the agenda's "already in progress at from" lookups, which only need items ending after from
+create index if not exists idx_calendar_items_user_ends_at on calendar_items (user_id, ends_at);
+create index if not exists idx_calendar_items_archive_user_ends_at on calendar_items_archive (user_id, ends_at);
@@ -0,0 +1,90 @@
+-- Flyway owns the schema and Hibernate only validates it (ddl-auto: validate). Each statement is
+-- idempotent, so a database that Hibernate created from earlier versions of the entities is brought
+-- up to date, its new columns backfilled, and an empty one gets the full schema.
+
+create table if not exists calendar_items (
+    id bigint generated by default as identity primary key,
+    type smallint not null,
+    title varchar(255) not null,
+    description varchar(255),
+    user_id varchar(255) not null,
+    google_calendar_id varchar(255),
+    status varchar(255) not null,
+    completed_at timestamp(6),
+    created_at timestamp(6) not null,
+    updated_at timestamp(6) not null
+);
+
+alter table calendar_items add column if not exists starts_at timestamp(6);
+alter table calendar_items add column if not exists ends_at timestamp(6);
+
+create table if not exists tasks (
+    id bigint not null primary key references calendar_items,
+    scheduled_time timestamp(6) not null,
+    due_date timestamp(6) not null,
+    estimated_minutes integer,
+    is_recurring boolean,
+    recurrence_pattern varchar(255),
+    priority integer
+);
+
+alter table tasks add column if not exists nomi_id varchar(255);
+alter table tasks add column if not exists timer_shard integer;
+
+-- Early versions mapped the root's columns onto tasks as well; nothing writes them any more
+do $$
+declare
+    legacy record;
+begin
+    for legacy in
+        select column_name from information_schema.columns
+        where table_schema = current_schema() and table_name = 'tasks' and is_nullable = 'NO'
+          and column_name not in ('id', 'scheduled_time', 'due_date')
+    loop
+        execute format('alter table tasks alter column %I drop not null', legacy.column_name);
+    end loop;
+end $$;
+
+create table if not exists events (
+    id bigint not null primary key references calendar_items,
+    start_time timestamp(6) not null,
+    end_time timestamp(6) not null,
+    location varchar(255),
+    is_all_day boolean,
+    meeting_link varchar(255)
+);
+
+create table if not exists event_attendees (
+    event_id bigint not null references events,
+    attendees varchar(255)
+);
+
+-- Rows written before starts_at/ends_at existed would otherwise be invisible to the agenda, due and
+-- timer recovery queries until their next save
+update calendar_items c
+set starts_at = coalesce(t.scheduled_time, t.due_date),
+    ends_at = case when t.estimated_minutes is null then coalesce(t.scheduled_time, t.due_date)
+                   else coalesce(t.scheduled_time, t.due_date) + make_interval(mins => t.estimated_minutes) end
+from tasks t
+where t.id = c.id and c.starts_at is null;
+
+update calendar_items c
+set starts_at = e.start_time,
+    ends_at = e.end_time
+from events e
+where e.id = c.id and c.starts_at is null;
+
+create index if not exists idx_calendar_items_user_status_starts_at on calendar_items (user_id, status, starts_at);
+create index if not exists idx_calendar_items_status_starts_at on calendar_items (status, starts_at);
+create index if not exists idx_calendar_items_google_calendar_id on calendar_items (google_calendar_id);
+
+create table if not exists timer_nodes (
+    node_id varchar(255) not null primary key,
+    heartbeat_at timestamp(6) not null
+);
+
+create table if not exists timer_shard_leases (
+    shard_id integer not null primary key,
+    owner_id varchar(255) not null,
+    expires_at timestamp(6) not null
+);
@@ -0,0 +1,9 @@
+-- Calendar item ids come from a sequence allocated in blocks of 50 (see CalendarItem.id) so that
+-- Hibernate can batch inserts. The sequence starts past the current ids and replaces the identity
+-- default V1 created.
+create sequence if not exists calendar_items_seq start with 1 increment by 50;
+
+-- Hibernate's pooled optimizer treats the value it reads as the top of its block
+select setval('calendar_items_seq', (select coalesce(max(id), 0) + 50 from calendar_items), false);
+
+alter table calendar_items alter column id drop identity if exists;
@@ -0,0 +1,2 @@
+-- Serves the agenda's keyset pages, which seek on (starts_at, id) within one user's items
+create index if not exists idx_calendar_items_user_starts_at_id on calendar_items (user_id, starts_at, id);
@@ -0,0 +1,23 @@
+-- Cold storage for completed/cancelled calendar items, filled by CalendarArchiver. Task and event
+-- specific columns are kept as jsonb so the archive doesn't have to track every subtype change.
+create table if not exists calendar_items_archive (
+    id bigint primary key,
+    type smallint not null,
+    user_id varchar(255) not null,
+    title varchar(255) not null,
+    description varchar(255),
+    google_calendar_id varchar(255),
+    status varchar(255) not null,
+    starts_at timestamp(6),
+    ends_at timestamp(6),
+    completed_at timestamp(6),
+    created_at timestamp(6) not null,
+    updated_at timestamp(6) not null,
+    archived_at timestamp(6) not null,
+    details jsonb not null
+);
+
+create index if not exists idx_calendar_items_archive_user_starts_at on calendar_items_archive (user_id, starts_at);
+
+-- Lets CalendarArchiver find completed/cancelled items by how long ago they last changed
+create index if not exists idx_calendar_items_status_updated_at on calendar_items (status, updated_at);
@@ -0,0 +1,13 @@
+-- Daily and weekly completion counters per user, upserted as tasks complete (see ProductivityRollupRepository)
+create table if not exists productivity_rollups (
+    user_id varchar(255) not null,
+    period varchar(255) not null,
+    period_start date not null,
+    completed_count integer not null,
+    on_time_count integer not null,
+    estimated_minutes integer not null,
+    planned_minutes integer not null,
+    pomodoro_sessions integer not null,
+    updated_at timestamp(6) not null,
+    primary key (period_start, period, user_id)
+);
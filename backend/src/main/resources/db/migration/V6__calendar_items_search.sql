@@ -0,0 +1,14 @@
+-- Full-text search over calendar items. search_extra holds an event's location, copied onto the root
+-- row on every write, because a generated column can only read its own table.
+alter table calendar_items add column if not exists search_extra varchar(255);
+alter table calendar_items add column if not exists search_vector tsvector generated always as (
+    setweight(to_tsvector('english', coalesce(title, '')), 'A')
+    || setweight(to_tsvector('english', coalesce(description, '')), 'B')
+    || setweight(to_tsvector('english', coalesce(search_extra, '')), 'C')) stored;
+
+update calendar_items c
+set search_extra = e.location
+from events e
+where e.id = c.id and c.search_extra is null and e.location is not null;
+
+create index if not exists idx_calendar_items_search_vector on calendar_items using gin (search_vector);
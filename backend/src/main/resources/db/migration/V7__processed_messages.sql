@@ -0,0 +1,8 @@
+-- Ids of chat webhook messages already handled, so redeliveries are dropped (see MessageDedupService)
+create table if not exists processed_messages (
+    message_id varchar(255) not null primary key,
+    user_id varchar(255) not null,
+    received_at timestamp(6) not null
+);
+
+create index if not exists idx_processed_messages_received_at on processed_messages (received_at);
@@ -0,0 +1,6 @@
+-- Each user's own Nomi API key, encrypted with nomi.credentials-key (see CredentialCipher)
+create table if not exists nomi_credentials (
+    user_id varchar(255) not null primary key,
+    encrypted_api_key varchar(1024) not null,
+    updated_at timestamp(6) not null
+);
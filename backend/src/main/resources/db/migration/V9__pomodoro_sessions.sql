@@ -0,0 +1,10 @@
+-- Periodic checkpoints of running Pomodoro sessions, restored on startup (see PomodoroServiceImpl)
+create table if not exists pomodoro_sessions (
+    user_id varchar(255) not null primary key,
+    nomi_id varchar(255) not null,
+    state bigint not null,
+    updated_at timestamp(6) not null
+);
+
+-- The instance running the session (timer.node-id), so sessions are only taken over from stopped instances
+alter table pomodoro_sessions add column if not exists owner_id varchar(255);
@@ -0,0 +1,74 @@
+package com.charleezy.maya.service;
+
+import com.charleezy.maya.model.dto.AgendaItem;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AgendaCacheTest {
+
+    private static final LocalDateTime TODAY = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime NEXT_WEEK = TODAY.plusDays(7);
+
+    @Test
+    void get_WithinCachedWindow_ReturnsOverlappingItemsAndCountsHit() {
+        // Given
+        AgendaCache cache = new AgendaCache(1024 * 1024);
+        cache.put("user", cache.beginLoad("user"), TODAY, NEXT_WEEK, List.of(
+            item(1L, TODAY.withHour(9), TODAY.withHour(11)),
+            item(2L, TODAY.withHour(13), TODAY.withHour(14)),
+            item(3L, TODAY.plusDays(1).withHour(9), TODAY.plusDays(1).withHour(10))));
+
+        // When
+        List<AgendaItem> items = cache.get("user", TODAY.withHour(10), TODAY.plusDays(1));
+
+        // Then
+        assertThat(items).extracting(AgendaItem::getId).containsExactly(1L, 2L);
+        assertThat(cache.get("user", TODAY, NEXT_WEEK.plusDays(1))).isNull();
+        assertThat(cache.stats().hits()).isEqualTo(1);
+        assertThat(cache.stats().misses()).isEqualTo(1);
+        assertThat(cache.stats().hitRatio()).isEqualTo(0.5);
+    }
+
+    @Test
+    void put_AfterInvalidationDuringLoad_IsDropped() {
+        // Given
+        AgendaCache cache = new AgendaCache(1024 * 1024);
+        long token = cache.beginLoad("user");
+
+        // When
+        cache.invalidate("user");
+        cache.put("user", token, TODAY, NEXT_WEEK, List.of(item(1L, TODAY.withHour(9), TODAY.withHour(10))));
+
+        // Then
+        assertThat(cache.get("user", TODAY, NEXT_WEEK)).isNull();
+        assertThat(cache.stats().users()).isZero();
+    }
+
+    @Test
+    void put_OverMemoryBudget_EvictsLeastRecentlyUsedUsers() {
+        // Given
+        List<AgendaItem> week = List.of(item(1L, TODAY.withHour(9), TODAY.withHour(10)));
+        long perUser = 128 + AgendaCache.estimateBytes(week.get(0));
+        AgendaCache cache = new AgendaCache(perUser * 2);
+        cache.put("a", cache.beginLoad("a"), TODAY, NEXT_WEEK, week);
+        cache.put("b", cache.beginLoad("b"), TODAY, NEXT_WEEK, week);
+        cache.get("a", TODAY, NEXT_WEEK);
+
+        // When
+        cache.put("c", cache.beginLoad("c"), TODAY, NEXT_WEEK, week);
+
+        // Then
+        assertThat(cache.get("b", TODAY, NEXT_WEEK)).isNull();
+        assertThat(cache.get("a", TODAY, NEXT_WEEK)).isNotNull();
+        assertThat(cache.stats().evictions()).isEqualTo(1);
+        assertThat(cache.stats().estimatedBytes()).isLessThanOrEqualTo(cache.stats().maxBytes());
+    }
+
+    private static AgendaItem item(Long id, LocalDateTime start, LocalDateTime end) {
+        return AgendaItem.builder().id(id).title("Item " + id).startsAt(start).endsAt(end).build();
+    }
+}
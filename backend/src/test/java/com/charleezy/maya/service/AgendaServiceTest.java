@@ -0,0 +1,177 @@
+package com.charleezy.maya.service;
+
+import com.charleezy.maya.config.AgendaConfig;
+import com.charleezy.maya.model.CalendarItem;
+import com.charleezy.maya.model.Event;
+import com.charleezy.maya.model.Task;
+import com.charleezy.maya.model.dto.AgendaItem;
+import com.charleezy.maya.model.dto.AgendaPage;
+import com.charleezy.maya.repository.ArchivedCalendarItemRepository;
+import com.charleezy.maya.repository.CalendarItemRepository;
+import com.charleezy.maya.repository.TaskRepository;
+import com.charleezy.maya.service.impl.AgendaServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AgendaServiceTest {
+
+    private static final LocalDateTime TODAY = LocalDate.now().atStartOfDay();
+
+    @Mock
+    private CalendarItemRepository calendarItemRepository;
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private ArchivedCalendarItemRepository archivedCalendarItemRepository;
+
+    @Mock
+    private RecurrenceService recurrenceService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final List<CalendarItem> items = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // Answer the keyset queries the way the database would, from the items above
+        when(calendarItemRepository.findOngoing(eq("user"), any(), any(), anyLong(), any())).thenAnswer(invocation -> {
+            LocalDateTime at = invocation.getArgument(1);
+            return query(item -> item.getStartsAt().isBefore(at) && item.getEndsAt().isAfter(at),
+                invocation.getArgument(2), invocation.getArgument(3), invocation.getArgument(4));
+        });
+        when(calendarItemRepository.findAgendaPage(eq("user"), any(), any(), any(), anyLong(), any())).thenAnswer(invocation -> {
+            LocalDateTime from = invocation.getArgument(1);
+            LocalDateTime to = invocation.getArgument(2);
+            return query(item -> !item.getStartsAt().isBefore(from) && item.getStartsAt().isBefore(to),
+                invocation.getArgument(3), invocation.getArgument(4), invocation.getArgument(5));
+        });
+    }
+
+    @Test
+    void page_ItemInProgressAtFrom_ComesFirstAndLaterPagesContinueAfterIt() {
+        // Given a meeting running across 9:00, one that ends right at 9:00, a reminder at 9:00 and a later meeting
+        LocalDateTime nine = TODAY.plusDays(1).withHour(9);
+        items.add(event(1L, nine.minusHours(1), nine.plusHours(1)));
+        items.add(event(2L, nine.minusHours(2), nine));
+        items.add(event(3L, nine, nine));
+        items.add(event(4L, nine.plusHours(2), nine.plusHours(3)));
+        AgendaService agenda = agendaService(7);
+
+        // When
+        AgendaPage first = agenda.page("user", nine, nine.plusHours(9), null, 2);
+        AgendaPage second = agenda.page("user", nine, nine.plusHours(9), first.getNextCursor(), 2);
+
+        // Then
+        assertThat(first.getItems()).extracting(AgendaItem::getId).containsExactly(1L, 3L);
+        assertThat(first.getNextCursor()).isNotNull();
+        assertThat(second.getItems()).extracting(AgendaItem::getId).containsExactly(4L);
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void upcoming_WindowServedFromCache_MatchesSameWindowReadFromDatabase() {
+        // Given an event running across 9:00, a daily hour-long task that is in progress at 9:00 and a daily
+        // half-hour one that ends right at 9:00
+        LocalDateTime nine = TODAY.plusDays(1).withHour(9);
+        items.add(event(1L, nine.minusHours(1), nine.plusHours(1)));
+        items.add(event(2L, nine.plusHours(3), nine.plusHours(4)));
+        Task standup = recurringTask(3L, nine.minusMinutes(30).minusDays(1), 60);
+        Task journal = recurringTask(4L, nine.minusMinutes(30).minusDays(1), 30);
+        when(taskRepository.findRecurringTasks(eq("user"), any())).thenReturn(List.of(standup, journal));
+        when(recurrenceService.occurrences(any(), any(), any())).thenAnswer(invocation -> {
+            Task task = invocation.getArgument(0);
+            LocalDateTime from = invocation.getArgument(1);
+            LocalDateTime to = invocation.getArgument(2);
+            return IntStream.range(0, 10).mapToObj(day -> task.getScheduledTime().plusDays(day))
+                .filter(start -> !start.isBefore(from) && start.isBefore(to));
+        });
+        AgendaService cached = agendaService(7);
+        AgendaService uncached = agendaService(0);
+
+        // When
+        List<AgendaItem> loaded = cached.upcoming("user", nine, nine.plusHours(9));
+        List<AgendaItem> fromCache = cached.upcoming("user", nine, nine.plusHours(9));
+        List<AgendaItem> fromDatabase = uncached.upcoming("user", nine, nine.plusHours(9));
+
+        // Then all three use overlap: the event and the hour-long occurrence already running at 9:00 count,
+        // the occurrence ending at 9:00 doesn't
+        assertThat(cached.cacheStats().hits()).isEqualTo(1);
+        assertThat(fromDatabase).extracting(AgendaItem::getId, AgendaItem::getStartsAt).containsExactly(
+            tuple(1L, nine.minusHours(1)),
+            tuple(3L, nine.minusMinutes(30)),
+            tuple(2L, nine.plusHours(3)));
+        assertThat(fromCache).isEqualTo(fromDatabase);
+        assertThat(loaded).isEqualTo(fromDatabase);
+    }
+
+    private AgendaService agendaService(int cacheWindowDays) {
+        AgendaConfig config = new AgendaConfig();
+        config.setCacheWindowDays(cacheWindowDays);
+        return new AgendaServiceImpl(config, calendarItemRepository, taskRepository, archivedCalendarItemRepository,
+            recurrenceService, transactionManager);
+    }
+
+    private List<CalendarItem> query(Predicate<CalendarItem> filter, LocalDateTime afterStart, long afterId, Pageable page) {
+        return items.stream()
+            .filter(filter)
+            .filter(item -> item.getStartsAt().isAfter(afterStart)
+                || (item.getStartsAt().equals(afterStart) && item.getId() > afterId))
+            .sorted(Comparator.comparing(CalendarItem::getStartsAt).thenComparing(CalendarItem::getId))
+            .limit(page.isPaged() ? page.getPageSize() : Long.MAX_VALUE)
+            .toList();
+    }
+
+    private static Task recurringTask(Long id, LocalDateTime firstStart, int minutes) {
+        Task task = new Task();
+        task.setId(id);
+        task.setUserId("user");
+        task.setTitle("Task " + id);
+        task.setScheduledTime(firstStart);
+        task.setDueDate(firstStart);
+        task.setEstimatedMinutes(minutes);
+        task.setIsRecurring(true);
+        task.setRecurrencePattern("FREQ=DAILY");
+        task.setStartsAt(firstStart);
+        task.setEndsAt(firstStart.plusMinutes(minutes));
+        return task;
+    }
+
+    private static Event event(Long id, LocalDateTime start, LocalDateTime end) {
+        Event event = new Event();
+        event.setId(id);
+        event.setUserId("user");
+        event.setTitle("Event " + id);
+        event.setStartTime(start);
+        event.setEndTime(end);
+        event.setStartsAt(start);
+        event.setEndsAt(end);
+        return event;
+    }
+}
@@ -0,0 +1,121 @@
+package com.charleezy.maya.service;
+
+import com.charleezy.maya.config.SchedulerConfig;
+import com.charleezy.maya.config.TimerConfig;
+import com.charleezy.maya.model.CalendarItemChangedEvent;
+import com.charleezy.maya.model.ItemType;
+import com.charleezy.maya.model.Task;
+import com.charleezy.maya.repository.TaskRepository;
+import com.charleezy.maya.service.impl.AutoSchedulerServiceImpl;
+import com.google.api.services.calendar.model.Event;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AutoSchedulerServiceTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private AvailabilityService availabilityService;
+
+    @Mock
+    private GoogleCalendarService googleCalendarService;
+
+    @Mock
+    private TimerService timerService;
+
+    private final TimerConfig timerConfig = new TimerConfig();
+    private AutoSchedulerServiceImpl scheduler;
+
+    @BeforeEach
+    void setUp() {
+        // Long enough that wherever the task lands, its timer is armed in process
+        timerConfig.setInProcessHorizonHours(24 * 30);
+        scheduler = new AutoSchedulerServiceImpl(new SchedulerConfig(), timerConfig, taskRepository,
+            availabilityService, googleCalendarService, timerService);
+    }
+
+    @Test
+    void scheduleUser_MovesTask_CreatesEventBeforeDeletingOldOneAndRearmsTimer() {
+        // Given a Nomi-delivered task with an event at a time the planner won't pick
+        Task task = task();
+        when(taskRepository.findSchedulableTasks("user")).thenReturn(List.of(task));
+        when(googleCalendarService.createEvent(anyString(), any(), anyString(), anyString()))
+            .thenReturn(new Event().setId("new-event"));
+
+        // When
+        TaskPlanner.Plan plan = scheduler.scheduleUser("user");
+
+        // Then the old event only goes once the task points at the new one, and the timer follows the task
+        LocalDateTime start = plan.placementOf(1L).orElseThrow().start();
+        assertThat(task.getScheduledTime()).isEqualTo(start);
+        assertThat(task.getGoogleCalendarId()).isEqualTo("new-event");
+        InOrder inOrder = inOrder(googleCalendarService, taskRepository, timerService);
+        inOrder.verify(googleCalendarService).createEvent(anyString(), any(), anyString(), anyString());
+        inOrder.verify(taskRepository).save(task);
+        inOrder.verify(timerService).cancel("1");
+        inOrder.verify(timerService).schedule(any());
+        inOrder.verify(googleCalendarService).deleteEvent("old-event");
+    }
+
+    @Test
+    void scheduleUser_CalendarDown_LeavesTaskWithItsEvent() {
+        // Given
+        Task task = task();
+        LocalDateTime original = task.getScheduledTime();
+        when(taskRepository.findSchedulableTasks("user")).thenReturn(List.of(task));
+        when(googleCalendarService.createEvent(anyString(), any(), anyString(), anyString()))
+            .thenThrow(new IllegalStateException("Calendar unavailable"));
+
+        // When
+        scheduler.scheduleUser("user");
+
+        // Then
+        assertThat(task.getScheduledTime()).isEqualTo(original);
+        assertThat(task.getGoogleCalendarId()).isEqualTo("old-event");
+        verify(taskRepository, never()).save(any());
+        verify(googleCalendarService, never()).deleteEvent(anyString());
+        verifyNoInteractions(timerService);
+    }
+
+    @Test
+    void onCalendarItemChanged_UserWithoutPlan_IsLeftAlone() {
+        // When
+        scheduler.onCalendarItemChanged(
+            new CalendarItemChangedEvent(1L, "user", ItemType.TASK, CalendarItemChangedEvent.ChangeType.UPDATED));
+
+        // Then
+        verifyNoInteractions(taskRepository, googleCalendarService, timerService);
+    }
+
+    private static Task task() {
+        Task task = new Task();
+        task.setId(1L);
+        task.setUserId("user");
+        task.setNomiId("nomi");
+        task.setTitle("Write report");
+        task.setEstimatedMinutes(60);
+        task.setDueDate(LocalDateTime.now().plusDays(5));
+        task.setScheduledTime(LocalDateTime.now().minusYears(1));
+        task.setGoogleCalendarId("old-event");
+        return task;
+    }
+}
@@ -0,0 +1,78 @@
+package com.charleezy.maya.service;
+
+import com.charleezy.maya.config.ArchivalConfig;
+import com.charleezy.maya.model.CacheInvalidationEvent;
+import com.charleezy.maya.repository.ArchivedCalendarItemRepository;
+import com.charleezy.maya.service.impl.AgendaServiceImpl;
+import com.charleezy.maya.service.impl.AvailabilityServiceImpl;
+import com.charleezy.maya.service.impl.CalendarArchiver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CalendarArchiverTest {
+
+    @Mock
+    private ArchivedCalendarItemRepository archivedCalendarItemRepository;
+
+    private final List<Object> published = new ArrayList<>();
+    private CalendarArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        ArchivalConfig archivalConfig = new ArchivalConfig();
+        archivalConfig.setBatchSize(3);
+        archivalConfig.setPauseMs(0);
+        archiver = new CalendarArchiver(archivalConfig, archivedCalendarItemRepository, published::add);
+    }
+
+    @Test
+    void archive_FullBatches_InvalidatesEachMovedUserAfterEveryBatch() {
+        // Given two full batches followed by a short one
+        when(archivedCalendarItemRepository.archiveBatch(any(), eq(3), any()))
+            .thenReturn(List.of("alice", "bob", "alice"))
+            .thenReturn(List.of("carol", "carol", "carol"))
+            .thenReturn(List.of("bob"));
+
+        // When
+        archiver.archive();
+
+        // Then batching stops after the short batch, and each batch drops its users' cached agendas once
+        verify(archivedCalendarItemRepository, times(3)).archiveBatch(any(), eq(3), any());
+        assertThat(published).containsExactly(
+            new CacheInvalidationEvent(AgendaServiceImpl.CACHE_NAME, "alice"),
+            new CacheInvalidationEvent(AvailabilityServiceImpl.CACHE_NAME, "alice"),
+            new CacheInvalidationEvent(AgendaServiceImpl.CACHE_NAME, "bob"),
+            new CacheInvalidationEvent(AvailabilityServiceImpl.CACHE_NAME, "bob"),
+            new CacheInvalidationEvent(AgendaServiceImpl.CACHE_NAME, "carol"),
+            new CacheInvalidationEvent(AvailabilityServiceImpl.CACHE_NAME, "carol"),
+            new CacheInvalidationEvent(AgendaServiceImpl.CACHE_NAME, "bob"),
+            new CacheInvalidationEvent(AvailabilityServiceImpl.CACHE_NAME, "bob"));
+    }
+
+    @Test
+    void archive_NothingToMove_PublishesNothing() {
+        // Given
+        when(archivedCalendarItemRepository.archiveBatch(any(), eq(3), any())).thenReturn(List.of());
+
+        // When
+        archiver.archive();
+
+        // Then
+        verify(archivedCalendarItemRepository, times(1)).archiveBatch(any(), eq(3), any());
+        assertThat(published).isEmpty();
+    }
+}
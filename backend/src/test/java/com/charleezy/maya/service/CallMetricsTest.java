@@ -0,0 +1,116 @@
+package com.charleezy.maya.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Hooks;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CallMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CallMetrics metrics = new CallMetrics(registry, "nomi");
+
+    @Test
+    void record_FailedCalls_AreTimedAndCountedByCause() {
+        // When
+        metrics.record("sendMessage", Mono.just("ok")).block();
+        assertThatThrownBy(() -> metrics.record("sendMessage", Mono.error(WebClientResponseException.create(
+            HttpStatus.SERVICE_UNAVAILABLE.value(), "Service Unavailable", null, null, null))).block());
+        assertThatThrownBy(() -> metrics.record("sendMessage", () -> {
+            throw new RuntimeException("Failed to send", new TimeoutException());
+        }));
+
+        // Then
+        assertThat(registry.get("maya.calls").tags("operation", "sendMessage", "outcome", "success").timer().count())
+            .isEqualTo(1);
+        assertThat(registry.get("maya.calls").tags("operation", "sendMessage", "outcome", "error").timer().count())
+            .isEqualTo(2);
+        assertThat(registry.get("maya.calls.errors").tags("cause", "http_503").counter().count()).isEqualTo(1);
+        assertThat(registry.get("maya.calls.errors").tags("cause", "timeout").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void record_CallInProgress_IsCountedAsActive() {
+        // Given
+        double[] activeDuringCall = new double[1];
+
+        // When
+        metrics.record("getNomi", () -> {
+            activeDuringCall[0] = registry.get("maya.calls.active").tag("operation", "getNomi").gauge().value();
+            return "ava";
+        });
+
+        // Then
+        assertThat(activeDuringCall[0]).isEqualTo(1);
+        assertThat(registry.get("maya.calls.active").tag("operation", "getNomi").gauge().value()).isZero();
+    }
+
+    @Test
+    void record_Mono_SpanIsCurrentOnTheThreadTheCallContinuesOn() throws InterruptedException {
+        // Given a real tracer, with thread locals restored from the Reactor context as in the app
+        List<ReadableSpan> ended = new CopyOnWriteArrayList<>();
+        CountDownLatch spanEnded = new CountDownLatch(1);
+        SpanProcessor collector = new SpanProcessor() {
+            @Override
+            public void onStart(Context parentContext, ReadWriteSpan span) {
+            }
+
+            @Override
+            public boolean isStartRequired() {
+                return false;
+            }
+
+            @Override
+            public void onEnd(ReadableSpan span) {
+                ended.add(span);
+                spanEnded.countDown();
+            }
+
+            @Override
+            public boolean isEndRequired() {
+                return true;
+            }
+        };
+        Tracer tracer = new OtelTracer(SdkTracerProvider.builder().addSpanProcessor(collector).build().get("test"),
+            new OtelCurrentTraceContext(), event -> {});
+        CallMetrics traced = new CallMetrics(registry, tracer, "nomi");
+        Hooks.enableAutomaticContextPropagation();
+
+        try {
+            // When the call hops to a timer thread before looking at the current span
+            Span current = traced.record("sendMessage",
+                Mono.delay(Duration.ofMillis(10)).then(Mono.fromCallable(tracer::currentSpan))).block();
+
+            // Then it sees the call's span, as a WebClient exchange started there would, and the span ends with the call
+            assertThat(spanEnded.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(ended).singleElement().satisfies(span -> {
+                assertThat(span.getName()).isEqualTo("nomi.sendMessage");
+                assertThat(span.getSpanContext().getSpanId()).isEqualTo(current.context().spanId());
+            });
+            assertThat(tracer.currentSpan()).isNull();
+        } finally {
+            Hooks.disableAutomaticContextPropagation();
+        }
+    }
+}
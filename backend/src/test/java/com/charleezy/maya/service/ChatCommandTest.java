@@ -0,0 +1,39 @@
+package com.charleezy.maya.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatCommandTest {
+
+    @Test
+    void parseDelay_ReadsRelativeTimes() {
+        assertThat(ChatCommand.parseDelay("in 20 minutes")).contains(Duration.ofMinutes(20));
+        assertThat(ChatCommand.parseDelay("an hour")).contains(Duration.ofHours(1));
+        assertThat(ChatCommand.parseDelay("In 2 Days")).contains(Duration.ofDays(2));
+        assertThat(ChatCommand.parseDelay("tomorrow at 3pm")).isEmpty();
+        assertThat(ChatCommand.parseDelay("in 0 minutes")).isEmpty();
+    }
+
+    @Test
+    void from_TaskAndDuration_IsComplete() {
+        // Given
+        List<AbstractNLPService.EntityInfo> entities = List.of(
+            new AbstractNLPService.EntityInfo("stretch", "TASK", 0.8f),
+            new AbstractNLPService.EntityInfo("in 20 minutes", "DURATION", 0.7f));
+
+        // When
+        Optional<ChatCommand> command = ChatCommand.from(entities);
+        Optional<ChatCommand> chatter = ChatCommand.from(List.of(
+            new AbstractNLPService.EntityInfo("Paris", "LOCATION", 0.4f)));
+
+        // Then
+        assertThat(command).contains(new ChatCommand("stretch", Duration.ofMinutes(20)));
+        assertThat(command.get().isComplete()).isTrue();
+        assertThat(chatter).isEmpty();
+    }
+}
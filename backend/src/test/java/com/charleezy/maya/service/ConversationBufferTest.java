@@ -0,0 +1,48 @@
+package com.charleezy.maya.service;
+
+import com.charleezy.maya.model.TurnKind;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConversationBufferTest {
+
+    @Test
+    void add_WhenFull_OverwritesAndReturnsOldest() {
+        // Given
+        ConversationBuffer buffer = new ConversationBuffer(3);
+
+        // When
+        ConversationBuffer.Turn first = turn(TurnKind.USER, "remind me to stretch in 20 minutes");
+        buffer.add(first);
+        buffer.add(turn(TurnKind.SCHEDULED, "stretch"));
+        buffer.add(turn(TurnKind.OUTBOUND, "Okay"));
+        ConversationBuffer.Turn evicted = buffer.add(turn(TurnKind.USER, "no, in 30 minutes"));
+
+        // Then
+        assertThat(evicted).isSameAs(first);
+        assertThat(buffer.size()).isEqualTo(3);
+        assertThat(buffer.recent(10)).extracting(ConversationBuffer.Turn::text)
+            .containsExactly("stretch", "Okay", "no, in 30 minutes");
+        assertThat(buffer.recent(1)).extracting(ConversationBuffer.Turn::text).containsExactly("no, in 30 minutes");
+    }
+
+    @Test
+    void latest_FindsMostRecentOfKind() {
+        // Given
+        ConversationBuffer buffer = new ConversationBuffer(4);
+        List.of(turn(TurnKind.SCHEDULED, "stretch"), turn(TurnKind.SCHEDULED, "drink water"),
+            turn(TurnKind.OUTBOUND, "Okay")).forEach(buffer::add);
+
+        // When / Then
+        assertThat(buffer.latest(TurnKind.SCHEDULED)).map(ConversationBuffer.Turn::text).hasValue("drink water");
+        assertThat(buffer.latest(TurnKind.USER)).isEmpty();
+    }
+
+    private static ConversationBuffer.Turn turn(TurnKind kind, String text) {
+        return new ConversationBuffer.Turn(kind, text, null, Instant.now(), false);
+    }
+}
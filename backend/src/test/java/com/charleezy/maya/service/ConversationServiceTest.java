@@ -0,0 +1,73 @@
+package com.charleezy.maya.service;
+
+import com.charleezy.maya.config.ConversationConfig;
+import com.charleezy.maya.model.ConversationTurn;
+import com.charleezy.maya.model.TurnKind;
+import com.charleezy.maya.repository.ConversationTurnRepository;
+import com.charleezy.maya.service.impl.ConversationServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ConversationServiceTest {
+
+    @Mock
+    private ConversationTurnRepository turnRepository;
+
+    @Test
+    void withContext_LongConversation_PrependsTheLatestTurnsThatFit() {
+        // Given a conversation longer than the context, with an old turn too long for the budget
+        ConversationConfig config = new ConversationConfig();
+        config.setContextTurns(3);
+        config.setContextMaxChars(80);
+        ConversationService conversations = new ConversationServiceImpl(config, turnRepository);
+        conversations.record("user", "nomi", TurnKind.USER, "first", null);
+        conversations.record("user", "nomi", TurnKind.USER, "x".repeat(60), null);
+        conversations.record("user", "nomi", TurnKind.SCHEDULED, "stretch", "42");
+        conversations.record("user", "nomi", TurnKind.OUTBOUND, "Okay, I'll remind you to stretch.", null);
+
+        // When
+        String text = conversations.withContext("user", "nomi", "Time to stretch!");
+
+        // Then
+        assertThat(text).isEqualTo("""
+            Recent conversation:
+            Scheduled: stretch
+            Maya: Okay, I'll remind you to stretch.
+
+            Time to stretch!""");
+    }
+
+    @Test
+    void record_MoreConversationsThanKept_SpillsTheEvictedOneWhole() {
+        // Given room for a single conversation
+        ConversationConfig config = new ConversationConfig();
+        config.setMaxConversations(1);
+        ConversationServiceImpl conversations = new ConversationServiceImpl(config, turnRepository);
+        conversations.record("a", "nomi", TurnKind.USER, "from a", null);
+        conversations.record("a", "nomi", TurnKind.OUTBOUND, "to a", null);
+
+        // When
+        conversations.record("b", "nomi", TurnKind.USER, "from b", null);
+        conversations.flush();
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ConversationTurn>> spilled = ArgumentCaptor.forClass(List.class);
+        verify(turnRepository).saveAll(spilled.capture());
+        assertThat(spilled.getValue()).extracting(ConversationTurn::getUserId, ConversationTurn::getText)
+            .containsExactly(tuple("a", "from a"), tuple("a", "to a"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.charleezy.maya.service;
+
+import com.charleezy.maya.model.ItemType;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImportReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    @Test
+    void ndjson_ReadsLinesAndReportsBadOnesWithoutStopping() throws IOException {
+        // Given
+        String body = """
+            {"type":"TASK","title":"Write report","scheduledTime":"2024-01-02T09:00:00","estimatedMinutes":30}
+
+            {not json}
+            {"title":"Standup","startTime":"2024-01-02T10:00:00","endTime":"2024-01-02T10:15:00"}
+            """;
+
+        try (ImportReader reader = reader(body, ImportReader.Format.NDJSON)) {
+            // When
+            ImportReader.Row first = reader.next();
+            ImportReader.Row second = reader.next();
+            ImportReader.Row third = reader.next();
+
+            // Then
+            assertThat(first.item().getEstimatedMinutes()).isEqualTo(30);
+            assertThat(second.line()).isEqualTo(3);
+            assertThat(second.error()).isNotNull();
+            assertThat(third.item().getStartTime()).isEqualTo(LocalDateTime.of(2024, 1, 2, 10, 0));
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    void csv_MapsColumnsByHeaderAndHandlesQuotes() throws IOException {
+        // Given
+        String body = """
+            type,title,description,scheduledTime,priority
+            TASK,"Call mom, dad",,2024-01-02T18:00:00,2
+            TASK,"Say \"\"hi\"\"",x,2024-01-03T18:00:00,
+            """;
+
+        try (ImportReader reader = reader(body, ImportReader.Format.CSV)) {
+            // When
+            ImportReader.Row first = reader.next();
+            ImportReader.Row second = reader.next();
+
+            // Then
+            assertThat(first.item().getType()).isEqualTo(ItemType.TASK);
+            assertThat(first.item().getTitle()).isEqualTo("Call mom, dad");
+            assertThat(first.item().getDescription()).isNull();
+            assertThat(first.item().getPriority()).isEqualTo(2);
+            assertThat(second.item().getTitle()).isEqualTo("Say \"hi\"");
+            assertThat(second.item().getPriority()).isNull();
+        }
+    }
+
+    private ImportReader reader(String body, ImportReader.Format format) {
+        return new ImportReader(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format, objectMapper);
+    }
+}
@@ -0,0 +1,89 @@
+package com.charleezy.maya.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntervalTreeTest {
+
+    private IntervalTree<String> tree;
+
+    @BeforeEach
+    void setUp() {
+        tree = new IntervalTree<>();
+        tree.insert(900, 1000, 1, "standup");      // 9:00-10:00 in arbitrary units
+        tree.insert(1400, 1600, 2, "workshop");
+        tree.insert(1500, 1530, 3, "call");
+        tree.insert(1700, 1800, 4, "gym");
+    }
+
+    @Test
+    void overlapping_ReturnsIntersectingIntervalsInStartOrder() {
+        // When
+        List<String> result = tree.overlapping(1400, 1600);
+
+        // Then
+        assertThat(result).containsExactly("workshop", "call");
+    }
+
+    @Test
+    void overlapsAny_HalfOpenBoundaries_AreNotConflicts() {
+        assertThat(tree.overlapsAny(1000, 1400)).isFalse();
+        assertThat(tree.overlapsAny(1600, 1700)).isFalse();
+        assertThat(tree.overlapsAny(999, 1001)).isTrue();
+    }
+
+    @Test
+    void nextGap_SkipsChainedBusyBlocks() {
+        // When / Then
+        assertThat(tree.nextGap(1450, 100)).isEqualTo(1600);
+        assertThat(tree.nextGap(1450, 150)).isEqualTo(1800);
+        assertThat(tree.nextGap(1000, 100)).isEqualTo(1000);
+    }
+
+    @Test
+    void remove_RemovedIntervalNoLongerMatches() {
+        // When
+        boolean removed = tree.remove(1400, 2);
+
+        // Then
+        assertThat(removed).isTrue();
+        assertThat(tree.overlapping(1400, 1600)).containsExactly("call");
+        assertThat(tree.remove(1400, 2)).isFalse();
+        assertThat(tree.size()).isEqualTo(3);
+    }
+
+    @Test
+    void overlapping_RandomIntervals_MatchesBruteForce() {
+        // Given
+        Random random = new Random(42);
+        IntervalTree<long[]> randomTree = new IntervalTree<>();
+        List<long[]> all = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            long start = random.nextInt(100_000);
+            long[] interval = {start, start + random.nextInt(500), i};
+            all.add(interval);
+            randomTree.insert(interval[0], interval[1], i, interval);
+        }
+        for (int i = 0; i < 500; i += 2) {
+            randomTree.remove(all.get(i)[0], i);
+        }
+
+        // When / Then
+        for (int q = 0; q < 200; q++) {
+            long from = random.nextInt(100_000);
+            long to = from + random.nextInt(2_000);
+            long expected = all.stream()
+                .filter(iv -> iv[2] >= 500 || iv[2] % 2 == 1)
+                .filter(iv -> iv[0] < to && from < iv[1])
+                .count();
+            assertThat(randomTree.overlapping(from, to)).hasSize((int) expected);
+            assertThat(randomTree.overlapsAny(from, to)).isEqualTo(expected > 0);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.charleezy.maya.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyedSerialExecutorTest {
+
+    @Test
+    void submit_SameKey_RunsInOrderOneAtATime() throws InterruptedException {
+        // Given
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        KeyedSerialExecutor executor = new KeyedSerialExecutor(pool, 1000, 1000);
+        List<Integer> seen = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(200);
+
+        // When
+        for (int i = 0; i < 200; i++) {
+            int n = i;
+            executor.submit("user-1", () -> {
+                // Unsynchronized on purpose: tasks for one key must never overlap
+                seen.add(n);
+                done.countDown();
+            });
+        }
+
+        // Then
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(seen).hasSize(200).isSorted();
+        pool.shutdown();
+    }
+
+    @Test
+    void submit_AtCapacity_RefusesUntilTasksFinish() throws InterruptedException {
+        // Given
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        KeyedSerialExecutor executor = new KeyedSerialExecutor(pool, 3, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable blocked = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        // When
+        boolean first = executor.submit("a", blocked);
+        boolean second = executor.submit("a", blocked);
+        boolean overKeyLimit = executor.submit("a", blocked);
+        boolean otherKey = executor.submit("b", blocked);
+        boolean overTotalLimit = executor.submit("c", blocked);
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(overKeyLimit).isFalse();
+        assertThat(otherKey).isTrue();
+        assertThat(overTotalLimit).isFalse();
+
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (executor.size() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(executor.size()).isZero();
+        assertThat(executor.activeKeys()).isZero();
+        assertThat(executor.submit("a", () -> {})).isTrue();
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,22 @@
+package com.charleezy.maya.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LookupQueryTest {
+
+    @Test
+    void parse_WhenQuestions_ReturnTheReferencedPhrase() {
+        assertThat(LookupQuery.parse("when is my dentist thing?")).contains("dentist thing");
+        assertThat(LookupQuery.parse("When's the team standup")).contains("team standup");
+        assertThat(LookupQuery.parse("what time is yoga ??")).contains("yoga");
+    }
+
+    @Test
+    void parse_OtherMessages_AreNotLookups() {
+        assertThat(LookupQuery.parse("remind me to stretch in 20 minutes")).isEmpty();
+        assertThat(LookupQuery.parse("when is")).isEmpty();
+        assertThat(LookupQuery.parse("start a pomodoro")).isEmpty();
+    }
+}
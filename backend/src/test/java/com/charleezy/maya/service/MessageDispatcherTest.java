@@ -0,0 +1,125 @@
+package com.charleezy.maya.service;
+
+import com.charleezy.maya.config.DispatchConfig;
+import com.charleezy.maya.model.TurnKind;
+import com.charleezy.maya.model.dto.NomiMessage;
+import com.charleezy.maya.model.dto.NomiResponse;
+import com.charleezy.maya.service.impl.MessageDispatcherImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MessageDispatcherTest {
+
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private MessageDispatcherImpl dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        DispatchConfig dispatchConfig = new DispatchConfig();
+        dispatchConfig.setJitterMs(100);
+        dispatchConfig.setRetryBackoffMs(10);
+        ReactiveNomiService nomiService = new ReactiveNomiService() {
+            @Override
+            public Mono<NomiResponse> sendMessage(String userId, String nomiId, NomiMessage message) {
+                return Mono.defer(() -> {
+                    if (failuresLeft.getAndDecrement() > 0) {
+                        return Mono.error(WebClientResponseException.create(HttpStatus.BAD_GATEWAY.value(),
+                            "Bad Gateway", null, null, null));
+                    }
+                    sent.add(userId + "/" + nomiId + ": " + message.getMessageText());
+                    return Mono.just(new NomiResponse());
+                });
+            }
+
+            @Override
+            public Flux<NomiResponse.Nomi> listNomis(String userId) {
+                return Flux.empty();
+            }
+
+            @Override
+            public Mono<NomiResponse.Nomi> getNomi(String userId, String nomiId) {
+                return Mono.empty();
+            }
+
+            @Override
+            public TenantGuard.Stats usage(String userId) {
+                return null;
+            }
+        };
+        ConversationService conversations = new ConversationService() {
+            @Override
+            public void record(String userId, String nomiId, TurnKind kind, String text, String itemRef) {
+            }
+
+            @Override
+            public List<ConversationBuffer.Turn> recent(String userId, String nomiId, int limit) {
+                return List.of();
+            }
+
+            @Override
+            public Optional<ConversationBuffer.Turn> lastScheduled(String userId, String nomiId) {
+                return Optional.empty();
+            }
+
+            @Override
+            public String withContext(String userId, String nomiId, String text) {
+                return text;
+            }
+        };
+        dispatcher = new MessageDispatcherImpl(dispatchConfig, nomiService, conversations);
+        dispatcher.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.stop();
+    }
+
+    @Test
+    void dispatch_SameConversationWithinJitter_SendsOneMergedMessage() throws InterruptedException {
+        // When
+        dispatcher.dispatch("alice", "ava", "Time for a break");
+        dispatcher.dispatch("alice", "ava", "Stretch your legs");
+        dispatcher.dispatch("alice", "ava", "Time for a break");
+        dispatcher.dispatch("bob", "ava", "Back to work");
+
+        // Then
+        awaitSent(2);
+        assertThat(sent).containsExactlyInAnyOrder(
+            "alice/ava: Time for a break\nStretch your legs",
+            "bob/ava: Back to work");
+        assertThat(dispatcher.pendingCount()).isZero();
+    }
+
+    @Test
+    void dispatch_ServerErrors_AreRetried() throws InterruptedException {
+        // Given
+        failuresLeft.set(2);
+
+        // When
+        dispatcher.dispatch("alice", "ava", "Drink some water");
+
+        // Then
+        awaitSent(1);
+        assertThat(sent).containsExactly("alice/ava: Drink some water");
+    }
+
+    private void awaitSent(int count) throws InterruptedException {
+        for (int i = 0; i < 100 && sent.size() < count; i++) {
+            Thread.sleep(50);
+        }
+    }
+}
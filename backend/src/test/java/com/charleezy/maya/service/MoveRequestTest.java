@@ -0,0 +1,34 @@
+package com.charleezy.maya.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MoveRequestTest {
+
+    @Test
+    void parse_MoveThatRequests_ReadTheNewTime() {
+        assertThat(MoveRequest.parse("move that to 5pm")).contains(new MoveRequest(LocalTime.of(17, 0), null));
+        assertThat(MoveRequest.parse("Reschedule it for 7:30 a.m.")).contains(new MoveRequest(LocalTime.of(7, 30), null));
+        assertThat(MoveRequest.parse("push that reminder to 17:45")).contains(new MoveRequest(LocalTime.of(17, 45), null));
+        assertThat(MoveRequest.parse("move it in 20 minutes")).contains(new MoveRequest(null, Duration.ofMinutes(20)));
+        assertThat(MoveRequest.parse("move that to the evening")).isEmpty();
+        assertThat(MoveRequest.parse("remind me to stretch in 20 minutes")).isEmpty();
+    }
+
+    @Test
+    void delayFrom_ClockTimeAlreadyPast_MeansTheNextDay() {
+        // Given
+        Instant sentAt = LocalDateTime.of(2025, 3, 10, 18, 0).toInstant(ZoneOffset.UTC);
+
+        // When / Then
+        assertThat(new MoveRequest(LocalTime.of(19, 30), null).delayFrom(sentAt, ZoneOffset.UTC)).isEqualTo(Duration.ofMinutes(90));
+        assertThat(new MoveRequest(LocalTime.of(17, 0), null).delayFrom(sentAt, ZoneOffset.UTC)).isEqualTo(Duration.ofHours(23));
+    }
+}
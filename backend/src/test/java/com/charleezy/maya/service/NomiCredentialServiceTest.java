@@ -0,0 +1,84 @@
+package com.charleezy.maya.service;
+
+import com.charleezy.maya.config.NomiConfig;
+import com.charleezy.maya.model.CacheInvalidationEvent;
+import com.charleezy.maya.model.NomiCredential;
+import com.charleezy.maya.repository.NomiCredentialRepository;
+import com.charleezy.maya.service.impl.NomiCredentialServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NomiCredentialServiceTest {
+
+    private static final String KEY = Base64.getEncoder().encodeToString(new byte[32]);
+
+    @Mock
+    private NomiCredentialRepository nomiCredentialRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final CredentialCipher cipher = new CredentialCipher(KEY);
+    private NomiCredentialServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        NomiConfig config = new NomiConfig();
+        config.setCredentialsKey(KEY);
+        service = new NomiCredentialServiceImpl(config, nomiCredentialRepository, eventPublisher);
+    }
+
+    @Test
+    void apiKey_Unchanged_IsReadOnceThenCached() {
+        // Given
+        when(nomiCredentialRepository.findById("user")).thenReturn(Optional.of(credential("key-1")));
+
+        // When
+        String first = service.apiKey("user").block();
+        String second = service.apiKey("user").block();
+
+        // Then
+        assertThat(first).isEqualTo("key-1");
+        assertThat(second).isEqualTo("key-1");
+        verify(nomiCredentialRepository, times(1)).findById("user");
+    }
+
+    @Test
+    void apiKey_KeyReplacedWhileReading_OldKeyIsNotCached() {
+        // Given a read that returns the old key while another instance replaces it
+        when(nomiCredentialRepository.findById("user"))
+            .thenAnswer(invocation -> {
+                service.onCacheInvalidation(new CacheInvalidationEvent(NomiCredentialServiceImpl.CACHE_NAME, "user"));
+                return Optional.of(credential("old-key"));
+            })
+            .thenReturn(Optional.of(credential("new-key")));
+
+        // When
+        String during = service.apiKey("user").block();
+        String after = service.apiKey("user").block();
+
+        // Then
+        assertThat(during).isEqualTo("old-key");
+        assertThat(after).isEqualTo("new-key");
+    }
+
+    private NomiCredential credential(String apiKey) {
+        NomiCredential credential = new NomiCredential();
+        credential.setUserId("user");
+        credential.setEncryptedApiKey(cipher.encrypt("user", apiKey));
+        return credential;
+    }
+}
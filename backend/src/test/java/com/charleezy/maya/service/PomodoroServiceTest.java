@@ -0,0 +1,193 @@
+package com.charleezy.maya.service;
+
+import com.charleezy.maya.config.PomodoroConfig;
+import com.charleezy.maya.config.TimerConfig;
+import com.charleezy.maya.model.PomodoroCheckpoint;
+import com.charleezy.maya.model.PomodoroPhase;
+import com.charleezy.maya.repository.PomodoroCheckpointRepository;
+import com.charleezy.maya.repository.TimerNodeRepository;
+import com.charleezy.maya.service.impl.PomodoroServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PomodoroServiceTest {
+
+    @Mock
+    private PomodoroCheckpointRepository checkpointRepository;
+
+    @Mock
+    private TimerNodeRepository nodeRepository;
+
+    @Mock
+    private ProductivityService productivityService;
+
+    private final Map<String, TimerService.ScheduledTimer> timers = new ConcurrentHashMap<>();
+    private final BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+    private final TimerConfig timerConfig = new TimerConfig();
+    private final PomodoroStateMachine stateMachine = new PomodoroStateMachine(
+        TimeUnit.MINUTES.toMillis(25), TimeUnit.MINUTES.toMillis(5), TimeUnit.MINUTES.toMillis(15), 4);
+    private PomodoroServiceImpl pomodoroService;
+    private Consumer<TimerService.ScheduledTimer> fire;
+
+    @BeforeEach
+    void setUp() {
+        // This instance owns every row it writes unless a test says otherwise
+        when(checkpointRepository.updateOwned(anyString(), anyString(), anyLong(), any(), anyString())).thenReturn(1);
+        when(checkpointRepository.deleteOwned(anyString(), anyString())).thenReturn(1);
+        // Like the real timer service, a timer that is already due fires on the scheduling thread
+        TimerService timerService = new TimerService() {
+            private Consumer<ScheduledTimer> handler;
+
+            @Override
+            public void schedule(ScheduledTimer timer) {
+                if (timer.fireAt().isAfter(Instant.now())) {
+                    timers.put(timer.id(), timer);
+                } else {
+                    timers.remove(timer.id());
+                    handler.accept(timer);
+                }
+            }
+
+            @Override
+            public void onFired(String idPrefix, Consumer<ScheduledTimer> handler) {
+                this.handler = handler;
+                fire = handler;
+            }
+
+            @Override
+            public boolean cancel(String timerId) {
+                return timers.remove(timerId) != null;
+            }
+
+            @Override
+            public int cancelIf(Predicate<ScheduledTimer> predicate) {
+                return 0;
+            }
+
+            @Override
+            public int pendingCount() {
+                return timers.size();
+            }
+        };
+        MessageDispatcher messageDispatcher = new MessageDispatcher() {
+            @Override
+            public boolean dispatch(String userId, String nomiId, String text) {
+                sent.add(text);
+                return true;
+            }
+
+            @Override
+            public int pendingCount() {
+                return 0;
+            }
+        };
+        pomodoroService = new PomodoroServiceImpl(new PomodoroConfig(), timerService, messageDispatcher,
+            productivityService, checkpointRepository, nodeRepository, timerConfig);
+    }
+
+    @Test
+    void restore_PhaseEndedWhileDown_EndsItRightAwayAndArmsTheNext() throws InterruptedException {
+        // Given a checkpoint of this instance whose work phase ended a minute ago
+        long now = System.currentTimeMillis();
+        PomodoroCheckpoint checkpoint = new PomodoroCheckpoint();
+        checkpoint.setUserId("user");
+        checkpoint.setNomiId("nomi");
+        checkpoint.setState(stateMachine.start(now - TimeUnit.MINUTES.toMillis(26)));
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        when(checkpointRepository.claim(eq(timerConfig.getNodeId()), eq(true), any())).thenReturn(List.of(checkpoint));
+
+        // When
+        pomodoroService.restore();
+
+        // Then the break has started and its end is the only timer left
+        PomodoroService.Status status = pomodoroService.status("user").orElseThrow();
+        assertThat(status.phase()).isEqualTo(PomodoroPhase.SHORT_BREAK);
+        assertThat(status.completedCycles()).isEqualTo(1);
+        assertThat(sent.poll(5, TimeUnit.SECONDS)).isEqualTo("Nice work, that's 1 done! Take a 5 minute break.");
+        assertThat(sent).isEmpty();
+        assertThat(timers).containsOnlyKeys("pomodoro:user");
+        assertThat(timers.get("pomodoro:user").message()).isEqualTo(PomodoroPhase.SHORT_BREAK.name());
+    }
+
+    @Test
+    void pauseResumeStop_KeepTheTimerInStepWithTheSession() {
+        // Given
+        pomodoroService.start("user", "nomi");
+
+        // When / Then
+        assertThat(timers).containsOnlyKeys("pomodoro:user");
+        pomodoroService.pause("user");
+        assertThat(timers).isEmpty();
+        pomodoroService.resume("user");
+        assertThat(timers).containsOnlyKeys("pomodoro:user");
+        assertThat(pomodoroService.stop("user")).isTrue();
+        assertThat(timers).isEmpty();
+        assertThat(pomodoroService.activeCount()).isZero();
+    }
+
+    @Test
+    void pause_SessionRunOnAnotherInstance_TakesItOverAndPausesIt() {
+        // Given a session that another instance started a minute ago
+        PomodoroCheckpoint checkpoint = new PomodoroCheckpoint();
+        checkpoint.setUserId("user");
+        checkpoint.setNomiId("nomi");
+        checkpoint.setState(stateMachine.start(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(1)));
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        when(checkpointRepository.takeOver("user", timerConfig.getNodeId())).thenReturn(Optional.of(checkpoint));
+
+        // When
+        Optional<PomodoroService.Status> status = pomodoroService.pause("user");
+
+        // Then
+        assertThat(status).hasValueSatisfying(paused -> {
+            assertThat(paused.phase()).isEqualTo(PomodoroPhase.WORK);
+            assertThat(paused.paused()).isTrue();
+        });
+        assertThat(pomodoroService.activeCount()).isEqualTo(1);
+        assertThat(timers).isEmpty();
+    }
+
+    @Test
+    void phaseEnd_SessionTakenOverByAnotherInstance_DropsItWithoutFollowUp() throws InterruptedException {
+        // Given a session that another instance has since restarted
+        pomodoroService.start("user", "nomi");
+        when(checkpointRepository.updateOwned(eq("user"), anyString(), anyLong(), any(), anyString())).thenReturn(0);
+
+        // When its work phase ends here
+        fire.accept(timers.get("pomodoro:user"));
+
+        // Then
+        verify(checkpointRepository, timeout(2000)).updateOwned(eq("user"), anyString(), anyLong(), any(), anyString());
+        assertThat(sent.poll(500, TimeUnit.MILLISECONDS)).isNull();
+        assertThat(pomodoroService.activeCount()).isZero();
+        assertThat(timers).isEmpty();
+    }
+}
@@ -0,0 +1,56 @@
+package com.charleezy.maya.service;
+
+import com.charleezy.maya.model.PomodoroPhase;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PomodoroStateMachineTest {
+
+    private static final long NOW = 1_760_000_000_000L;
+    private final PomodoroStateMachine machine = new PomodoroStateMachine(25_000, 5_000, 15_000, 2);
+
+    @Test
+    void complete_RunsWorkAndBreaksThenEndsAfterLongBreak() {
+        // Given
+        long state = machine.start(NOW);
+        List<PomodoroPhase> phases = new ArrayList<>();
+
+        // When
+        while (state != PomodoroStateMachine.ENDED) {
+            phases.add(PomodoroStateMachine.phase(state));
+            long endsAt = PomodoroStateMachine.endsAt(state);
+            long next = machine.complete(state, endsAt);
+            if (next == PomodoroStateMachine.ENDED) {
+                assertThat(PomodoroStateMachine.completedCycles(state)).isEqualTo(2);
+            }
+            state = next;
+        }
+
+        // Then
+        assertThat(phases).containsExactly(PomodoroPhase.WORK, PomodoroPhase.SHORT_BREAK,
+            PomodoroPhase.WORK, PomodoroPhase.LONG_BREAK);
+    }
+
+    @Test
+    void pauseResume_KeepsTimeLeft_AndSkippedWorkIsNotCounted() {
+        // Given
+        long state = machine.start(NOW);
+
+        // When
+        long paused = machine.pause(state, NOW + 10_000);
+        long resumed = machine.resume(paused, NOW + 60_000);
+        long skipped = machine.skip(resumed, NOW + 61_000);
+
+        // Then
+        assertThat(PomodoroStateMachine.isPaused(paused)).isTrue();
+        assertThat(PomodoroStateMachine.remainingMs(paused, NOW + 50_000)).isEqualTo(15_000);
+        assertThat(PomodoroStateMachine.isPaused(resumed)).isFalse();
+        assertThat(PomodoroStateMachine.endsAt(resumed)).isEqualTo(NOW + 75_000);
+        assertThat(PomodoroStateMachine.phase(skipped)).isEqualTo(PomodoroPhase.SHORT_BREAK);
+        assertThat(PomodoroStateMachine.completedCycles(skipped)).isZero();
+    }
+}
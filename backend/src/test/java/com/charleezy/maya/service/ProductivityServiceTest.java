@@ -0,0 +1,70 @@
+package com.charleezy.maya.service;
+
+import com.charleezy.maya.config.ProductivityConfig;
+import com.charleezy.maya.model.TaskCompletionChangedEvent;
+import com.charleezy.maya.repository.ProductivityRollupRepository;
+import com.charleezy.maya.service.impl.ProductivityServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ProductivityServiceTest {
+
+    // Sunday evening in the server's zone
+    private static final LocalDateTime SUNDAY_LATE = LocalDateTime.of(2026, 3, 1, 23, 0);
+
+    @Mock
+    private ProductivityRollupRepository rollupRepository;
+
+    private ProductivityServiceImpl productivityService;
+
+    @BeforeEach
+    void setUp() {
+        // Two hours ahead of the server, wherever the tests run
+        ZoneOffset server = ZoneId.systemDefault().getRules().getOffset(SUNDAY_LATE);
+        ProductivityConfig config = new ProductivityConfig();
+        config.setDefaultZone(server.getId());
+        config.getUserZones().put("east", ZoneOffset.ofTotalSeconds(server.getTotalSeconds() + 7200).getId());
+        productivityService = new ProductivityServiceImpl(rollupRepository, config);
+    }
+
+    @Test
+    void onTaskCompletionChanged_Completed_AddsToTheUsersOwnDayAndWeek() {
+        // Given a task finished on time late on Sunday, which is already Monday for the user
+        TaskCompletionChangedEvent event = TaskCompletionChangedEvent.of(1L, "east", true, SUNDAY_LATE,
+            SUNDAY_LATE.minusMinutes(30), SUNDAY_LATE, 20, SUNDAY_LATE.plusHours(1));
+
+        // When
+        productivityService.onTaskCompletionChanged(event);
+
+        // Then both rollups land on Monday, the first day of a new week, in one upsert
+        LocalDate monday = LocalDate.of(2026, 3, 2);
+        verify(rollupRepository).add(eq("east"), eq(monday), eq(monday), eq(1), eq(1), eq(30), eq(20), eq(0), any());
+    }
+
+    @Test
+    void onTaskCompletionChanged_Reopened_SubtractsTheCompletion() {
+        // Given a late completion being undone, for a user on the default zone
+        TaskCompletionChangedEvent event = TaskCompletionChangedEvent.of(2L, "west", false, SUNDAY_LATE,
+            SUNDAY_LATE.minusMinutes(45), SUNDAY_LATE, null, SUNDAY_LATE.minusDays(1));
+
+        // When
+        productivityService.onTaskCompletionChanged(event);
+
+        // Then the Sunday and its week lose the completion, and nothing is counted as on time
+        verify(rollupRepository).add(eq("west"), eq(LocalDate.of(2026, 3, 1)), eq(LocalDate.of(2026, 2, 23)),
+            eq(-1), eq(0), eq(-45), eq(0), eq(0), any());
+    }
+}
@@ -0,0 +1,116 @@
+package com.charleezy.maya.service;
+
+import com.charleezy.maya.config.NomiConfig;
+import com.charleezy.maya.config.WebClientConfig;
+import com.charleezy.maya.model.dto.NomiMessage;
+import com.charleezy.maya.model.dto.NomiResponse;
+import com.charleezy.maya.service.impl.ReactiveNomiServiceImpl;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReactiveNomiServiceTest {
+
+    private WireMockServer wireMockServer;
+    private ReactiveNomiService nomiService;
+
+    @BeforeEach
+    void setUp() {
+        wireMockServer = new WireMockServer(wireMockConfig().dynamicPort());
+        wireMockServer.start();
+        WireMock.configureFor("localhost", wireMockServer.port());
+
+        NomiConfig nomiConfig = new NomiConfig();
+        nomiConfig.setBaseUrl("http://localhost:" + wireMockServer.port());
+        nomiConfig.setMessageTimeout(1);
+        NomiCredentialService credentials = new NomiCredentialService() {
+            @Override
+            public void store(String userId, String apiKey) {
+            }
+
+            @Override
+            public boolean remove(String userId) {
+                return false;
+            }
+
+            @Override
+            public Mono<String> apiKey(String userId) {
+                return "alice".equals(userId) ? Mono.just("alice-key") : Mono.empty();
+            }
+        };
+        nomiService = new ReactiveNomiServiceImpl(nomiConfig, new WebClientConfig(nomiConfig).nomiWebClient(), credentials,
+            new SimpleMeterRegistry(), Tracer.NOOP);
+    }
+
+    @AfterEach
+    void tearDown() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    void sendMessage_PostsToNomiChatWithTheUsersKey() {
+        // Given
+        stubFor(post(urlEqualTo("/nomis/abc/chat"))
+            .willReturn(okJson("""
+                {"sentMessage":{"uuid":"s1","text":"hi"},"replyMessage":{"uuid":"r1","text":"hello!"}}
+                """)));
+
+        // When
+        NomiResponse response = nomiService.sendMessage("alice", "abc", NomiMessage.builder().messageText("hi").build()).block();
+
+        // Then
+        assertThat(response.getReplyMessage().getText()).isEqualTo("hello!");
+        verify(postRequestedFor(urlEqualTo("/nomis/abc/chat"))
+            .withHeader("Authorization", equalTo("alice-key"))
+            .withoutHeader("X-API-KEY")
+            .withRequestBody(equalToJson("{\"messageText\":\"hi\"}")));
+    }
+
+    @Test
+    void sendMessage_SlowerThanMessageTimeout_Errors() {
+        // Given
+        stubFor(post(urlEqualTo("/nomis/abc/chat"))
+            .willReturn(okJson("{}").withFixedDelay(3000)));
+
+        // When / Then
+        assertThatThrownBy(() -> nomiService.sendMessage("alice", "abc", NomiMessage.builder().messageText("hi").build()).block())
+            .hasCauseInstanceOf(TimeoutException.class);
+    }
+
+    @Test
+    void listNomis_EmitsEachNomi() {
+        // Given
+        stubFor(get(urlEqualTo("/nomis"))
+            .willReturn(okJson("""
+                [{"uuid":"a","name":"Ada"},{"uuid":"b","name":"Bo"}]
+                """)));
+
+        // When
+        List<String> names = nomiService.listNomis("alice").map(NomiResponse.Nomi::getName).collectList().block();
+
+        // Then
+        assertThat(names).containsExactly("Ada", "Bo");
+    }
+
+    @Test
+    void sendMessage_UserWithoutKey_FailsWithoutCallingNomi() {
+        // When / Then
+        assertThatThrownBy(() -> nomiService.sendMessage("bob", "abc", NomiMessage.builder().messageText("hi").build()).block())
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("No Nomi API key");
+        verify(0, postRequestedFor(anyUrl()));
+    }
+}
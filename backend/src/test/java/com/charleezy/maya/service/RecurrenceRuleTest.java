@@ -0,0 +1,149 @@
+package com.charleezy.maya.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RecurrenceRuleTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 9, 30); // a Monday
+
+    @Test
+    void between_LegacyDaily_YieldsEveryDayInWindow() {
+        // Given
+        RecurrenceRule rule = RecurrenceRule.parse("daily");
+
+        // When
+        List<LocalDateTime> occurrences = rule.between(START,
+            LocalDateTime.of(2024, 3, 10, 0, 0), LocalDateTime.of(2024, 3, 13, 0, 0)).toList();
+
+        // Then
+        assertThat(occurrences).containsExactly(
+            LocalDateTime.of(2024, 3, 10, 9, 30),
+            LocalDateTime.of(2024, 3, 11, 9, 30),
+            LocalDateTime.of(2024, 3, 12, 9, 30));
+    }
+
+    @Test
+    void between_WeeklyByDayWithInterval_SkipsAlternateWeeks() {
+        // Given
+        RecurrenceRule rule = RecurrenceRule.parse("RRULE:FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,FR");
+
+        // When
+        List<LocalDateTime> occurrences = rule.between(START, START, START.plusWeeks(4)).toList();
+
+        // Then
+        assertThat(occurrences).containsExactly(
+            LocalDateTime.of(2024, 1, 1, 9, 30),
+            LocalDateTime.of(2024, 1, 5, 9, 30),
+            LocalDateTime.of(2024, 1, 15, 9, 30),
+            LocalDateTime.of(2024, 1, 19, 9, 30));
+    }
+
+    @Test
+    void iterator_MonthlyLastFriday_WithCount() {
+        // Given
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=MONTHLY;BYDAY=-1FR;COUNT=3");
+
+        // When
+        List<LocalDateTime> occurrences = drain(rule.iterator(START));
+
+        // Then
+        assertThat(occurrences).containsExactly(
+            LocalDateTime.of(2024, 1, 26, 9, 30),
+            LocalDateTime.of(2024, 2, 23, 9, 30),
+            LocalDateTime.of(2024, 3, 29, 9, 30));
+    }
+
+    @Test
+    void iterator_MonthlyOn31st_SkipsShortMonths() {
+        // Given
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=MONTHLY;UNTIL=20240601");
+
+        // When
+        List<LocalDateTime> occurrences = drain(rule.iterator(LocalDateTime.of(2024, 1, 31, 8, 0)));
+
+        // Then
+        assertThat(occurrences).extracting(LocalDateTime::getMonthValue).containsExactly(1, 3, 5);
+    }
+
+    @Test
+    void iterator_YearlyByMonth_ExpandsEachMonth() {
+        // Given
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=YEARLY;BYMONTH=1,7;BYMONTHDAY=15;COUNT=3");
+
+        // When
+        List<LocalDateTime> occurrences = drain(rule.iterator(START));
+
+        // Then
+        assertThat(occurrences).containsExactly(
+            LocalDateTime.of(2024, 1, 15, 9, 30),
+            LocalDateTime.of(2024, 7, 15, 9, 30),
+            LocalDateTime.of(2025, 1, 15, 9, 30));
+    }
+
+    @Test
+    void iterator_YearlyByMonthDayWithoutByMonth_ExpandsEveryMonth() {
+        // Given
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=YEARLY;BYMONTHDAY=1;COUNT=13");
+
+        // When
+        List<LocalDateTime> occurrences = drain(rule.iterator(LocalDateTime.of(2024, 1, 1, 8, 0)));
+
+        // Then
+        assertThat(occurrences).hasSize(13).allMatch(occurrence -> occurrence.getDayOfMonth() == 1);
+        assertThat(occurrences).extracting(LocalDateTime::getMonthValue)
+            .containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 1);
+        assertThat(occurrences.get(12)).isEqualTo(LocalDateTime.of(2025, 1, 1, 8, 0));
+    }
+
+    @Test
+    void between_FarFutureWindow_MatchesFullIteration() {
+        // Given
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=TU,TH");
+        LocalDateTime from = LocalDateTime.of(2030, 6, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2030, 7, 1, 0, 0);
+
+        // When
+        List<LocalDateTime> skipped = rule.between(START, from, to).toList();
+        List<LocalDateTime> iterated = new ArrayList<>();
+        Iterator<LocalDateTime> iterator = rule.iterator(START);
+        while (iterator.hasNext()) {
+            LocalDateTime occurrence = iterator.next();
+            if (!occurrence.isBefore(to)) {
+                break;
+            }
+            if (!occurrence.isBefore(from)) {
+                iterated.add(occurrence);
+            }
+        }
+
+        // Then
+        assertThat(skipped).isNotEmpty().isEqualTo(iterated);
+    }
+
+    @Test
+    void parse_InvalidRules_Throw() {
+        assertThatThrownBy(() -> RecurrenceRule.parse(""))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecurrenceRule.parse("INTERVAL=2"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("FREQ");
+        assertThatThrownBy(() -> RecurrenceRule.parse("FREQ=HOURLY"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecurrenceRule.parse("FREQ=DAILY;COUNT=2;UNTIL=20240101"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<LocalDateTime> drain(Iterator<LocalDateTime> iterator) {
+        List<LocalDateTime> result = new ArrayList<>();
+        iterator.forEachRemaining(result::add);
+        return result;
+    }
+}
@@ -0,0 +1,79 @@
+package com.charleezy.maya.service;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RefreshingCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void get_ConcurrentMisses_ShareOneLoad() {
+        // Given a load that hasn't answered yet
+        RefreshingCache<String, String> cache = new RefreshingCache<>(1000, 1000, 10, now::get);
+        Sinks.One<String> response = Sinks.one();
+        Mono<String> first = cache.get("nomi", () -> counted(response.asMono()));
+        Mono<String> second = cache.get("nomi", () -> counted(Mono.just("other")));
+        first.subscribe();
+        second.subscribe();
+
+        // When
+        response.tryEmitValue("Ava");
+
+        // Then
+        assertThat(first.block()).isEqualTo("Ava");
+        assertThat(second.block()).isEqualTo("Ava");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void get_StaleThenExpired_ServesStaleWhileRefreshingThenWaits() {
+        // Given
+        RefreshingCache<String, String> cache = new RefreshingCache<>(1000, 1000, 10, now::get);
+        cache.get("nomi", () -> counted(Mono.just("v1"))).block();
+
+        // When
+        String fresh = cache.get("nomi", () -> counted(Mono.just("unused"))).block();
+        now.addAndGet(1500);
+        String stale = cache.get("nomi", () -> counted(Mono.just("v2"))).block();
+        String refreshed = cache.get("nomi", () -> counted(Mono.just("unused"))).block();
+        now.addAndGet(2500);
+        String reloaded = cache.get("nomi", () -> counted(Mono.just("v3"))).block();
+
+        // Then
+        assertThat(fresh).isEqualTo("v1");
+        assertThat(stale).isEqualTo("v1");
+        assertThat(refreshed).isEqualTo("v2");
+        assertThat(reloaded).isEqualTo("v3");
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void invalidateIf_DuringLoad_DoesNotCacheOutdatedValue() {
+        // Given
+        RefreshingCache<String, String> cache = new RefreshingCache<>(1000, 1000, 10, now::get);
+        Sinks.One<String> response = Sinks.one();
+        Mono<String> load = cache.get("alice/nomi", () -> counted(response.asMono()));
+        load.subscribe();
+
+        // When
+        cache.invalidateIf(key -> key.startsWith("alice/"));
+        response.tryEmitValue("before the change");
+
+        // Then
+        assertThat(load.block()).isEqualTo("before the change");
+        assertThat(cache.size()).isZero();
+    }
+
+    private Mono<String> counted(Mono<String> load) {
+        loads.incrementAndGet();
+        return load;
+    }
+}
@@ -0,0 +1,21 @@
+package com.charleezy.maya.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchQueryTest {
+
+    @Test
+    void toPrefixQuery_OrsPrefixTermsFromChatText() {
+        assertThat(SearchQuery.toPrefixQuery("When is my dentist thing?"))
+            .isEqualTo("when:* | is:* | my:* | dentist:* | thing:*");
+    }
+
+    @Test
+    void toPrefixQuery_StripsTsquerySyntaxAndDuplicates() {
+        assertThat(SearchQuery.toPrefixQuery("gym & !(gym | 'x') :* café"))
+            .isEqualTo("gym:* | café:*");
+        assertThat(SearchQuery.toPrefixQuery(" ?! ")).isNull();
+    }
+}
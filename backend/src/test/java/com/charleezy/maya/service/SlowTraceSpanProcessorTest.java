@@ -0,0 +1,101 @@
+package com.charleezy.maya.service;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlowTraceSpanProcessorTest {
+    private static final long T0 = 1_700_000_000_000L;
+
+    private final List<String> exported = new CopyOnWriteArrayList<>();
+    private SlowTraceSpanProcessor processor;
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+
+    @BeforeEach
+    void setUp() {
+        SpanProcessor exporter = new SpanProcessor() {
+            @Override
+            public void onStart(Context parentContext, ReadWriteSpan span) {
+            }
+
+            @Override
+            public boolean isStartRequired() {
+                return false;
+            }
+
+            @Override
+            public void onEnd(ReadableSpan span) {
+                exported.add(span.getName());
+            }
+
+            @Override
+            public boolean isEndRequired() {
+                return true;
+            }
+        };
+        processor = new SlowTraceSpanProcessor(exporter, 1000, 0, 100, 60000, System::currentTimeMillis);
+        tracerProvider = SdkTracerProvider.builder().addSpanProcessor(processor).build();
+        tracer = tracerProvider.get("test");
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracerProvider.close();
+    }
+
+    @Test
+    void onEnd_SlowOrFailedTraces_AreExportedWhole() {
+        // When
+        trace("fast", 200, false);
+        trace("slow", 1500, false);
+        trace("failed", 50, true);
+
+        // Then
+        assertThat(exported).containsExactly("slow.classify", "slow.reply", "slow", "failed.classify", "failed.reply", "failed");
+        assertThat(processor.pendingCount()).isZero();
+    }
+
+    @Test
+    void onEnd_TracesWhoseRootNeverEnds_AreEvictedWhenFull() {
+        // Given
+        for (int i = 0; i < 150; i++) {
+            Span root = tracer.spanBuilder("open").setStartTimestamp(T0, TimeUnit.MILLISECONDS).startSpan();
+            tracer.spanBuilder("child").setParent(Context.root().with(root)).startSpan().end();
+        }
+
+        // Then
+        assertThat(processor.pendingCount()).isEqualTo(100);
+        assertThat(exported).isEmpty();
+    }
+
+    /**
+     * A root span lasting {@code durationMs}, with two children
+     */
+    private void trace(String name, long durationMs, boolean failed) {
+        Span root = tracer.spanBuilder(name).setStartTimestamp(T0, TimeUnit.MILLISECONDS).startSpan();
+        Context context = Context.root().with(root);
+        tracer.spanBuilder(name + ".classify").setParent(context).setStartTimestamp(T0, TimeUnit.MILLISECONDS)
+            .startSpan().end(T0 + 10, TimeUnit.MILLISECONDS);
+        tracer.spanBuilder(name + ".reply").setParent(context).setStartTimestamp(T0 + 10, TimeUnit.MILLISECONDS)
+            .startSpan().end(T0 + durationMs, TimeUnit.MILLISECONDS);
+        if (failed) {
+            root.setStatus(StatusCode.ERROR);
+        }
+        root.end(T0 + durationMs, TimeUnit.MILLISECONDS);
+    }
+}
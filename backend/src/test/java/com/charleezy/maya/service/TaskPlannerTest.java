@@ -0,0 +1,107 @@
+package com.charleezy.maya.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaskPlannerTest {
+
+    private static final LocalDateTime MONDAY_8AM = LocalDateTime.of(2024, 1, 1, 8, 0);
+    private static final LocalDateTime TWO_WEEKS_LATER = MONDAY_8AM.plusDays(14);
+
+    private final TaskPlanner planner = new TaskPlanner(LocalTime.of(9, 0), LocalTime.of(17, 0));
+
+    @Test
+    void plan_PacksAroundBusyIntervalsWithinWorkingHours() {
+        // Given
+        List<TaskPlanner.PlannableTask> tasks = List.of(
+            new TaskPlanner.PlannableTask(1L, 60, MONDAY_8AM.plusDays(1), 0),
+            new TaskPlanner.PlannableTask(2L, 90, MONDAY_8AM.plusDays(1), 0));
+        List<LocalDateTime[]> busy = List.<LocalDateTime[]>of(
+            new LocalDateTime[] {at(9, 30), at(10, 0)});
+
+        // When
+        TaskPlanner.Plan plan = planner.plan(tasks, busy, MONDAY_8AM, TWO_WEEKS_LATER);
+
+        // Then
+        assertThat(plan.unplaced()).isEmpty();
+        assertThat(plan.placementOf(1L).orElseThrow().start()).isEqualTo(at(10, 0));
+        assertThat(plan.placementOf(2L).orElseThrow().start()).isEqualTo(at(11, 0));
+    }
+
+    @Test
+    void plan_SameDueDay_HigherPriorityGoesFirst() {
+        // Given
+        LocalDateTime due = MONDAY_8AM.plusDays(2);
+        List<TaskPlanner.PlannableTask> tasks = List.of(
+            new TaskPlanner.PlannableTask(1L, 60, due.withHour(9), 1),
+            new TaskPlanner.PlannableTask(2L, 60, due.withHour(17), 5));
+
+        // When
+        TaskPlanner.Plan plan = planner.plan(tasks, List.of(), MONDAY_8AM, TWO_WEEKS_LATER);
+
+        // Then
+        assertThat(plan.placementOf(2L).orElseThrow().start()).isEqualTo(at(9, 0));
+        assertThat(plan.placementOf(1L).orElseThrow().start()).isEqualTo(at(10, 0));
+    }
+
+    @Test
+    void plan_DoesNotSpanTheEndOfTheWorkday() {
+        // Given
+        List<TaskPlanner.PlannableTask> tasks = List.of(
+            new TaskPlanner.PlannableTask(1L, 7 * 60, null, 1),
+            new TaskPlanner.PlannableTask(2L, 120, null, 0));
+
+        // When
+        TaskPlanner.Plan plan = planner.plan(tasks, List.of(), MONDAY_8AM, TWO_WEEKS_LATER);
+
+        // Then
+        assertThat(plan.placementOf(1L).orElseThrow().end()).isEqualTo(at(16, 0));
+        assertThat(plan.placementOf(2L).orElseThrow().start()).isEqualTo(at(9, 0).plusDays(1));
+    }
+
+    @Test
+    void plan_CannotMeetDueDate_FlagsLate() {
+        // Given
+        List<TaskPlanner.PlannableTask> tasks = List.of(
+            new TaskPlanner.PlannableTask(1L, 8 * 60, MONDAY_8AM.plusDays(1), 0),
+            new TaskPlanner.PlannableTask(2L, 60, MONDAY_8AM.plusDays(1), 0));
+
+        // When
+        TaskPlanner.Plan plan = planner.plan(tasks, List.of(), MONDAY_8AM, TWO_WEEKS_LATER);
+
+        // Then
+        assertThat(plan.placementOf(2L).orElseThrow().late()).isFalse();
+        assertThat(plan.placementOf(1L).orElseThrow().late()).isTrue();
+    }
+
+    @Test
+    void replan_MovesOnlyTheChangedTask() {
+        // Given
+        List<TaskPlanner.PlannableTask> tasks = new ArrayList<>(List.of(
+            new TaskPlanner.PlannableTask(1L, 60, null, 0),
+            new TaskPlanner.PlannableTask(2L, 60, null, 0),
+            new TaskPlanner.PlannableTask(3L, 60, null, 0)));
+        TaskPlanner.Plan initial = planner.plan(tasks, List.of(), MONDAY_8AM, TWO_WEEKS_LATER);
+        TaskPlanner.PlannableTask longer = new TaskPlanner.PlannableTask(1L, 120, null, 0);
+        tasks.set(0, longer);
+
+        // When
+        TaskPlanner.Plan plan = planner.replan(initial, tasks, 1L, longer, List.of(), MONDAY_8AM, TWO_WEEKS_LATER);
+
+        // Then
+        assertThat(plan.placementOf(2L)).isEqualTo(initial.placementOf(2L));
+        assertThat(plan.placementOf(3L)).isEqualTo(initial.placementOf(3L));
+        assertThat(plan.placementOf(1L).orElseThrow().start()).isEqualTo(at(12, 0));
+        assertThat(plan.placementOf(1L).orElseThrow().end()).isEqualTo(at(14, 0));
+    }
+
+    private static LocalDateTime at(int hour, int minute) {
+        return MONDAY_8AM.withHour(hour).withMinute(minute);
+    }
+}
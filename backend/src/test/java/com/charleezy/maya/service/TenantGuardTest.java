@@ -0,0 +1,68 @@
+package com.charleezy.maya.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TenantGuardTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    @Test
+    void reserve_BurstThenWaitsThenRejects_PerTenant() {
+        // Given 2 requests/second with a burst of 2
+        TenantGuard guard = new TenantGuard(2, 2, 5, 60_000, now::get);
+
+        // When
+        long first = guard.reserve("noisy", 1000);
+        long second = guard.reserve("noisy", 1000);
+        long third = guard.reserve("noisy", 1000);
+        long fourth = guard.reserve("noisy", 600);
+        long other = guard.reserve("quiet", 0);
+
+        // Then
+        assertThat(first).isZero();
+        assertThat(second).isZero();
+        assertThat(third).isEqualTo(500);
+        assertThat(fourth).isEqualTo(-1);
+        assertThat(other).isZero();
+        assertThat(guard.stats("noisy").throttled()).isEqualTo(1);
+    }
+
+    @Test
+    void refund_ReturnsTheTokenForTheNextReservation() {
+        // Given a tenant that has used up its burst of 1
+        TenantGuard guard = new TenantGuard(1, 1, 5, 60_000, now::get);
+        guard.reserve("user", 0);
+
+        // When the request is turned away elsewhere and its token handed back
+        guard.refund("user");
+        long retried = guard.reserve("user", 0);
+
+        // Then the retry goes out at once, and only it counts as a request
+        assertThat(retried).isZero();
+        assertThat(guard.stats("user").requests()).isEqualTo(1);
+    }
+
+    @Test
+    void recordFailure_AtThreshold_PausesTenantForCooldown() {
+        // Given
+        TenantGuard guard = new TenantGuard(100, 100, 3, 60_000, now::get);
+        for (int i = 0; i < 3; i++) {
+            guard.reserve("broken", 0);
+            guard.recordFailure("broken");
+        }
+
+        // When
+        long paused = guard.reserve("broken", 0);
+        now.addAndGet(60_000);
+        long resumed = guard.reserve("broken", 0);
+
+        // Then
+        assertThat(paused).isEqualTo(-1);
+        assertThat(resumed).isZero();
+        assertThat(guard.stats("broken").failures()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,136 @@
+package com.charleezy.maya.service;
+
+import com.charleezy.maya.config.TimerConfig;
+import com.charleezy.maya.model.ItemStatus;
+import com.charleezy.maya.repository.PendingTimer;
+import com.charleezy.maya.repository.TaskRepository;
+import com.charleezy.maya.service.impl.TimerRecovery;
+import com.charleezy.maya.service.impl.TimerServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TimerRecoveryTest {
+
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private TaskStatusService taskStatusService;
+
+    @Mock
+    private MessageDispatcher messageDispatcher;
+
+    private final TimerConfig timerConfig = new TimerConfig();
+
+    @Test
+    void recover_PagesInKeysetOrder_KeepsFutureTimesAndSpacesOverdueOnes() {
+        // Given pages of two, two overdue rows and then one due tomorrow, at 10 catch-up timers a second
+        timerConfig.setRecoveryPageSize(2);
+        timerConfig.setCatchUpPerSecond(10);
+        LocalDateTime now = LocalDateTime.now();
+        PendingTimer first = new PendingTimer(1L, "user", "nomi", "Stretch", now.minusHours(2));
+        PendingTimer second = new PendingTimer(7L, "user", "nomi", "Water plants", now.minusMinutes(5));
+        PendingTimer later = new PendingTimer(3L, "user", "nomi", "Call mum", now.plusDays(1));
+        Set<Integer> shards = Set.of(0, 1);
+        when(taskRepository.findPendingTimersAfter(eq(shards), eq(KEYSET_START), any(), eq(KEYSET_START), eq(0L), any()))
+            .thenReturn(List.of(first, second));
+        when(taskRepository.findPendingTimersAfter(eq(shards), eq(KEYSET_START), any(), eq(second.scheduledTime()), eq(7L), any()))
+            .thenReturn(List.of(later));
+        Map<String, TimerService.ScheduledTimer> armed = new ConcurrentHashMap<>();
+        TimerRecovery recovery = new TimerRecovery(timerConfig, taskRepository, recordingTimerService(armed));
+
+        // When
+        Instant before = Instant.now();
+        int recovered = recovery.recover(shards, KEYSET_START);
+
+        // Then the next page starts after the last row of the previous one, and the short page ends the scan
+        assertThat(recovered).isEqualTo(3);
+        assertThat(armed).containsOnlyKeys("1", "7", "3");
+        Instant firstFires = armed.get("1").fireAt();
+        assertThat(firstFires).isBetween(before, Instant.now());
+        assertThat(Duration.between(firstFires, armed.get("7").fireAt())).isEqualTo(Duration.ofMillis(100));
+        assertThat(armed.get("3").fireAt()).isEqualTo(later.scheduledTime().atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    @Test
+    void recoveredTimer_ForTaskCompletedMeanwhile_IsNotDeliveredAgain() {
+        // Given two overdue tasks, one of which another instance delivered before this one recovered it
+        timerConfig.setCatchUpPerSecond(1000);
+        LocalDateTime due = LocalDateTime.now().minusMinutes(1);
+        when(taskRepository.findPendingTimersAfter(any(), any(), any(), any(), any(), any())).thenReturn(List.of(
+            new PendingTimer(1L, "done", "nomi", "Already sent", due),
+            new PendingTimer(2L, "waiting", "nomi", "Still pending", due)));
+        when(taskStatusService.transition(any(), eq(ItemStatus.PENDING), eq(ItemStatus.COMPLETED)))
+            .thenAnswer(invocation -> Flux.fromIterable(invocation.<Collection<Long>>getArgument(0))
+                .filter(taskId -> taskId != 1L));
+        when(messageDispatcher.dispatch(anyString(), anyString(), anyString())).thenReturn(true);
+        TimerServiceImpl timerService = new TimerServiceImpl(timerConfig, messageDispatcher, taskStatusService);
+        timerService.start();
+
+        try {
+            // When
+            new TimerRecovery(timerConfig, taskRepository, timerService).recover(List.of(0), KEYSET_START);
+
+            // Then only the task that could still be claimed is delivered
+            verify(messageDispatcher, timeout(2000)).dispatch("waiting", "nomi", "Still pending");
+            verify(messageDispatcher, never()).dispatch(eq("done"), anyString(), anyString());
+        } finally {
+            timerService.stop();
+        }
+    }
+
+    private static TimerService recordingTimerService(Map<String, TimerService.ScheduledTimer> armed) {
+        return new TimerService() {
+            @Override
+            public void schedule(ScheduledTimer timer) {
+                armed.put(timer.id(), timer);
+            }
+
+            @Override
+            public void onFired(String idPrefix, Consumer<ScheduledTimer> handler) {
+            }
+
+            @Override
+            public boolean cancel(String timerId) {
+                return armed.remove(timerId) != null;
+            }
+
+            @Override
+            public int cancelIf(Predicate<ScheduledTimer> predicate) {
+                return 0;
+            }
+
+            @Override
+            public int pendingCount() {
+                return armed.size();
+            }
+        };
+    }
+}
@@ -0,0 +1,119 @@
+package com.charleezy.maya.service;
+
+import com.charleezy.maya.config.TimerConfig;
+import com.charleezy.maya.repository.TimerNodeRepository;
+import com.charleezy.maya.repository.TimerShardLeaseRepository;
+import com.charleezy.maya.service.impl.TimerRecovery;
+import com.charleezy.maya.service.impl.TimerShardCoordinator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TimerShardCoordinatorTest {
+
+    private static final Set<Integer> ALL_SHARDS = IntStream.range(0, 16).boxed().collect(Collectors.toSet());
+
+    @Mock
+    private TimerNodeRepository nodeRepository;
+
+    @Mock
+    private TimerShardLeaseRepository leaseRepository;
+
+    @Mock
+    private TimerService timerService;
+
+    @Mock
+    private TimerRecovery timerRecovery;
+
+    private final TimerConfig timerConfig = new TimerConfig();
+    private TimerShardCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() {
+        timerConfig.setShardCount(ALL_SHARDS.size());
+        timerConfig.setNodeId("node-a");
+        coordinator = new TimerShardCoordinator(timerConfig, nodeRepository, leaseRepository, timerService, timerRecovery);
+    }
+
+    @Test
+    void rebalance_NodeJoins_CancelsAndReleasesItsShardsThenKeepsTheRest() {
+        // Given node-a alone owns every shard
+        when(leaseRepository.tryAcquire(anyInt(), eq("node-a"), any(), any())).thenReturn(1);
+        when(nodeRepository.findLiveNodeIds(any())).thenReturn(List.of("node-a"));
+        coordinator.rebalance();
+        assertThat(coordinator.getOwnedShards()).isEqualTo(ALL_SHARDS);
+        verify(timerRecovery).recover(eq(ALL_SHARDS), any());
+
+        // When node-b joins
+        when(nodeRepository.findLiveNodeIds(any())).thenReturn(List.of("node-a", "node-b"));
+        coordinator.rebalance();
+
+        // Then each shard node-b prefers has its local timers cancelled before its lease is released,
+        // and only node-a's remaining shards are swept for new reminders, not recovered from scratch
+        Set<Integer> handedOver = new TreeSet<>(ALL_SHARDS);
+        handedOver.removeAll(coordinator.getOwnedShards());
+        assertThat(handedOver).isNotEmpty();
+        assertThat(coordinator.getOwnedShards()).isNotEmpty();
+        InOrder inOrder = inOrder(timerService, leaseRepository);
+        for (Integer shard : handedOver) {
+            inOrder.verify(timerService).cancelIf(any());
+            inOrder.verify(leaseRepository).release(shard, "node-a");
+        }
+        verify(leaseRepository, never()).release(eq(coordinator.getOwnedShards().iterator().next()), any());
+        verify(timerRecovery).recover(eq(coordinator.getOwnedShards()), any(LocalDateTime.class));
+    }
+
+    @Test
+    void rebalance_LeaseTakenByAnotherNode_DropsShardWithoutReleasingIt() {
+        // Given node-a owns every shard
+        when(nodeRepository.findLiveNodeIds(any())).thenReturn(List.of("node-a"));
+        when(leaseRepository.tryAcquire(anyInt(), eq("node-a"), any(), any())).thenReturn(1);
+        coordinator.rebalance();
+
+        // When shard 5's lease has meanwhile gone to someone else, e.g. after a long pause
+        when(leaseRepository.tryAcquire(eq(5), eq("node-a"), any(), any())).thenReturn(0);
+        coordinator.rebalance();
+
+        // Then its timers are cancelled here, only for that shard, and the other owner's lease is left alone
+        assertThat(coordinator.getOwnedShards()).doesNotContain(5).hasSize(ALL_SHARDS.size() - 1);
+        verify(leaseRepository, never()).release(anyInt(), any());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Predicate<TimerService.ScheduledTimer>> cancelled = ArgumentCaptor.forClass(Predicate.class);
+        verify(timerService, atLeastOnce()).cancelIf(cancelled.capture());
+        String userInShard5 = IntStream.range(0, 1000).mapToObj(i -> "user-" + i)
+            .filter(user -> timerConfig.shardOf(user) == 5).findFirst().orElseThrow();
+        String userElsewhere = IntStream.range(0, 1000).mapToObj(i -> "user-" + i)
+            .filter(user -> timerConfig.shardOf(user) != 5).findFirst().orElseThrow();
+        assertThat(cancelled.getValue().test(timer(userInShard5))).isTrue();
+        assertThat(cancelled.getValue().test(timer(userElsewhere))).isFalse();
+        verify(timerRecovery, never()).recover(eq(Set.of(5)), any());
+    }
+
+    private static TimerService.ScheduledTimer timer(String userId) {
+        return new TimerService.ScheduledTimer("1", 1L, userId, "nomi", "Reminder", Instant.now());
+    }
+}
@@ -0,0 +1,112 @@
+package com.charleezy.maya.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private final List<String> fired = new CopyOnWriteArrayList<>();
+    private TimingWheel<String> wheel;
+    private Thread driver;
+
+    @BeforeEach
+    void setUp() {
+        // Small wheels so that longer delays have to cascade through overflow levels
+        wheel = new TimingWheel<>(1, 8, fired::add);
+        driver = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    wheel.advanceClock(50);
+                }
+            } catch (InterruptedException ignored) {
+                // shutting down
+            }
+        });
+        driver.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        driver.interrupt();
+        driver.join();
+    }
+
+    @Test
+    void schedule_FiresInExpirationOrder() throws InterruptedException {
+        // When
+        wheel.schedule("late", 300);
+        wheel.schedule("early", 20);
+        wheel.schedule("middle", 120);
+
+        // Then
+        awaitFired(3);
+        assertThat(fired).containsExactly("early", "middle", "late");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void schedule_DoesNotFireEarly() throws InterruptedException {
+        // Given
+        long start = System.nanoTime();
+
+        // When
+        wheel.schedule("timer", 150);
+        awaitFired(1);
+
+        // Then
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertThat(elapsedMs).isGreaterThanOrEqualTo(149);
+    }
+
+    @Test
+    void schedule_AlreadyDue_FiresImmediately() {
+        // When
+        wheel.schedule("overdue", -1000);
+
+        // Then
+        assertThat(fired).containsExactly("overdue");
+    }
+
+    @Test
+    void cancel_PendingTimer_NeverFires() throws InterruptedException {
+        // Given
+        TimingWheel.Entry<String> cancelled = wheel.schedule("cancelled", 100);
+        wheel.schedule("kept", 150);
+
+        // When
+        boolean result = cancelled.cancel();
+
+        // Then
+        assertThat(result).isTrue();
+        awaitFired(1);
+        Thread.sleep(50);
+        assertThat(fired).containsExactly("kept");
+        assertThat(cancelled.cancel()).isFalse();
+    }
+
+    @Test
+    void schedule_ManyTimers_AllFire() throws InterruptedException {
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            wheel.schedule("t" + i, i % 200);
+        }
+
+        // Then
+        awaitFired(10_000);
+        assertThat(fired).hasSize(10_000);
+    }
+
+    private void awaitFired(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (fired.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
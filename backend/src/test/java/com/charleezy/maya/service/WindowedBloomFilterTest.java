@@ -0,0 +1,52 @@
+package com.charleezy.maya.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WindowedBloomFilterTest {
+
+    @Test
+    void bloomFilter_NoFalseNegativesAndFalsePositivesNearTarget() {
+        // Given
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("msg-" + i);
+        }
+
+        // When
+        int falsePositives = 0;
+        for (int i = 10_000; i < 110_000; i++) {
+            if (filter.mightContain("msg-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("msg-" + i)).isTrue();
+        }
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+
+    @Test
+    void mightContain_RemembersForOneWindowThenForgets() {
+        // Given
+        AtomicLong now = new AtomicLong();
+        WindowedBloomFilter filter = new WindowedBloomFilter(1_000, 0.01, Duration.ofMillis(100), now::get);
+        filter.add("a");
+
+        // When
+        now.set(150);
+        boolean afterOneWindow = filter.mightContain("a");
+        now.set(250);
+        boolean afterTwoWindows = filter.mightContain("a");
+
+        // Then
+        assertThat(afterOneWindow).isTrue();
+        assertThat(afterTwoWindows).isFalse();
+    }
+}